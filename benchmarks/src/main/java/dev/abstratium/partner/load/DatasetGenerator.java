@@ -0,0 +1,470 @@
+package dev.abstratium.partner.load;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import org.flywaydb.core.Flyway;
+
+import dev.abstratium.partner.service.ContactLookupKeys;
+import dev.abstratium.partner.service.PartnerNameKeys;
+
+/**
+ * Fills the database with a large, synthetic but realistic set of partners for load testing:
+ * partners, addresses, contact details, tags, relationships and the derived name and lookup keys,
+ * so that the application has nothing to backfill when it starts.
+ *
+ * The data is deterministic: the same seed, partner count and starting partner number produce the
+ * same rows. Names, cities, email domains and tags are Zipf-distributed, so a few values are very
+ * common and most are rare, and the number of addresses, contacts and tags per partner varies.
+ * Partners are appended after the existing ones and the partner number sequence is advanced.
+ *
+ * Usage:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar dev.abstratium.partner.load.DatasetGenerator \
+ *     --url=jdbc:mysql://localhost:41040/abstradex --user=abstradex --password=secret --partners=1000000
+ * </pre>
+ * Options: {@code --url} (required), {@code --user}, {@code --password}, {@code --partners} (default 100000),
+ * {@code --seed} (default 42), {@code --tags} (default 200), {@code --rows-per-insert} (default 500),
+ * {@code --partners-per-commit} (default 2000) and {@code --migrate}, which runs the Flyway migrations first,
+ * e.g. to create a file based H2 database.
+ */
+public class DatasetGenerator {
+
+    private static final String DEFAULT_CALLING_CODE = "41";
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final int HISTORY_DAYS = 10 * 365;
+
+    private static final String[] FIRST_NAMES = { "Daniel", "Peter", "Thomas", "Maria", "Anna", "Hans", "Sandra",
+        "Martin", "Christian", "Andreas", "Nicole", "Marco", "Laura", "Michael", "Sarah", "Stefan", "Monika", "Lukas",
+        "Julia", "David", "Ursula", "Reto", "Claudia", "Beat", "Barbara", "Simon", "Andrea", "Markus", "Lea", "Jonas",
+        "Elena", "Luca", "Sophie", "Noah", "Mia", "Pierre", "Chloé", "Giulia", "Matteo", "Zoë", "James", "Emma",
+        "Olivia", "William", "Fatima", "Mehmet", "Ana", "João", "Björn", "Ingrid" };
+    private static final String[] LAST_NAMES = { "Müller", "Meier", "Schmid", "Keller", "Weber", "Huber", "Schneider",
+        "Meyer", "Steiner", "Fischer", "Gerber", "Brunner", "Baumann", "Frei", "Zimmermann", "Moser", "Widmer", "Wyss",
+        "Graf", "Roth", "Suter", "Baumgartner", "Bachmann", "Studer", "Bühler", "Kälin", "Lehmann", "Marti", "Kunz",
+        "Sommer", "Hofmann", "Maier", "Mayer", "Schmidt", "Schmitt", "Rossi", "Bernasconi", "Favre", "Rochat", "Dubois",
+        "Smith", "Jones", "O'Brien", "García", "Silva", "Yilmaz", "Nguyen", "Kovačević", "Andersson", "Nowak" };
+    private static final String[] SYLLABLES = { "li", "ger", "mann", "ber", "ler", "hof", "wald", "egg", "rich", "bach" };
+    private static final String[] TITLES = { "Dr.", "Prof.", "Dipl. Ing." };
+    private static final String[] LANGUAGES = { "de", "fr", "it", "en" };
+    private static final String[] COMPANY_WORDS = { "Alpen", "Helvetia", "Swiss", "Rhein", "Limmat", "Matterhorn",
+        "Acme", "Nordstern", "Säntis", "Jura", "Pilatus", "Global", "Digital", "Precision", "Bau", "Transport",
+        "Consulting", "Treuhand", "Immobilien", "Logistik", "Medical", "Software", "Engineering", "Finance", "Garage",
+        "Bäckerei", "Handel", "Solar", "Energie", "Data" };
+    private static final String[] LEGAL_FORMS = { "AG", "GmbH", "AG", "GmbH", "Sàrl", "SA", "Ltd.", "Genossenschaft",
+        "Einzelfirma", "Verein" };
+    private static final String[] CITIES = { "Zürich", "Genève", "Basel", "Lausanne", "Bern", "Winterthur", "Luzern",
+        "St. Gallen", "Lugano", "Biel/Bienne", "Thun", "Köniz", "Fribourg", "Schaffhausen", "Chur", "Uster", "Sion",
+        "Zug", "Aarau", "Baden", "Olten", "Wil", "Frauenfeld", "Kloten", "Dübendorf", "Rapperswil", "Davos", "Montreux",
+        "Neuchâtel", "Bellinzona" };
+    private static final String[] FOREIGN_CITIES = { "München", "Berlin", "Stuttgart", "Wien", "Paris", "Lyon",
+        "Milano", "London", "New York", "Vaduz" };
+    private static final String[] FOREIGN_COUNTRIES = { "DE", "DE", "DE", "AT", "FR", "FR", "IT", "GB", "US", "LI" };
+    private static final String[] STREETS = { "Bahnhofstrasse", "Hauptstrasse", "Dorfstrasse", "Seestrasse",
+        "Kirchgasse", "Schulstrasse", "Industriestrasse", "Poststrasse", "Rue du Marché", "Via Cantonale",
+        "Gartenstrasse", "Bergstrasse", "Lindenweg", "Rosenweg", "Avenue de la Gare" };
+    private static final String[] EMAIL_DOMAINS = { "gmail.com", "bluewin.ch", "gmx.ch", "hotmail.com", "outlook.com",
+        "sunrise.ch", "yahoo.com", "icloud.com", "protonmail.com", "hispeed.ch" };
+    private static final String[] TAG_NAMES = { "customer", "supplier", "vip", "prospect", "partner", "newsletter",
+        "key-account", "blocked", "reseller", "employee", "investor", "press", "inactive", "b2b", "b2c" };
+    private static final String[] TAGGED_BY = { "alice", "bob", "carol", "import" };
+    private static final String[] NOTES = { "Met at the trade fair in Basel.", "Prefers contact by email.",
+        "Payment terms 30 days net.", "Long-standing customer since the nineties.", "Call before delivery." };
+
+    private final Random random;
+    private final int tagCount;
+    private final int rowsPerInsert;
+    private final int partnersPerCommit;
+
+    private final Zipf firstNames = new Zipf(FIRST_NAMES.length, 1.0);
+    private final Zipf lastNames = new Zipf(LAST_NAMES.length, 1.1);
+    private final Zipf companyWords = new Zipf(COMPANY_WORDS.length, 0.8);
+    private final Zipf cities = new Zipf(CITIES.length, 1.2);
+    private final Zipf streets = new Zipf(STREETS.length, 0.9);
+    private final Zipf emailDomains = new Zipf(EMAIL_DOMAINS.length, 1.3);
+    private final Zipf tags;
+
+    private final List<String> tagIds = new ArrayList<>();
+    private final List<String> relationshipTypeIds = new ArrayList<>();
+    // recently generated legal entities, as targets of relationships and shared addresses
+    private final List<String> legalEntityIds = new ArrayList<>();
+    private final List<String> addressIds = new ArrayList<>();
+
+    DatasetGenerator(long seed, int tagCount, int rowsPerInsert, int partnersPerCommit) {
+        this.random = new Random(seed);
+        this.tagCount = tagCount;
+        this.rowsPerInsert = rowsPerInsert;
+        this.partnersPerCommit = partnersPerCommit;
+        this.tags = new Zipf(tagCount, 1.0);
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Map<String, String> options = parseOptions(args);
+        String url = options.get("url");
+        if (url == null) {
+            System.err.println("Usage: DatasetGenerator --url=<jdbc url> [--user=] [--password=] [--partners=100000] "
+                + "[--seed=42] [--tags=200] [--rows-per-insert=500] [--partners-per-commit=2000] [--migrate]");
+            System.exit(1);
+        }
+        String user = options.getOrDefault("user", "");
+        String password = options.getOrDefault("password", "");
+        if (options.containsKey("migrate")) {
+            Flyway.configure().dataSource(url, user, password).locations("classpath:db/migration").load().migrate();
+        }
+
+        DatasetGenerator generator = new DatasetGenerator(
+            Long.parseLong(options.getOrDefault("seed", "42")),
+            Integer.parseInt(options.getOrDefault("tags", "200")),
+            Integer.parseInt(options.getOrDefault("rows-per-insert", "500")),
+            Integer.parseInt(options.getOrDefault("partners-per-commit", "2000")));
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            generator.generate(connection, Integer.parseInt(options.getOrDefault("partners", "100000")));
+        }
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown argument " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+
+    void generate(Connection connection, int partnerCount) throws SQLException {
+        long start = System.currentTimeMillis();
+        connection.setAutoCommit(false);
+        long firstSeq = nextPartnerSeq(connection);
+        loadRelationshipTypes(connection);
+
+        try (MultiRowInsert tagRows = insert(connection, "T_tag", "id", "tag_name", "color_hex", "description")) {
+            createTags(connection, tagRows);
+            tagRows.flush();
+        }
+        connection.commit();
+
+        try (MultiRowInsert partners = insert(connection, "T_partner", "id", "partner_number_seq", "partner_type",
+                "created_at", "updated_at", "is_active", "notes", "title", "first_name", "last_name", "date_of_birth",
+                "preferred_language", "legal_name", "trading_name", "registration_number", "legal_form",
+                "incorporation_date", "jurisdiction");
+            MultiRowInsert addresses = insert(connection, "T_address", "id", "street_line1", "street_line2", "city",
+                "state_province", "postal_code", "country_code", "valid_from", "is_verified");
+            MultiRowInsert addressDetails = insert(connection, "T_address_detail", "id", "partner_id", "address_id",
+                "is_primary", "address_type", "valid_from");
+            MultiRowInsert contacts = insert(connection, "T_contact_detail", "id", "partner_id", "contact_type",
+                "contact_value", "label", "is_primary", "is_verified", "lookup_key", "lookup_domain");
+            MultiRowInsert nameKeys = insert(connection, "T_partner_name_key", "id", "partner_id", "name_field",
+                "normalized", "cologne", "metaphone");
+            MultiRowInsert partnerTags = insert(connection, "T_partner_tag", "id", "partner_id", "tag_id", "tagged_at",
+                "tagged_by");
+            MultiRowInsert relationships = insert(connection, "T_partner_relationship", "id", "from_partner_id",
+                "to_partner_id", "relationship_type_id", "effective_from", "notes")) {
+
+            // parents before children, so that foreign keys are satisfied
+            List<MultiRowInsert> tables = List.of(partners, addresses, addressDetails, contacts, nameKeys, partnerTags,
+                relationships);
+            for (int i = 0; i < partnerCount; i++) {
+                long seq = firstSeq + i;
+                String partnerId = uuid();
+                LocalDateTime createdAt = NOW.minusMinutes(random.nextInt(HISTORY_DAYS * 24 * 60));
+                if (random.nextInt(10) < 7) {
+                    generateNaturalPerson(partners, nameKeys, contacts, partnerId, seq, createdAt);
+                } else {
+                    generateLegalEntity(partners, nameKeys, contacts, partnerId, seq, createdAt);
+                }
+                generateAddresses(addresses, addressDetails, partnerId, createdAt);
+                generateTags(partnerTags, partnerId, createdAt);
+                generateRelationships(relationships, partnerId, createdAt);
+
+                if ((i + 1) % partnersPerCommit == 0 || i == partnerCount - 1) {
+                    for (MultiRowInsert table : tables) {
+                        table.flush();
+                    }
+                    advanceSequence(connection, seq + 1);
+                    connection.commit();
+                    if ((i + 1) % (partnersPerCommit * 50) == 0) {
+                        System.out.printf("%,d partners written%n", i + 1);
+                    }
+                }
+            }
+
+            System.out.printf("Wrote %,d partners, %,d addresses, %,d address details, %,d contact details, "
+                    + "%,d name keys, %,d partner tags and %,d relationships in %,d ms%n",
+                partners.written(), addresses.written(), addressDetails.written(), contacts.written(),
+                nameKeys.written(), partnerTags.written(), relationships.written(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private void generateNaturalPerson(MultiRowInsert partners, MultiRowInsert nameKeys, MultiRowInsert contacts,
+            String partnerId, long seq, LocalDateTime createdAt) {
+        String firstName = firstNames.pick(random, FIRST_NAMES);
+        // a quarter of the surnames are double-barrelled or rare, which gives the long tail
+        String lastName = switch (random.nextInt(8)) {
+            case 0 -> lastNames.pick(random, LAST_NAMES) + "-" + lastNames.pick(random, LAST_NAMES);
+            case 1 -> lastNames.pick(random, LAST_NAMES) + syllable() + syllable();
+            default -> lastNames.pick(random, LAST_NAMES);
+        };
+        LocalDate dateOfBirth = random.nextInt(3) == 0 ? null
+            : LocalDate.of(1940, 1, 1).plusDays(random.nextInt(65 * 365));
+        partners.add(partnerId, seq, "NATURAL_PERSON", timestamp(createdAt), timestamp(updatedAt(createdAt)),
+            random.nextInt(20) != 0, notes(), random.nextInt(15) == 0 ? TITLES[random.nextInt(TITLES.length)] : null,
+            firstName, lastName, date(dateOfBirth), LANGUAGES[Math.min(random.nextInt(6), LANGUAGES.length - 1)],
+            null, null, null, null, null, null);
+        addNameKeys(nameKeys, partnerId, "FIRST_NAME", firstName);
+        addNameKeys(nameKeys, partnerId, "LAST_NAME", lastName);
+
+        String localPart = PartnerNameKeys.normalize(firstName + "." + lastName).replaceAll("[^a-z0-9.]", "");
+        int emails = weighted(15, 65, 17, 3);
+        for (int i = 0; i < emails; i++) {
+            String domain = i == 0 ? emailDomains.pick(random, EMAIL_DOMAINS) : "example-" + random.nextInt(5000) + ".ch";
+            addContact(contacts, partnerId, "EMAIL", localPart + (random.nextInt(3) == 0 ? random.nextInt(100) : "")
+                + "@" + domain, i == 0 ? "private" : "work", i == 0 && random.nextBoolean());
+        }
+        if (random.nextInt(10) < 7) {
+            addContact(contacts, partnerId, "MOBILE", phone("79"), null, random.nextInt(3) == 0);
+        }
+        if (random.nextInt(10) < 3) {
+            addContact(contacts, partnerId, "PHONE", phone("44"), "home", false);
+        }
+        if (random.nextInt(10) == 0) {
+            addContact(contacts, partnerId, "LINKEDIN", "https://www.linkedin.com/in/" + localPart.replace('.', '-'),
+                null, false);
+        }
+    }
+
+    private void generateLegalEntity(MultiRowInsert partners, MultiRowInsert nameKeys, MultiRowInsert contacts,
+            String partnerId, long seq, LocalDateTime createdAt) {
+        String name = companyWords.pick(random, COMPANY_WORDS)
+            + (random.nextBoolean() ? " " + companyWords.pick(random, COMPANY_WORDS) : "")
+            + (random.nextInt(3) == 0 ? " " + lastNames.pick(random, LAST_NAMES) : "");
+        String legalName = name + " " + LEGAL_FORMS[random.nextInt(LEGAL_FORMS.length)];
+        String tradingName = random.nextInt(4) == 0 ? name : null;
+        boolean swiss = random.nextInt(10) < 8;
+        partners.add(partnerId, seq, "LEGAL_ENTITY", timestamp(createdAt), timestamp(updatedAt(createdAt)),
+            random.nextInt(20) != 0, notes(), null, null, null, null, null, legalName, tradingName,
+            swiss ? String.format("CHE-%03d.%03d.%03d", random.nextInt(1000), random.nextInt(1000), random.nextInt(1000))
+                : "HRB " + (10000 + random.nextInt(90000)),
+            legalName.substring(legalName.lastIndexOf(' ') + 1),
+            date(LocalDate.of(1900, 1, 1).plusDays(random.nextInt(125 * 365))),
+            swiss ? "CH" : FOREIGN_COUNTRIES[random.nextInt(FOREIGN_COUNTRIES.length)]);
+        addNameKeys(nameKeys, partnerId, "LEGAL_NAME", legalName);
+        addNameKeys(nameKeys, partnerId, "TRADING_NAME", tradingName);
+        remember(legalEntityIds, partnerId);
+
+        String host = PartnerNameKeys.normalize(name).replaceAll("[^a-z0-9]", "") + (swiss ? ".ch" : ".com");
+        addContact(contacts, partnerId, "EMAIL", "info@" + host, "general", true);
+        for (int i = 0, n = weighted(50, 30, 15, 5); i < n; i++) {
+            addContact(contacts, partnerId, "EMAIL", PartnerNameKeys.normalize(firstNames.pick(random, FIRST_NAMES))
+                + "." + i + "@" + host, "employee", false);
+        }
+        addContact(contacts, partnerId, "PHONE", phone(random.nextBoolean() ? "44" : "61"), "main", random.nextBoolean());
+        if (random.nextInt(10) < 6) {
+            addContact(contacts, partnerId, "WEBSITE", "https://www." + host, null, false);
+        }
+        if (random.nextInt(20) == 0) {
+            addContact(contacts, partnerId, "FAX", phone("44"), null, false);
+        }
+    }
+
+    private void generateAddresses(MultiRowInsert addresses, MultiRowInsert addressDetails, String partnerId,
+            LocalDateTime createdAt) {
+        int count = weighted(10, 60, 22, 8);
+        for (int i = 0; i < count; i++) {
+            String addressId;
+            // some partners share a building, e.g. employees and their employer
+            if (!addressIds.isEmpty() && random.nextInt(20) == 0) {
+                addressId = addressIds.get(random.nextInt(addressIds.size()));
+            } else {
+                addressId = uuid();
+                boolean foreign = random.nextInt(10) == 0;
+                int foreignIndex = random.nextInt(FOREIGN_CITIES.length);
+                addresses.add(addressId, streets.pick(random, STREETS) + " " + (1 + random.nextInt(150)),
+                    random.nextInt(8) == 0 ? "Postfach " + (100 + random.nextInt(9900)) : null,
+                    foreign ? FOREIGN_CITIES[foreignIndex] : cities.pick(random, CITIES),
+                    random.nextInt(4) == 0 ? "ZH" : null, String.valueOf(1000 + random.nextInt(9000)),
+                    foreign ? FOREIGN_COUNTRIES[foreignIndex] : "CH", timestamp(createdAt), random.nextBoolean());
+                remember(addressIds, addressId);
+            }
+            String type = i == 0 ? null : (random.nextBoolean() ? "BILLING" : "SHIPPING");
+            addressDetails.add(uuid(), partnerId, addressId, i == 0, type, timestamp(createdAt));
+        }
+    }
+
+    private void generateTags(MultiRowInsert partnerTags, String partnerId, LocalDateTime createdAt) {
+        int count = weighted(40, 30, 15, 8, 5, 2);
+        Set<Integer> chosen = new HashSet<>();
+        for (int attempt = 0; chosen.size() < count && attempt < count * 4; attempt++) {
+            int tag = tags.next(random);
+            if (chosen.add(tag)) {
+                partnerTags.add(uuid(), partnerId, tagIds.get(tag), timestamp(updatedAt(createdAt)),
+                    TAGGED_BY[random.nextInt(TAGGED_BY.length)]);
+            }
+        }
+    }
+
+    private void generateRelationships(MultiRowInsert relationships, String partnerId, LocalDateTime createdAt) {
+        if (relationshipTypeIds.isEmpty() || legalEntityIds.isEmpty() || random.nextInt(10) >= 3) {
+            return;
+        }
+        String target = legalEntityIds.get(random.nextInt(legalEntityIds.size()));
+        if (!target.equals(partnerId)) {
+            relationships.add(uuid(), partnerId, target,
+                relationshipTypeIds.get(random.nextInt(relationshipTypeIds.size())), date(createdAt.toLocalDate()),
+                null);
+        }
+    }
+
+    private void createTags(Connection connection, MultiRowInsert tagRows) throws SQLException {
+        Map<String, String> existing = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+            ResultSet rs = statement.executeQuery("SELECT id, tag_name FROM T_tag")) {
+            while (rs.next()) {
+                existing.put(rs.getString(2), rs.getString(1));
+            }
+        }
+        for (int i = 0; i < tagCount; i++) {
+            String name = i < TAG_NAMES.length ? TAG_NAMES[i] : String.format("segment-%04d", i);
+            String id = existing.get(name);
+            if (id == null) {
+                id = uuid();
+                tagRows.add(id, name, String.format("#%06x", random.nextInt(0x1000000)), null);
+            }
+            tagIds.add(id);
+        }
+    }
+
+    private void loadRelationshipTypes(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+            ResultSet rs = statement.executeQuery("SELECT id FROM T_relationship_type ORDER BY type_name")) {
+            while (rs.next()) {
+                relationshipTypeIds.add(rs.getString(1));
+            }
+        }
+    }
+
+    private static long nextPartnerSeq(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+            ResultSet rs = statement.executeQuery("SELECT next_val FROM T_partner_sequence WHERE id = 1")) {
+            if (!rs.next()) {
+                throw new IllegalStateException("T_partner_sequence is not initialized, run the migrations first");
+            }
+            return rs.getLong(1);
+        }
+    }
+
+    private static void advanceSequence(Connection connection, long nextVal) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE T_partner_sequence SET next_val = ? WHERE id = 1")) {
+            statement.setLong(1, nextVal);
+            statement.executeUpdate();
+        }
+    }
+
+    private MultiRowInsert insert(Connection connection, String table, String... columns) {
+        return new MultiRowInsert(connection, rowsPerInsert, table, columns);
+    }
+
+    private void addContact(MultiRowInsert contacts, String partnerId, String type, String value, String label,
+            boolean primary) {
+        contacts.add(uuid(), partnerId, type, value, label, primary, random.nextInt(3) != 0,
+            ContactLookupKeys.lookupKey(type, value, DEFAULT_CALLING_CODE), ContactLookupKeys.lookupDomain(type, value));
+    }
+
+    // same keys as PartnerNameKeyService computes on write
+    private void addNameKeys(MultiRowInsert nameKeys, String partnerId, String nameField, String name) {
+        Set<String> seen = new HashSet<>();
+        for (String word : PartnerNameKeys.words(name)) {
+            if (seen.add(word)) {
+                nameKeys.add(uuid(), partnerId, nameField, word, PartnerNameKeys.cologne(word),
+                    PartnerNameKeys.metaphone(word));
+            }
+        }
+    }
+
+    private String phone(String area) {
+        return String.format("+41 %s %03d %02d %02d", area, random.nextInt(1000), random.nextInt(100), random.nextInt(100));
+    }
+
+    private String notes() {
+        return random.nextInt(10) == 0 ? NOTES[random.nextInt(NOTES.length)] : null;
+    }
+
+    private String syllable() {
+        return SYLLABLES[random.nextInt(SYLLABLES.length)];
+    }
+
+    // most partners were last changed shortly after they were created, some recently
+    private LocalDateTime updatedAt(LocalDateTime createdAt) {
+        if (random.nextInt(5) == 0) {
+            long minutes = Duration.between(createdAt, NOW).toMinutes();
+            return createdAt.plusMinutes((long) (random.nextDouble() * minutes));
+        }
+        return createdAt.plusMinutes(random.nextInt(60));
+    }
+
+    /**
+     * @return an index into the weights, chosen with a probability proportional to its weight
+     */
+    private int weighted(int... weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int value = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            value -= weights[i];
+            if (value < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private String uuid() {
+        long most = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long least = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(most, least).toString();
+    }
+
+    private static void remember(List<String> ids, String id) {
+        // bounded, so that memory does not grow with the data set
+        if (ids.size() < 10_000) {
+            ids.add(id);
+        } else {
+            ids.set(Math.floorMod(id.hashCode(), ids.size()), id);
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+
+    private static Date date(LocalDate value) {
+        return value == null ? null : Date.valueOf(value);
+    }
+}
@@ -0,0 +1,89 @@
+package dev.abstratium.partner.load;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Buffers rows of one table and writes them with {@code INSERT INTO t (...) VALUES (...), (...), ...},
+ * which both H2 and MySQL execute far faster than one statement per row.
+ *
+ * Rows are only written by {@link #flush()}, so that the caller controls the order in which
+ * tables are written and foreign keys are always satisfied.
+ */
+final class MultiRowInsert implements AutoCloseable {
+
+    private final Connection connection;
+    private final String table;
+    private final String[] columns;
+    private final int rowsPerStatement;
+    private final List<Object[]> rows = new ArrayList<>();
+    private PreparedStatement fullStatement;
+    private long written;
+
+    MultiRowInsert(Connection connection, int rowsPerStatement, String table, String... columns) {
+        this.connection = connection;
+        this.table = table;
+        this.columns = columns;
+        this.rowsPerStatement = rowsPerStatement;
+    }
+
+    void add(Object... values) {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException(table + " has " + columns.length + " columns, got " + values.length + " values");
+        }
+        rows.add(values);
+    }
+
+    void flush() throws SQLException {
+        int from = 0;
+        while (rows.size() - from >= rowsPerStatement) {
+            if (fullStatement == null) {
+                fullStatement = connection.prepareStatement(sql(rowsPerStatement));
+            }
+            execute(fullStatement, from, rowsPerStatement);
+            from += rowsPerStatement;
+        }
+        int remaining = rows.size() - from;
+        if (remaining > 0) {
+            try (PreparedStatement statement = connection.prepareStatement(sql(remaining))) {
+                execute(statement, from, remaining);
+            }
+        }
+        written += rows.size();
+        rows.clear();
+    }
+
+    /**
+     * @return the number of rows written so far
+     */
+    long written() {
+        return written;
+    }
+
+    private void execute(PreparedStatement statement, int from, int count) throws SQLException {
+        int parameter = 1;
+        for (int i = from; i < from + count; i++) {
+            for (Object value : rows.get(i)) {
+                statement.setObject(parameter++, value);
+            }
+        }
+        statement.executeUpdate();
+    }
+
+    private String sql(int rowCount) {
+        String row = "(" + String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES "
+            + String.join(", ", Collections.nCopies(rowCount, row));
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (fullStatement != null) {
+            fullStatement.close();
+        }
+    }
+}
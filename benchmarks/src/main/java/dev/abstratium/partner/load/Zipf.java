@@ -0,0 +1,39 @@
+package dev.abstratium.partner.load;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Picks indexes {@code 0..n-1} with a Zipf distribution, i.e. index k with a probability
+ * proportional to {@code 1 / (k + 1)^exponent}, so that a few values are very common and
+ * most are rare, like surnames, cities or tags in real data.
+ */
+final class Zipf {
+
+    private final double[] cumulative;
+
+    Zipf(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be at least 1");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    int next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int k = index >= 0 ? index : -index - 1;
+        return Math.min(k, cumulative.length - 1);
+    }
+
+    <T> T pick(Random random, T[] values) {
+        return values[next(random)];
+    }
+}
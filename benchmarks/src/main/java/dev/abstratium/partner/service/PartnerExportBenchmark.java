@@ -0,0 +1,73 @@
+package dev.abstratium.partner.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dev.abstratium.partner.entity.LegalEntity;
+import dev.abstratium.partner.entity.NaturalPerson;
+import dev.abstratium.partner.entity.Partner;
+
+/**
+ * Benchmarks formatting partners as CSV lines for the export, for a batch of {@link #BATCH_SIZE} partners.
+ * Some names contain quotes, commas or line breaks, which need escaping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartnerExportBenchmark {
+
+    static final int BATCH_SIZE = 1000;
+
+    private static final String[] NAMES = { "Müller", "Meier", "Acme AG", "O'Brien", "Smith, Jones & Partners",
+        "\"Zum Löwen\" GmbH", "Schmid", "Helvetia Holding AG" };
+
+    private final PartnerExportService exportService = new PartnerExportService();
+    private final List<Partner> partners = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String name = NAMES[random.nextInt(NAMES.length)];
+            Partner partner;
+            if (random.nextInt(3) == 0) {
+                LegalEntity legalEntity = new LegalEntity();
+                legalEntity.setLegalName(random.nextInt(50) == 0 ? name + "\nBranch Office" : name);
+                partner = legalEntity;
+            } else {
+                NaturalPerson naturalPerson = new NaturalPerson();
+                naturalPerson.setFirstName(random.nextBoolean() ? "Anna" : "Hans");
+                naturalPerson.setLastName(name);
+                partner = naturalPerson;
+            }
+            partner.setPartnerNumberSeq(1L + i);
+            partner.setActive(random.nextInt(10) > 0);
+            partners.add(partner);
+        }
+    }
+
+    @Benchmark
+    public void formatPartnerLine(Blackhole blackhole) {
+        for (Partner partner : partners) {
+            blackhole.consume(exportService.formatPartnerLine(partner));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package dev.abstratium.partner.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dev.abstratium.partner.dto.PartnerSearchResult;
+import dev.abstratium.partner.entity.Address;
+import dev.abstratium.partner.entity.ContactDetail;
+
+/**
+ * Benchmarks the per-result work of a partner search: building the result from the query's projection,
+ * formatting the preferred address and selecting the preferred contact details.
+ *
+ * Each invocation processes a page of {@link #PAGE_SIZE} results, so that the scores are comparable to
+ * the work done for one search request. The data is generated with a fixed seed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartnerSearchBenchmark {
+
+    static final int PAGE_SIZE = 20;
+
+    private static final String[] COUNTRY_CODES = { "CH", "CH", "CH", "DE", "DE", "AT", "FR", "IT", "US", "GB", "LI", "ZA" };
+    private static final String[] CITIES = { "Zürich", "Bern", "Basel", "Genève", "München", "Wien", "Lyon", "Milano" };
+    private static final String[] STREETS = { "Bahnhofstrasse", "Hauptstrasse", "Seestrasse", "Dorfstrasse", "Kirchweg" };
+    private static final String[] FIRST_NAMES = { "Hans", "Anna", "Peter", "Maria", "Thomas", "Sandra", "Daniel", "Nicole" };
+    private static final String[] LAST_NAMES = { "Müller", "Meier", "Schmid", "Keller", "Weber", "Huber", "Schneider" };
+    private static final String[] LEGAL_NAMES = { "Acme", "Helvetia", "Alpen", "Rhein", "Matterhorn", "Limmat" };
+    private static final String[] LEGAL_FORMS = { "AG", "GmbH", "Holding AG", "Sàrl", "Ltd." };
+
+    private final List<Object[]> naturalPersonRows = new ArrayList<>();
+    private final List<Object[]> legalEntityRows = new ArrayList<>();
+    private final List<Address> addresses = new ArrayList<>();
+    private final List<List<ContactDetail>> contacts = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2026, 1, 1, 12, 0);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            long seq = 10_000L + i;
+            String first = pick(random, FIRST_NAMES);
+            String last = pick(random, LAST_NAMES);
+            naturalPersonRows.add(new Object[] { "np-" + i, seq, random.nextInt(10) > 0,
+                random.nextInt(4) == 0 ? "Met at the trade fair" : null, now.minusDays(random.nextInt(1000)),
+                now.minusDays(random.nextInt(30)), first, last, LocalDate.of(1950 + random.nextInt(50), 1 + random.nextInt(12), 1 + random.nextInt(28)) });
+            String legalName = pick(random, LEGAL_NAMES) + " " + pick(random, LEGAL_FORMS);
+            legalEntityRows.add(new Object[] { "le-" + i, seq + PAGE_SIZE, random.nextInt(10) > 0, null,
+                now.minusDays(random.nextInt(1000)), now.minusDays(random.nextInt(30)), legalName,
+                random.nextBoolean() ? legalName.split(" ")[0] : null, pick(random, COUNTRY_CODES),
+                "CHE-" + (100_000_000 + random.nextInt(900_000_000)), LocalDate.of(1900 + random.nextInt(120), 1, 1) });
+            addresses.add(address(random));
+            contacts.add(contacts(random, first.toLowerCase() + "." + last.toLowerCase()));
+        }
+    }
+
+    /**
+     * Stands in for mapping a query row to a search result, which the search does with the
+     * projection constructors of {@link PartnerSearchResult}.
+     */
+    @Benchmark
+    public void mapToSearchResult(Blackhole blackhole) {
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Object[] np = naturalPersonRows.get(i);
+            blackhole.consume(new PartnerSearchResult((String) np[0], (Long) np[1], (Boolean) np[2], (String) np[3],
+                (LocalDateTime) np[4], (LocalDateTime) np[5], (String) np[6], (String) np[7], (LocalDate) np[8]));
+            Object[] le = legalEntityRows.get(i);
+            blackhole.consume(new PartnerSearchResult((String) le[0], (Long) le[1], (Boolean) le[2], (String) le[3],
+                (LocalDateTime) le[4], (LocalDateTime) le[5], (String) le[6], (String) le[7], (String) le[8],
+                (String) le[9], (LocalDate) le[10]));
+        }
+    }
+
+    @Benchmark
+    public void formatAddressLine(Blackhole blackhole) {
+        for (Address address : addresses) {
+            blackhole.consume(PartnerService.formatAddressLine(address));
+        }
+    }
+
+    @Benchmark
+    public void selectPreferredContact(Blackhole blackhole) {
+        for (List<ContactDetail> partnerContacts : contacts) {
+            blackhole.consume(PartnerService.selectPreferredContact(partnerContacts, "EMAIL"));
+            blackhole.consume(PartnerService.selectPreferredContact(partnerContacts, "PHONE"));
+            blackhole.consume(PartnerService.selectPreferredContact(partnerContacts, "WEBSITE"));
+        }
+    }
+
+    @Benchmark
+    public void getCountryName(Blackhole blackhole) {
+        for (Address address : addresses) {
+            blackhole.consume(Countries.getCountryName(address.getCountryCode()));
+        }
+    }
+
+    private static Address address(Random random) {
+        Address address = new Address();
+        address.setStreetLine1(pick(random, STREETS) + " " + (1 + random.nextInt(200)));
+        if (random.nextInt(5) == 0) {
+            address.setStreetLine2("Postfach " + (1000 + random.nextInt(9000)));
+        }
+        address.setPostalCode(String.valueOf(1000 + random.nextInt(9000)));
+        address.setCity(pick(random, CITIES));
+        if (random.nextInt(3) == 0) {
+            address.setStateProvince("ZH");
+        }
+        address.setCountryCode(pick(random, COUNTRY_CODES));
+        return address;
+    }
+
+    // most partners have one or two emails and phones, some a website, and few mark one of them as primary
+    private static List<ContactDetail> contacts(Random random, String localPart) {
+        List<ContactDetail> contacts = new ArrayList<>();
+        for (int i = 0, n = 1 + random.nextInt(2); i < n; i++) {
+            contacts.add(contact(random, "EMAIL", localPart + (i == 0 ? "" : i) + "@example.com"));
+        }
+        for (int i = 0, n = random.nextInt(3); i < n; i++) {
+            contacts.add(contact(random, "PHONE", "+41 44 " + (100 + random.nextInt(900)) + " " + (10 + random.nextInt(90)) + " " + (10 + random.nextInt(90))));
+        }
+        if (random.nextInt(4) == 0) {
+            contacts.add(contact(random, "WEBSITE", "https://www.example.com/" + localPart));
+        }
+        return contacts;
+    }
+
+    private static ContactDetail contact(Random random, String type, String value) {
+        ContactDetail contact = new ContactDetail();
+        contact.setContactType(type);
+        contact.setContactValue(value);
+        contact.setPrimary(random.nextInt(5) == 0);
+        contact.setVerified(random.nextBoolean());
+        return contact;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,38 @@
+package db.migration;
+
+import java.sql.Statement;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Creates the full-text index over the searchable text columns of T_partner, used by
+ * dev.abstratium.partner.service.PartnerTextSearch.
+ *
+ * Written in Java rather than SQL because the syntax depends on the database:
+ * MySQL gets an InnoDB FULLTEXT index, H2 (tests and the e2e profile) gets its built-in
+ * full-text engine, which keeps its index in the FT schema up to date with triggers.
+ */
+public class V01_013__create_partner_fulltext_index extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        String database = context.getConnection().getMetaData().getDatabaseProductName();
+        try (Statement statement = context.getConnection().createStatement()) {
+            if ("MySQL".equalsIgnoreCase(database)) {
+                statement.execute(
+                    "CREATE FULLTEXT INDEX ftx_partner_text ON T_partner " +
+                    "(first_name, last_name, legal_name, trading_name, registration_number, notes)");
+            } else if ("H2".equalsIgnoreCase(database)) {
+                statement.execute("CREATE ALIAS IF NOT EXISTS FT_INIT FOR 'org.h2.fulltext.FullText.init'");
+                statement.execute("CALL FT_INIT()");
+                // the FT schema survives a clean of the PUBLIC schema, so remove a stale index first
+                statement.execute("CALL FT_DROP_INDEX('PUBLIC', 'T_PARTNER')");
+                statement.execute(
+                    "CALL FT_CREATE_INDEX('PUBLIC', 'T_PARTNER', " +
+                    "'FIRST_NAME,LAST_NAME,LEGAL_NAME,TRADING_NAME,REGISTRATION_NUMBER,NOTES')");
+            }
+            // other databases use LIKE, see partner.search.text-backend
+        }
+    }
+}
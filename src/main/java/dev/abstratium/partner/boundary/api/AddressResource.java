@@ -4,6 +4,8 @@ import java.util.List;
 
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+
 import dev.abstratium.core.Roles;
 import dev.abstratium.partner.entity.Address;
 import dev.abstratium.partner.service.AddressService;
@@ -28,18 +30,24 @@ public class AddressResource {
     @Inject
     AddressService addressService;
 
+    @Inject
+    SearchTelemetry searchTelemetry;
+
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @RolesAllowed({Roles.USER})
-    public Response search(@QueryParam("search") String searchTerm) {
+    public Response search(@QueryParam("search") String searchTerm) throws JsonProcessingException {
+        ServerTiming timing = new ServerTiming();
         // Require search term to prevent loading all addresses
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return Response.status(Response.Status.BAD_REQUEST)
                 .entity("Search term is required")
                 .build();
         }
+        long start = System.nanoTime();
         List<Address> results = addressService.search(searchTerm);
-        return Response.ok(results).build();
+        timing.add("db", System.nanoTime() - start);
+        return searchTelemetry.respond("address-search", timing, results, results.size());
     }
 
     @GET
@@ -0,0 +1,158 @@
+package dev.abstratium.partner.boundary.api;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import dev.abstratium.partner.dto.ChangeNotification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+/**
+ * Pushes committed partner changes to the clients of /api/changes/stream.
+ *
+ * Publishing never waits for a client: each change is only added to every client's {@link PendingChanges},
+ * and each client is sent one event at a time, the next one once the previous has been written. A slow client
+ * therefore gets merged notifications and, if it falls too far behind, an "overflow" event instead of the
+ * dropped ones. Clients whose connection is closed are removed on the next change.
+ */
+@ApplicationScoped
+public class ChangeBroadcaster {
+
+    static final String CHANGE_EVENT = "change";
+    static final String OVERFLOW_EVENT = "overflow";
+    static final String READY_EVENT = "ready";
+
+    @ConfigProperty(name = "partner.changes.stream.max-clients")
+    int maxClients;
+
+    @ConfigProperty(name = "partner.changes.stream.max-pending")
+    int maxPending;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private Counter dropped;
+
+    @PostConstruct
+    void init() {
+        dropped = Counter.builder("abstradex.changes.stream.dropped")
+            .description("Change notifications dropped because a stream client fell behind")
+            .register(registry);
+    }
+
+    void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) ChangeNotification notification) {
+        for (Client client : clients) {
+            client.offer(notification);
+        }
+    }
+
+    /**
+     * Adds a client, sends it a "ready" event and then the replayed changes, followed by new ones as they commit.
+     *
+     * @param replay loads the changes the client missed while it was disconnected, oldest first; more than the
+     * maximum number of pending notifications result in an overflow. Called once the client is registered, so
+     * that a change committed in between is not missed; it may be sent twice instead, which is harmless.
+     * @return false if there are too many clients already; the sink is then left untouched
+     */
+    public boolean register(SseEventSink sink, Sse sse, Supplier<List<ChangeNotification>> replay) {
+        clients.removeIf(Client::isClosed);
+        if (clients.size() >= maxClients) {
+            return false;
+        }
+        Client client = new Client(sink, sse);
+        clients.add(client);
+        client.ready();
+        for (ChangeNotification notification : replay.get()) {
+            client.offer(notification);
+        }
+        return true;
+    }
+
+    int getMaxPending() {
+        return maxPending;
+    }
+
+    int getClientCount() {
+        return clients.size();
+    }
+
+    private class Client {
+
+        private final SseEventSink sink;
+        private final Sse sse;
+        private final PendingChanges pending = new PendingChanges(maxPending);
+        private boolean sending;
+
+        Client(SseEventSink sink, Sse sse) {
+            this.sink = sink;
+            this.sse = sse;
+        }
+
+        boolean isClosed() {
+            return sink.isClosed();
+        }
+
+        synchronized void ready() {
+            send(sse.newEventBuilder().name(READY_EVENT).data("connected").build());
+        }
+
+        synchronized void offer(ChangeNotification notification) {
+            if (sink.isClosed()) {
+                clients.remove(this);
+                return;
+            }
+            if (pending.offer(notification)) {
+                dropped.increment();
+            }
+            if (!sending) {
+                sendNext();
+            }
+        }
+
+        private void sendNext() {
+            if (pending.takeOverflow()) {
+                send(sse.newEventBuilder().name(OVERFLOW_EVENT).data("changes were dropped, reload").build());
+                return;
+            }
+            ChangeNotification notification = pending.poll();
+            if (notification == null) {
+                sending = false;
+                return;
+            }
+            send(sse.newEventBuilder()
+                .name(CHANGE_EVENT)
+                .id(String.valueOf(notification.seq()))
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(ChangeNotification.class, notification)
+                .build());
+        }
+
+        private void send(OutboundSseEvent event) {
+            sending = true;
+            sink.send(event).whenComplete((result, error) -> {
+                if (error != null) {
+                    clients.remove(this);
+                    sink.close();
+                    return;
+                }
+                synchronized (this) {
+                    sendNext();
+                }
+            });
+        }
+    }
+}
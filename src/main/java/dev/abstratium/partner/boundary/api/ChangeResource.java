@@ -0,0 +1,95 @@
+package dev.abstratium.partner.boundary.api;
+
+import java.util.List;
+
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import dev.abstratium.core.Roles;
+import dev.abstratium.partner.dto.ChangeFeedPage;
+import dev.abstratium.partner.dto.ChangeNotification;
+import dev.abstratium.partner.entity.ChangeLogEntry;
+import dev.abstratium.partner.service.ChangeLogService;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+/**
+ * Change feed for downstream services. A consumer starts with {@code since=0}, or the cursor it stored, and
+ * passes the returned cursor as {@code since} of its next request, right away while {@code hasMore} is set and
+ * after a pause otherwise.
+ *
+ * The UI instead listens to {@code /api/changes/stream}, which pushes each change as it commits.
+ */
+@Path("/api/changes")
+@Tag(name = "Changes", description = "Feed of partner changes for downstream services")
+public class ChangeResource {
+
+    static final int MAX_BATCH_SIZE = 1000;
+
+    @Inject
+    ChangeLogService changeLogService;
+
+    @Inject
+    ChangeBroadcaster changeBroadcaster;
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @RolesAllowed({Roles.USER})
+    public Response changes(@QueryParam("since") @DefaultValue("0") long since,
+            @QueryParam("limit") @DefaultValue("500") int limit) {
+        if (since < 0) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Since must not be negative")
+                .build();
+        }
+        if (limit < 1 || limit > MAX_BATCH_SIZE) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Limit must be between 1 and " + MAX_BATCH_SIZE)
+                .build();
+        }
+        // one more than requested tells whether there are more
+        List<ChangeLogEntry> changes = changeLogService.findSince(since, limit + 1);
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+        long cursor = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+        return Response.ok(new ChangeFeedPage(changes, cursor, hasMore)).build();
+    }
+
+    /**
+     * Server-sent events: "ready" once connected, then a "change" event with a {@link ChangeNotification} for
+     * every committed change, with its seq as event id. A client that reconnects with Last-Event-ID first gets
+     * the changes it missed. An "overflow" event means that changes were dropped because the client fell
+     * behind, and that it should reload what it shows.
+     */
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RolesAllowed({Roles.USER})
+    public void stream(@Context SseEventSink sink, @Context Sse sse, @HeaderParam("Last-Event-ID") Long lastEventId) {
+        boolean registered = changeBroadcaster.register(sink, sse, () -> {
+            if (lastEventId == null || lastEventId < 0) {
+                return List.of();
+            }
+            // one more than can be pending, so that a client that missed too much gets an overflow
+            return changeLogService.findSince(lastEventId, changeBroadcaster.getMaxPending() + 1).stream()
+                .map(ChangeNotification::of)
+                .toList();
+        });
+        if (!registered) {
+            throw new WebApplicationException("Too many change stream clients", Response.Status.SERVICE_UNAVAILABLE);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package dev.abstratium.partner.boundary.api;
+
+import java.util.List;
+
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import dev.abstratium.core.Roles;
+import dev.abstratium.partner.dto.ContactLookupResult;
+import dev.abstratium.partner.service.ContactDetailService;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+@Path("/api/contact")
+@Tag(name = "Contact Lookup", description = "Find partners by phone number, email address or website")
+public class ContactLookupResource {
+
+    @Inject
+    ContactDetailService contactDetailService;
+
+    @GET
+    @Path("/lookup")
+    @Produces(MediaType.APPLICATION_JSON)
+    @RolesAllowed({Roles.USER})
+    public Response lookup(@QueryParam("value") String value, @QueryParam("prefix") boolean prefix) {
+        // Short prefixes would match (nearly) all contacts
+        if (value == null || value.trim().length() < 3) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Value is required and must be at least 3 characters")
+                .build();
+        }
+        List<ContactLookupResult> results = contactDetailService.lookup(value, prefix);
+        return Response.ok(results).build();
+    }
+}
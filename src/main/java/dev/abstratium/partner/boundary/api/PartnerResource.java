@@ -1,21 +1,34 @@
 package dev.abstratium.partner.boundary.api;
 
 import java.util.List;
+import java.util.TreeSet;
 
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+
 import dev.abstratium.core.Roles;
 import dev.abstratium.partner.dto.PartnerCreateRequest;
+import dev.abstratium.partner.dto.PartnerSearchPage;
+import dev.abstratium.partner.dto.PartnerSearchResponse;
 import dev.abstratium.partner.dto.PartnerSearchResult;
+import dev.abstratium.partner.dto.PartnerSuggestion;
 import dev.abstratium.partner.entity.LegalEntity;
 import dev.abstratium.partner.entity.NaturalPerson;
 import dev.abstratium.partner.entity.Partner;
+import dev.abstratium.partner.service.PartnerSearchOutcome;
+import dev.abstratium.partner.service.PartnerSearchQuery;
 import dev.abstratium.partner.service.PartnerService;
+import dev.abstratium.partner.service.PartnerSuggestIndex;
 import dev.abstratium.partner.service.PartnerTagService;
+import dev.abstratium.partner.service.SearchCoalescer;
+import dev.abstratium.partner.service.UnifiedSearchService;
+import io.quarkus.security.identity.SecurityIdentity;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
@@ -30,24 +43,141 @@ import jakarta.ws.rs.core.Response;
 @Tag(name = "Partner", description = "Partner management endpoints")
 public class PartnerResource {
 
+    static final int MAX_PAGE_SIZE = 100;
+
+    static final int MAX_SUGGESTIONS = 50;
+
     @Inject
     PartnerService partnerService;
 
     @Inject
     PartnerTagService partnerTagService;
 
+    @Inject
+    PartnerSuggestIndex suggestIndex;
+
+    @Inject
+    SearchCoalescer searchCoalescer;
+
+    @Inject
+    SecurityIdentity identity;
+
+    @Inject
+    SearchTelemetry searchTelemetry;
+
+    @Inject
+    UnifiedSearchService unifiedSearchService;
+
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @RolesAllowed({Roles.USER})
-    public Response search(@QueryParam("search") String searchTerm) {
+    public Response search(@QueryParam("search") String searchTerm,
+            @QueryParam("facets") boolean facets) throws JsonProcessingException {
+        ServerTiming timing = new ServerTiming();
         // Require search term to prevent loading all partners
         if (searchTerm == null || searchTerm.trim().length() < 3) {
             return Response.status(Response.Status.BAD_REQUEST)
                 .entity("Search term is required and must be at least 3 characters")
                 .build();
         }
-        // Always use searchWithAddressContactDetailsAndTags to include address lines, contact details, and tags
-        List<PartnerSearchResult> results = partnerService.searchWithAddressContactDetailsAndTags(searchTerm);
+        // Type and active filters alone would also load (nearly) all partners
+        if (!PartnerSearchQuery.parse(searchTerm).isSelective()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Search must contain text, a partner number, or a tag, email, phone or city filter")
+                .build();
+        }
+        // Identical concurrent searches of users with the same roles share one computation
+        String key = String.join(",", new TreeSet<>(identity.getRoles())) + "|" + facets + "|" + searchTerm.trim();
+        // Always search with address lines, contact details, and tags
+        long lookupStart = System.nanoTime();
+        boolean[] computed = new boolean[1];
+        PartnerSearchOutcome outcome = searchCoalescer.execute(key, () -> {
+            // only called for the caller that computes the result, on its own thread
+            computed[0] = true;
+            return partnerService.searchWithTimings(searchTerm, facets);
+        });
+        if (computed[0]) {
+            timing.add("db", outcome.dbNanos())
+                .add("rank", outcome.rankNanos())
+                .add("enrich", outcome.enrichmentNanos());
+        } else {
+            // cached or shared: the phases were spent, and recorded, by the caller that computed the result
+            timing.add("cache", System.nanoTime() - lookupStart);
+        }
+        
+        // Facets change the response to an object containing results and facets
+        Object entity = facets
+            ? new PartnerSearchResponse(outcome.results(), outcome.facets())
+            : outcome.results();
+        return searchTelemetry.respond("partner-search", timing, entity, outcome.totalCount());
+    }
+
+    @GET
+    @Path("/unified")
+    @Produces(MediaType.APPLICATION_JSON)
+    @RolesAllowed({Roles.USER})
+    public Response searchUnified(@QueryParam("search") String searchTerm) throws JsonProcessingException {
+        ServerTiming timing = new ServerTiming();
+        // Require search term to prevent loading all partners
+        if (searchTerm == null || searchTerm.trim().length() < 3) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Search term is required and must be at least 3 characters")
+                .build();
+        }
+        // Filters like type:LE or active:true alone would match almost every partner
+        if (!PartnerSearchQuery.parse(searchTerm).isSelective()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Search must contain text, a partner number, or a tag, email, phone or city filter")
+                .build();
+        }
+        // Partners, contact details and addresses are searched concurrently
+        PartnerSearchOutcome outcome = unifiedSearchService.search(searchTerm);
+        timing.add("db", outcome.dbNanos())
+            .add("rank", outcome.rankNanos())
+            .add("enrich", outcome.enrichmentNanos());
+        return searchTelemetry.respond("unified-search", timing, outcome.results(), outcome.totalCount());
+    }
+
+    @GET
+    @Path("/suggest")
+    @Produces(MediaType.APPLICATION_JSON)
+    @RolesAllowed({Roles.USER})
+    public Response suggest(@QueryParam("q") String prefix,
+            @QueryParam("limit") @DefaultValue("10") int limit) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Prefix is required")
+                .build();
+        }
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Limit must be between 1 and " + MAX_SUGGESTIONS)
+                .build();
+        }
+        List<PartnerSuggestion> suggestions = suggestIndex.suggest(prefix, limit);
+        return Response.ok(suggestions).build();
+    }
+
+    @GET
+    @Path("/by-address")
+    @Produces(MediaType.APPLICATION_JSON)
+    @RolesAllowed({Roles.USER})
+    public Response searchByAddress(@QueryParam("search") String searchTerm,
+            @QueryParam("addressId") String addressId,
+            @QueryParam("page") @DefaultValue("0") int page,
+            @QueryParam("size") @DefaultValue("20") int size) {
+        // Require a search term or an address to prevent loading all partners
+        if (addressId == null && (searchTerm == null || searchTerm.trim().length() < 3)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Search term of at least 3 characters or address id is required")
+                .build();
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Page must not be negative and size must be between 1 and " + MAX_PAGE_SIZE)
+                .build();
+        }
+        PartnerSearchPage results = partnerService.searchByAddress(searchTerm, addressId, page, size);
         return Response.ok(results).build();
     }
 
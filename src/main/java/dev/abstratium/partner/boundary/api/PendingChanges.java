@@ -0,0 +1,77 @@
+package dev.abstratium.partner.boundary.api;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import dev.abstratium.partner.dto.ChangeNotification;
+
+/**
+ * The notifications not yet sent to one change stream client, see {@link ChangeBroadcaster}.
+ *
+ * A newer change of an entity that is still pending replaces the older one, so a client that falls behind
+ * receives the latest version once instead of every intermediate one. Beyond the maximum, the oldest pending
+ * notification is dropped and the client is told with an overflow marker that it missed changes.
+ *
+ * Not thread-safe; the client synchronizes on itself.
+ */
+class PendingChanges {
+
+    private final int maxPending;
+    // by entity type and id, in the order of their latest change
+    private final LinkedHashMap<String, ChangeNotification> pending = new LinkedHashMap<>();
+    private boolean overflowed;
+
+    PendingChanges(int maxPending) {
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * @return whether the oldest pending notification was dropped to make room
+     */
+    boolean offer(ChangeNotification notification) {
+        String key = notification.entityType() + "/" + notification.entityId();
+        ChangeNotification previous = pending.get(key);
+        if (previous != null && previous.version() > notification.version()) {
+            // replayed changes may arrive after newer ones
+            return false;
+        }
+        pending.remove(key);
+        pending.put(key, notification);
+        if (pending.size() > maxPending) {
+            Iterator<ChangeNotification> oldest = pending.values().iterator();
+            oldest.next();
+            oldest.remove();
+            overflowed = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Takes the overflow marker: once a client has missed changes, it must reload what it shows.
+     *
+     * @return whether notifications were dropped since the last call
+     */
+    boolean takeOverflow() {
+        boolean result = overflowed;
+        overflowed = false;
+        return result;
+    }
+
+    /**
+     * @return the oldest pending notification, or null if there is none
+     */
+    ChangeNotification poll() {
+        Iterator<ChangeNotification> oldest = pending.values().iterator();
+        if (!oldest.hasNext()) {
+            return null;
+        }
+        ChangeNotification notification = oldest.next();
+        oldest.remove();
+        return notification;
+    }
+
+    int size() {
+        return pending.size();
+    }
+}
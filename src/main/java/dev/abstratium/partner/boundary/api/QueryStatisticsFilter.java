@@ -0,0 +1,128 @@
+package dev.abstratium.partner.boundary.api;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jboss.logging.MDC;
+
+import dev.abstratium.partner.service.QueryStatistics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Captures the {@link QueryStatistics} of each API request. They are logged with the request's
+ * {@value #MDC_KEY} MDC key, at WARN once a request exceeds {@code partner.query-statistics.warn-statements},
+ * and recorded as Micrometer metrics per endpoint, which are scraped from the management interface
+ * ({@code /m/metrics}).
+ *
+ * If {@code partner.query-statistics.header-enabled} is set, the statement count is also returned in the
+ * {@value #QUERY_COUNT_HEADER} header, which tests use to check query budgets.
+ */
+@Provider
+public class QueryStatisticsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final Logger LOG = Logger.getLogger(QueryStatisticsFilter.class);
+
+    static final String MDC_KEY = "abstratiumkey";
+    static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    private static final String STATISTICS_PROPERTY = QueryStatistics.class.getName();
+    private static final String MDC_OWNER_PROPERTY = QueryStatisticsFilter.class.getName() + ".mdc";
+
+    @ConfigProperty(name = "partner.query-statistics.warn-statements")
+    int warnStatements;
+
+    @ConfigProperty(name = "partner.query-statistics.header-enabled")
+    boolean headerEnabled;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+    private final Map<String, Timer> jdbcTimers = new ConcurrentHashMap<>();
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        if (MDC.get(MDC_KEY) == null) {
+            MDC.put(MDC_KEY, UUID.randomUUID().toString().substring(0, 8));
+            request.setProperty(MDC_OWNER_PROPERTY, Boolean.TRUE);
+        }
+        request.setProperty(STATISTICS_PROPERTY, QueryStatistics.start());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        QueryStatistics statistics = (QueryStatistics) request.getProperty(STATISTICS_PROPERTY);
+        if (statistics == null) {
+            // the request was rejected before it reached the request filter, e.g. unauthenticated
+            return;
+        }
+        QueryStatistics.stop();
+
+        String endpoint = endpoint();
+        record(endpoint, statistics);
+        if (statistics.getStatements() > warnStatements) {
+            LOG.warnf("%s %s (%s) issued %d statements, %d entity loads, %d collection fetches, %d ms in JDBC",
+                request.getMethod(), request.getUriInfo().getPath(), endpoint, statistics.getStatements(),
+                statistics.getEntityLoads(), statistics.getCollectionFetches(),
+                TimeUnit.NANOSECONDS.toMillis(statistics.getJdbcNanos()));
+        } else {
+            LOG.debugf("%s %s (%s) issued %d statements, %d entity loads, %d collection fetches, %d ms in JDBC",
+                request.getMethod(), request.getUriInfo().getPath(), endpoint, statistics.getStatements(),
+                statistics.getEntityLoads(), statistics.getCollectionFetches(),
+                TimeUnit.NANOSECONDS.toMillis(statistics.getJdbcNanos()));
+        }
+        if (headerEnabled) {
+            response.getHeaders().putSingle(QUERY_COUNT_HEADER, statistics.getStatements());
+        }
+        if (request.getProperty(MDC_OWNER_PROPERTY) != null) {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    private String endpoint() {
+        if (resourceInfo == null || resourceInfo.getResourceMethod() == null) {
+            return "unmatched";
+        }
+        return resourceInfo.getResourceClass().getSimpleName() + "." + resourceInfo.getResourceMethod().getName();
+    }
+
+    private void record(String endpoint, QueryStatistics statistics) {
+        summary("abstradex.request.statements", "SQL statements executed by a request", endpoint)
+            .record(statistics.getStatements());
+        summary("abstradex.request.entity.loads", "Entities loaded by a request", endpoint)
+            .record(statistics.getEntityLoads());
+        summary("abstradex.request.collection.fetches", "Lazy collections fetched by a request", endpoint)
+            .record(statistics.getCollectionFetches());
+        jdbcTimers.computeIfAbsent(endpoint, k -> Timer.builder("abstradex.request.jdbc")
+                .description("Time a request spent executing SQL statements")
+                .tags("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(registry))
+            .record(statistics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private DistributionSummary summary(String name, String description, String endpoint) {
+        return summaries.computeIfAbsent(name + "/" + endpoint, k -> DistributionSummary.builder(name)
+            .description(description)
+            .tags("endpoint", endpoint)
+            .publishPercentileHistogram()
+            .register(registry));
+    }
+}
@@ -0,0 +1,78 @@
+package dev.abstratium.partner.boundary.api;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Publishes the phase durations and result counts of search endpoints, both to the client
+ * (Server-Timing and X-Total-Count headers) and as Micrometer histograms, which are scraped
+ * from the management interface ({@code /m/metrics}). A search answered from the cache of
+ * {@link dev.abstratium.partner.service.SearchCoalescer}, or by joining an identical search in
+ * flight, reports a "cache" phase instead of the database and enrichment phases it did not spend.
+ *
+ * Search responses are serialized here rather than by JAX-RS, so that serialization can be
+ * measured and reported in the headers of the same response.
+ */
+@ApplicationScoped
+public class SearchTelemetry {
+
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> resultCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Serializes the entity, records all phases and builds the response.
+     *
+     * @param endpoint metric tag identifying the endpoint, e.g. "partner-search"
+     * @param timing the phases measured so far
+     * @param totalCount number of matches, which may be more than the entity contains
+     */
+    Response respond(String endpoint, ServerTiming timing, Object entity, long totalCount) throws JsonProcessingException {
+        long serializeStart = System.nanoTime();
+        byte[] body = objectMapper.writeValueAsBytes(entity);
+        timing.add("serialize", System.nanoTime() - serializeStart).finish();
+
+        timing.phases().forEach((phase, nanos) -> timer(endpoint, phase).record(nanos, TimeUnit.NANOSECONDS));
+        resultCount(endpoint).record(totalCount);
+
+        return Response.ok(body, MediaType.APPLICATION_JSON)
+            .header(ServerTiming.HEADER, timing.header())
+            .header(TOTAL_COUNT_HEADER, totalCount)
+            .build();
+    }
+
+    private Timer timer(String endpoint, String phase) {
+        return timers.computeIfAbsent(endpoint + "/" + phase, k -> Timer.builder("abstradex.search.phase")
+            .description("Duration of one phase of a search request")
+            .tags("endpoint", endpoint, "phase", phase)
+            .publishPercentileHistogram()
+            .register(registry));
+    }
+
+    private DistributionSummary resultCount(String endpoint) {
+        return resultCounts.computeIfAbsent(endpoint, k -> DistributionSummary.builder("abstradex.search.results")
+            .description("Number of matches of a search request")
+            .tags("endpoint", endpoint)
+            .publishPercentileHistogram()
+            .register(registry));
+    }
+}
@@ -0,0 +1,41 @@
+package dev.abstratium.partner.boundary.api;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Durations of the phases of handling one request, in the order they were added,
+ * formatted as a Server-Timing header, e.g. {@code db;dur=12.3, enrich;dur=4.1, total;dur=17.0}.
+ */
+final class ServerTiming {
+
+    static final String HEADER = "Server-Timing";
+
+    private final long start = System.nanoTime();
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    ServerTiming add(String phase, long nanos) {
+        phases.merge(phase, nanos, Long::sum);
+        return this;
+    }
+
+    /**
+     * Adds the time since this object was created as phase "total".
+     */
+    ServerTiming finish() {
+        return add("total", System.nanoTime() - start);
+    }
+
+    Map<String, Long> phases() {
+        return Collections.unmodifiableMap(phases);
+    }
+
+    String header() {
+        return phases.entrySet().stream()
+            .map(phase -> String.format(Locale.ROOT, "%s;dur=%.1f", phase.getKey(), phase.getValue() / 1_000_000.0))
+            .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,28 @@
+package dev.abstratium.partner.boundary.health;
+
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+import dev.abstratium.partner.service.SearchWarmUp;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Reports the application as ready only once the search warm-up has completed, see {@link SearchWarmUp},
+ * so that load balancers do not send traffic to a cold instance.
+ */
+@Readiness
+@ApplicationScoped
+public class SearchWarmUpReadinessCheck implements HealthCheck {
+
+    @Inject
+    SearchWarmUp warmUp;
+
+    @Override
+    public HealthCheckResponse call() {
+        return HealthCheckResponse.named("search-warm-up")
+            .status(warmUp.isCompleted())
+            .build();
+    }
+}
@@ -0,0 +1,36 @@
+package dev.abstratium.partner.boundary.health;
+
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.eclipse.microprofile.health.Readiness;
+
+import dev.abstratium.partner.service.PartnerSuggestIndex;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Reports the application as ready only once the partner suggest index has been reopened
+ * from its segment file and caught up with the database, see {@link PartnerSuggestIndex}.
+ * Until then, each check retries a load that failed, e.g. on a transient database error, so the
+ * probe's interval is the retry interval. Served on the management interface at /m/health/ready.
+ */
+@Readiness
+@ApplicationScoped
+public class SuggestIndexReadinessCheck implements HealthCheck {
+
+    @Inject
+    PartnerSuggestIndex suggestIndex;
+
+    @Override
+    public HealthCheckResponse call() {
+        suggestIndex.retryIfNotReady();
+        HealthCheckResponseBuilder response = HealthCheckResponse.named("partner-suggest-index")
+            .status(suggestIndex.isReady());
+        Long highWaterMark = suggestIndex.getHighWaterMark();
+        if (highWaterMark != null) {
+            response.withData("highWaterMark", highWaterMark);
+        }
+        return response.build();
+    }
+}
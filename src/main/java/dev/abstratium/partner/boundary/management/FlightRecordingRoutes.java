@@ -0,0 +1,77 @@
+package dev.abstratium.partner.boundary.management;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import dev.abstratium.partner.service.FlightRecordingService;
+import io.quarkus.vertx.http.ManagementInterface;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Controls Java Flight Recorder recordings from the management interface, which only listens on localhost,
+ * e.g. through {@code kubectl port-forward}:
+ * <ul>
+ *   <li>{@code GET /m/jfr} returns the status of the latest recording</li>
+ *   <li>{@code POST /m/jfr/start?duration=PT5M} starts a recording, by default for {@code partner.jfr.max-duration}</li>
+ *   <li>{@code POST /m/jfr/stop} stops it and returns the .jfr file, which opens in JDK Mission Control</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class FlightRecordingRoutes {
+
+    @ConfigProperty(name = "quarkus.management.root-path")
+    String rootPath;
+
+    @Inject
+    FlightRecordingService recordingService;
+
+    void register(@Observes ManagementInterface management) {
+        Router router = management.router();
+        router.get(rootPath + "/jfr").handler(rc -> json(rc, 200, recordingService.status()));
+        router.post(rootPath + "/jfr/start").blockingHandler(this::start);
+        router.post(rootPath + "/jfr/stop").blockingHandler(this::stop);
+    }
+
+    private void start(RoutingContext rc) {
+        String duration = rc.request().getParam("duration");
+        try {
+            json(rc, 200, recordingService.start(duration == null ? null : Duration.parse(duration)));
+        } catch (DateTimeParseException e) {
+            rc.response().setStatusCode(400).end("Duration must be ISO-8601, e.g. PT5M");
+        } catch (IllegalArgumentException e) {
+            rc.response().setStatusCode(400).end(e.getMessage());
+        } catch (IllegalStateException e) {
+            rc.response().setStatusCode(409).end(e.getMessage());
+        }
+    }
+
+    private void stop(RoutingContext rc) {
+        Path file;
+        try {
+            file = recordingService.stop();
+        } catch (IllegalStateException e) {
+            rc.response().setStatusCode(409).end(e.getMessage());
+            return;
+        }
+        rc.response()
+            .putHeader("Content-Type", "application/octet-stream")
+            .putHeader("Content-Disposition", "attachment; filename=\"" + file.getFileName() + "\"")
+            .sendFile(file.toString());
+    }
+
+    private static void json(RoutingContext rc, int status, Map<String, Object> body) {
+        rc.response()
+            .setStatusCode(status)
+            .putHeader("Content-Type", "application/json")
+            .end(new JsonObject(body).encode());
+    }
+}
@@ -0,0 +1,62 @@
+package dev.abstratium.partner.boundary.management;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import dev.abstratium.partner.service.SlowQuery;
+import dev.abstratium.partner.service.SlowQueryLog;
+import io.quarkus.vertx.http.ManagementInterface;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Shows the statements kept by the {@link SlowQueryLog} on the management interface:
+ * <ul>
+ *   <li>{@code GET /m/slow-queries} returns them newest first, with bind parameters, caller and plan</li>
+ *   <li>{@code DELETE /m/slow-queries} clears them</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class SlowQueryRoutes {
+
+    @ConfigProperty(name = "quarkus.management.root-path")
+    String rootPath;
+
+    @Inject
+    SlowQueryLog slowQueryLog;
+
+    void register(@Observes ManagementInterface management) {
+        Router router = management.router();
+        router.get(rootPath + "/slow-queries").handler(this::list);
+        router.delete(rootPath + "/slow-queries").handler(rc -> {
+            slowQueryLog.clear();
+            rc.response().setStatusCode(204).end();
+        });
+    }
+
+    private void list(RoutingContext rc) {
+        JsonArray statements = new JsonArray();
+        for (SlowQuery slowQuery : slowQueryLog.getSlowQueries()) {
+            statements.add(new JsonObject()
+                .put("executedAt", slowQuery.getExecutedAt().toString())
+                .put("millis", slowQuery.getNanos() / 1_000_000.0)
+                .put("sql", slowQuery.getSql())
+                .put("binds", new JsonArray(slowQuery.getBinds()))
+                .put("batchSize", slowQuery.getBatchSize())
+                .put("caller", slowQuery.getCaller())
+                .put("requestKey", slowQuery.getRequestKey())
+                .put("plan", slowQuery.getPlan() == null ? null : new JsonArray(slowQuery.getPlan())));
+        }
+        JsonObject body = new JsonObject()
+            .put("thresholdMillis", slowQueryLog.getThreshold().toMillis())
+            .put("recorded", slowQueryLog.getRecorded())
+            .put("statements", statements);
+        rc.response()
+            .putHeader("Content-Type", "application/json")
+            .end(body.encode());
+    }
+}
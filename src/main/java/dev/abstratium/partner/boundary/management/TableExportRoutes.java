@@ -0,0 +1,47 @@
+package dev.abstratium.partner.boundary.management;
+
+import java.util.Map;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import dev.abstratium.partner.service.PartnerTableExportService;
+import io.quarkus.vertx.http.ManagementInterface;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Starts the export of all partner tables from the management interface, which only listens on localhost:
+ * {@code POST /m/export/tables} writes them to {@code partner.export.tables.directory} and returns the manifest.
+ */
+@ApplicationScoped
+public class TableExportRoutes {
+
+    @ConfigProperty(name = "quarkus.management.root-path")
+    String rootPath;
+
+    @Inject
+    PartnerTableExportService tableExportService;
+
+    void register(@Observes ManagementInterface management) {
+        Router router = management.router();
+        router.post(rootPath + "/export/tables").blockingHandler(this::export, false);
+    }
+
+    private void export(RoutingContext rc) {
+        Map<String, Object> manifest;
+        try {
+            manifest = tableExportService.export();
+        } catch (IllegalStateException e) {
+            rc.response().setStatusCode(409).end(e.getMessage());
+            return;
+        }
+        rc.response()
+            .setStatusCode(200)
+            .putHeader("Content-Type", "application/json")
+            .end(new JsonObject(manifest).encode());
+    }
+}
@@ -0,0 +1,57 @@
+package dev.abstratium.partner.dto;
+
+import java.util.List;
+
+import dev.abstratium.partner.entity.ChangeLogEntry;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * One batch of the change feed, see /api/changes.
+ */
+@RegisterForReflection
+public class ChangeFeedPage {
+    private List<ChangeLogEntry> changes;
+    private long cursor;
+    private boolean hasMore;
+
+    public ChangeFeedPage() {
+    }
+
+    public ChangeFeedPage(List<ChangeLogEntry> changes, long cursor, boolean hasMore) {
+        this.changes = changes;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and setters
+    public List<ChangeLogEntry> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<ChangeLogEntry> changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * @return the value of {@code since} for the next request: the sequence number of the last change returned,
+     * or the requested one if there were no changes
+     */
+    public long getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(long cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * @return whether more changes can be read right away
+     */
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
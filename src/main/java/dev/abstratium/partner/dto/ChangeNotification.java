@@ -0,0 +1,25 @@
+package dev.abstratium.partner.dto;
+
+import dev.abstratium.partner.entity.ChangeLogEntry;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Compact notification of a committed change, pushed to the UI by /api/changes/stream so that it can refetch
+ * just the affected partner.
+ *
+ * @param seq position of the change in the change feed (/api/changes), also the id of the SSE event
+ * @param partnerId the affected partner
+ * @param entityType what kind of entity changed
+ * @param entityId id of the changed entity
+ * @param operation whether it was created, updated or deleted
+ * @param version the entity's new version, see T_change_log
+ */
+@RegisterForReflection
+public record ChangeNotification(long seq, String partnerId, ChangeLogEntry.EntityType entityType, String entityId,
+        ChangeLogEntry.Operation operation, long version) {
+
+    public static ChangeNotification of(ChangeLogEntry entry) {
+        return new ChangeNotification(entry.getSeq(), entry.getPartnerId(), entry.getEntityType(),
+            entry.getEntityId(), entry.getOperation(), entry.getVersion());
+    }
+}
@@ -0,0 +1,90 @@
+package dev.abstratium.partner.dto;
+
+import dev.abstratium.partner.entity.Partner;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * DTO for contact lookups: a matching contact detail together with the partner that owns it.
+ * Created by a JPQL constructor expression, so no entities are loaded.
+ */
+@RegisterForReflection
+public class ContactLookupResult {
+    private String partnerId;
+    private String partnerNumber;
+    private String contactId;
+    private String contactType;
+    private String contactValue;
+    private String label;
+    private boolean primary;
+
+    public ContactLookupResult() {
+    }
+
+    public ContactLookupResult(String partnerId, Long partnerNumberSeq, String contactId, String contactType,
+            String contactValue, String label, boolean primary) {
+        this.partnerId = partnerId;
+        this.partnerNumber = Partner.formatPartnerNumber(partnerNumberSeq);
+        this.contactId = contactId;
+        this.contactType = contactType;
+        this.contactValue = contactValue;
+        this.label = label;
+        this.primary = primary;
+    }
+
+    // Getters and setters
+    public String getPartnerId() {
+        return partnerId;
+    }
+
+    public void setPartnerId(String partnerId) {
+        this.partnerId = partnerId;
+    }
+
+    public String getPartnerNumber() {
+        return partnerNumber;
+    }
+
+    public void setPartnerNumber(String partnerNumber) {
+        this.partnerNumber = partnerNumber;
+    }
+
+    public String getContactId() {
+        return contactId;
+    }
+
+    public void setContactId(String contactId) {
+        this.contactId = contactId;
+    }
+
+    public String getContactType() {
+        return contactType;
+    }
+
+    public void setContactType(String contactType) {
+        this.contactType = contactType;
+    }
+
+    public String getContactValue() {
+        return contactValue;
+    }
+
+    public void setContactValue(String contactValue) {
+        this.contactValue = contactValue;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public boolean isPrimary() {
+        return primary;
+    }
+
+    public void setPrimary(boolean primary) {
+        this.primary = primary;
+    }
+}
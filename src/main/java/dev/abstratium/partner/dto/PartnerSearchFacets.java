@@ -0,0 +1,75 @@
+package dev.abstratium.partner.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Number of matching partners per facet value, over all matches of a search,
+ * not just the returned results. Values are ordered by descending count.
+ */
+@RegisterForReflection
+public class PartnerSearchFacets {
+    private long total;
+    private Map<String, Long> partnerType = new LinkedHashMap<>();
+    private Map<String, Long> active = new LinkedHashMap<>();
+    private Map<String, Long> tag = new LinkedHashMap<>();
+    private Map<String, Long> country = new LinkedHashMap<>();
+
+    public PartnerSearchFacets() {
+    }
+
+    // Getters and setters
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    /**
+     * @return counts by partner type, NATURAL_PERSON and LEGAL_ENTITY
+     */
+    public Map<String, Long> getPartnerType() {
+        return partnerType;
+    }
+
+    public void setPartnerType(Map<String, Long> partnerType) {
+        this.partnerType = partnerType;
+    }
+
+    /**
+     * @return counts by active flag, "true" and "false"
+     */
+    public Map<String, Long> getActive() {
+        return active;
+    }
+
+    public void setActive(Map<String, Long> active) {
+        this.active = active;
+    }
+
+    /**
+     * @return counts by tag name
+     */
+    public Map<String, Long> getTag() {
+        return tag;
+    }
+
+    public void setTag(Map<String, Long> tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * @return counts by country code of the preferred address; partners without address are not counted
+     */
+    public Map<String, Long> getCountry() {
+        return country;
+    }
+
+    public void setCountry(Map<String, Long> country) {
+        this.country = country;
+    }
+}
@@ -0,0 +1,59 @@
+package dev.abstratium.partner.dto;
+
+import java.util.List;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * One page of partner search results together with the total number of matching partners.
+ */
+@RegisterForReflection
+public class PartnerSearchPage {
+    private List<PartnerSearchResult> results;
+    private long totalCount;
+    private int page;
+    private int size;
+
+    public PartnerSearchPage() {
+    }
+
+    public PartnerSearchPage(List<PartnerSearchResult> results, long totalCount, int page, int size) {
+        this.results = results;
+        this.totalCount = totalCount;
+        this.page = page;
+        this.size = size;
+    }
+
+    // Getters and setters
+    public List<PartnerSearchResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<PartnerSearchResult> results) {
+        this.results = results;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
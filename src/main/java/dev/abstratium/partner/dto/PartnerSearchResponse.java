@@ -0,0 +1,39 @@
+package dev.abstratium.partner.dto;
+
+import java.util.List;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Partner search results together with facet counts, returned when facets are requested.
+ */
+@RegisterForReflection
+public class PartnerSearchResponse {
+    private List<PartnerSearchResult> results;
+    private PartnerSearchFacets facets;
+
+    public PartnerSearchResponse() {
+    }
+
+    public PartnerSearchResponse(List<PartnerSearchResult> results, PartnerSearchFacets facets) {
+        this.results = results;
+        this.facets = facets;
+    }
+
+    // Getters and setters
+    public List<PartnerSearchResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<PartnerSearchResult> results) {
+        this.results = results;
+    }
+
+    public PartnerSearchFacets getFacets() {
+        return facets;
+    }
+
+    public void setFacets(PartnerSearchFacets facets) {
+        this.facets = facets;
+    }
+}
@@ -1,15 +1,32 @@
 package dev.abstratium.partner.dto;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import dev.abstratium.partner.entity.Partner;
+import dev.abstratium.partner.entity.PartnerDiscriminator;
 import dev.abstratium.partner.entity.Tag;
+import io.quarkus.runtime.annotations.RegisterForReflection;
 
 /**
  * DTO for partner search results that includes a formatted address line.
  * This avoids loading full address details on the frontend.
+ * 
+ * The constructors taking column values are used by JPQL constructor expressions
+ * ({@code SELECT NEW ...}) so that searches only read the columns this DTO needs,
+ * without hydrating and registering Partner entities in the persistence context.
  */
+@RegisterForReflection
 public class PartnerSearchResult {
     private String id;
+    
+    // Raw sequence, used for ordering results from several queries; the UI uses partnerNumber
+    @JsonIgnore
+    private Long partnerNumberSeq;
+    
     private String partnerNumber;
     private String partnerType;
     private boolean active;
@@ -24,6 +41,7 @@ public class PartnerSearchResult {
     
     // Legal Entity fields
     private String legalName;
+    private String tradingName;
     private String jurisdiction;
     private String registrationNumber;
     private String incorporationDate;
@@ -31,6 +49,13 @@ public class PartnerSearchResult {
     // Address line (formatted from preferred address)
     private String addressLine;
     
+    // Address that matched an address search, null for other searches
+    private String matchedAddressId;
+    private String matchedAddressLine;
+    
+    // Sources that found this partner in a unified search (PARTNER, CONTACT, ADDRESS), null for other searches
+    private List<String> matchedSources;
+    
     // Contact details (selected based on priority: primary > verified > alphabetical)
     private String email;
     private String phone;
@@ -42,6 +67,45 @@ public class PartnerSearchResult {
     public PartnerSearchResult() {
     }
     
+    /**
+     * Projection constructor for natural persons.
+     */
+    public PartnerSearchResult(String id, Long partnerNumberSeq, boolean active, String notes,
+            LocalDateTime createdAt, LocalDateTime updatedAt,
+            String firstName, String lastName, LocalDate dateOfBirth) {
+        this(id, partnerNumberSeq, PartnerDiscriminator.NATURAL_PERSON, active, notes, createdAt, updatedAt);
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.dateOfBirth = dateOfBirth != null ? dateOfBirth.toString() : null;
+    }
+    
+    /**
+     * Projection constructor for legal entities.
+     */
+    public PartnerSearchResult(String id, Long partnerNumberSeq, boolean active, String notes,
+            LocalDateTime createdAt, LocalDateTime updatedAt,
+            String legalName, String tradingName, String jurisdiction, String registrationNumber,
+            LocalDate incorporationDate) {
+        this(id, partnerNumberSeq, PartnerDiscriminator.LEGAL_ENTITY, active, notes, createdAt, updatedAt);
+        this.legalName = legalName;
+        this.tradingName = tradingName;
+        this.jurisdiction = jurisdiction;
+        this.registrationNumber = registrationNumber;
+        this.incorporationDate = incorporationDate != null ? incorporationDate.toString() : null;
+    }
+    
+    private PartnerSearchResult(String id, Long partnerNumberSeq, String partnerType, boolean active, String notes,
+            LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.partnerNumberSeq = partnerNumberSeq;
+        this.partnerNumber = Partner.formatPartnerNumber(partnerNumberSeq);
+        this.partnerType = partnerType;
+        this.active = active;
+        this.notes = notes;
+        this.createdAt = createdAt != null ? createdAt.toString() : null;
+        this.updatedAt = updatedAt != null ? updatedAt.toString() : null;
+    }
+    
     // Getters and setters
     public String getId() {
         return id;
@@ -51,6 +115,14 @@ public class PartnerSearchResult {
         this.id = id;
     }
     
+    public Long getPartnerNumberSeq() {
+        return partnerNumberSeq;
+    }
+    
+    public void setPartnerNumberSeq(Long partnerNumberSeq) {
+        this.partnerNumberSeq = partnerNumberSeq;
+    }
+    
     public String getPartnerNumber() {
         return partnerNumber;
     }
@@ -115,6 +187,14 @@ public class PartnerSearchResult {
         this.legalName = legalName;
     }
     
+    public String getTradingName() {
+        return tradingName;
+    }
+    
+    public void setTradingName(String tradingName) {
+        this.tradingName = tradingName;
+    }
+    
     public String getJurisdiction() {
         return jurisdiction;
     }
@@ -147,6 +227,30 @@ public class PartnerSearchResult {
         this.addressLine = addressLine;
     }
     
+    public String getMatchedAddressId() {
+        return matchedAddressId;
+    }
+    
+    public void setMatchedAddressId(String matchedAddressId) {
+        this.matchedAddressId = matchedAddressId;
+    }
+    
+    public String getMatchedAddressLine() {
+        return matchedAddressLine;
+    }
+    
+    public void setMatchedAddressLine(String matchedAddressLine) {
+        this.matchedAddressLine = matchedAddressLine;
+    }
+    
+    public List<String> getMatchedSources() {
+        return matchedSources;
+    }
+    
+    public void setMatchedSources(List<String> matchedSources) {
+        this.matchedSources = matchedSources;
+    }
+    
     public String getEmail() {
         return email;
     }
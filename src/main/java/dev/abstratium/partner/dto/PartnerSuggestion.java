@@ -0,0 +1,67 @@
+package dev.abstratium.partner.dto;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * DTO for type-ahead suggestions: just enough to show a partner in a drop down and open it.
+ */
+@RegisterForReflection
+public class PartnerSuggestion {
+    private String partnerId;
+    private String partnerNumber;
+    private String partnerType;
+    private String name;
+    private boolean active;
+
+    public PartnerSuggestion() {
+    }
+
+    public PartnerSuggestion(String partnerId, String partnerNumber, String partnerType, String name, boolean active) {
+        this.partnerId = partnerId;
+        this.partnerNumber = partnerNumber;
+        this.partnerType = partnerType;
+        this.name = name;
+        this.active = active;
+    }
+
+    // Getters and setters
+    public String getPartnerId() {
+        return partnerId;
+    }
+
+    public void setPartnerId(String partnerId) {
+        this.partnerId = partnerId;
+    }
+
+    public String getPartnerNumber() {
+        return partnerNumber;
+    }
+
+    public void setPartnerNumber(String partnerNumber) {
+        this.partnerNumber = partnerNumber;
+    }
+
+    public String getPartnerType() {
+        return partnerType;
+    }
+
+    public void setPartnerType(String partnerType) {
+        this.partnerType = partnerType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+}
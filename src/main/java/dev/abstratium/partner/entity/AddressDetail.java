@@ -11,13 +11,18 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedQuery;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "T_address_detail")
+@NamedQuery(name = AddressDetail.FIND_BY_PARTNERS_WITH_ADDRESS,
+    query = "SELECT ad.partner.id, ad FROM AddressDetail ad JOIN FETCH ad.address a WHERE ad.partner.id IN :partnerIds")
 public class AddressDetail {
 
+    public static final String FIND_BY_PARTNERS_WITH_ADDRESS = "AddressDetail.findByPartnersWithAddress";
+
     @Id
     @Column(length = 36)
     private String id;
@@ -0,0 +1,117 @@
+package dev.abstratium.partner.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * One change of a partner or of one of its details, as published to downstream services by the change feed.
+ * Written by the partner write services in the same transaction as the change, see ChangeLogService.
+ */
+@Entity
+@Table(name = "T_change_log")
+public class ChangeLogEntry {
+
+    public enum EntityType {
+        PARTNER,
+        ADDRESS_DETAIL,
+        CONTACT_DETAIL,
+        PARTNER_TAG,
+        PARTNER_RELATIONSHIP
+    }
+
+    public enum Operation {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    @Id
+    @Column(name = "seq")
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", length = 30, nullable = false)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", length = 36, nullable = false)
+    private String entityId;
+
+    @Column(name = "partner_id", length = 36, nullable = false)
+    private String partnerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation", length = 10, nullable = false)
+    private Operation operation;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    // Getters and setters
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(EntityType entityType) {
+        this.entityType = entityType;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(String entityId) {
+        this.entityId = entityId;
+    }
+
+    /**
+     * @return the affected partner; for relationships the partner they start from
+     */
+    public String getPartnerId() {
+        return partnerId;
+    }
+
+    public void setPartnerId(String partnerId) {
+        this.partnerId = partnerId;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(Operation operation) {
+        this.operation = operation;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+}
@@ -10,13 +10,18 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedQuery;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "T_contact_detail")
+@NamedQuery(name = ContactDetail.FIND_BY_PARTNERS,
+    query = "SELECT cd.partner.id, cd FROM ContactDetail cd WHERE cd.partner.id IN :partnerIds")
 public class ContactDetail {
 
+    public static final String FIND_BY_PARTNERS = "ContactDetail.findByPartners";
+
     @Id
     @Column(length = 36)
     private String id;
@@ -43,6 +48,15 @@ public class ContactDetail {
     @Column(name = "is_verified", nullable = false)
     private boolean isVerified = false;
 
+    // Normalized keys for index lookups, maintained by ContactDetailService
+    @JsonIgnore
+    @Column(name = "lookup_key", length = 255)
+    private String lookupKey;
+
+    @JsonIgnore
+    @Column(name = "lookup_domain", length = 255)
+    private String lookupDomain;
+
     @PrePersist
     public void prePersist() {
         if (id == null) {
@@ -106,4 +120,20 @@ public class ContactDetail {
     public void setVerified(boolean verified) {
         isVerified = verified;
     }
+
+    public String getLookupKey() {
+        return lookupKey;
+    }
+
+    public void setLookupKey(String lookupKey) {
+        this.lookupKey = lookupKey;
+    }
+
+    public String getLookupDomain() {
+        return lookupDomain;
+    }
+
+    public void setLookupDomain(String lookupDomain) {
+        this.lookupDomain = lookupDomain;
+    }
 }
@@ -17,6 +17,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Inheritance;
 import jakarta.persistence.InheritanceType;
+import jakarta.persistence.NamedQuery;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
@@ -25,11 +26,14 @@ import jakarta.persistence.Transient;
 
 @Entity
 @Table(name = "T_partner")
+@NamedQuery(name = Partner.FIND_BY_ID, query = "SELECT p FROM Partner p WHERE p.id = :id")
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "partner_type", discriminatorType = DiscriminatorType.STRING)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public abstract class Partner {
 
+    public static final String FIND_BY_ID = "Partner.findById";
+
     @Id
     @Column(length = 36)
     private String id;
@@ -106,6 +110,15 @@ public abstract class Partner {
 
     @Transient
     public String getPartnerNumber() {
+        return formatPartnerNumber(partnerNumberSeq);
+    }
+
+    /**
+     * Formats a partner number sequence value for display, e.g. 77 becomes "P00000077".
+     * @param partnerNumberSeq the sequence value, may be null
+     * @return the formatted partner number, or null if no sequence value is given
+     */
+    public static String formatPartnerNumber(Long partnerNumberSeq) {
         if (partnerNumberSeq == null) {
             return null;
         }
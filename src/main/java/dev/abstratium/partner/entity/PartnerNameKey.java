@@ -0,0 +1,100 @@
+package dev.abstratium.partner.entity;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+
+/**
+ * Normalized and phonetic key of one word of a partner name, used for fuzzy name search.
+ * Maintained by the application whenever a partner is created or updated.
+ */
+@Entity
+@Table(name = "T_partner_name_key")
+public class PartnerNameKey {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "partner_id", nullable = false)
+    private Partner partner;
+
+    @Column(name = "name_field", length = 20, nullable = false)
+    private String nameField;
+
+    @Column(name = "normalized", length = 100, nullable = false)
+    private String normalized;
+
+    @Column(name = "cologne", length = 100)
+    private String cologne;
+
+    @Column(name = "metaphone", length = 20)
+    private String metaphone;
+
+    @PrePersist
+    public void prePersist() {
+        if (id == null) {
+            id = UUID.randomUUID().toString();
+        }
+    }
+
+    // Getters and setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Partner getPartner() {
+        return partner;
+    }
+
+    public void setPartner(Partner partner) {
+        this.partner = partner;
+    }
+
+    public String getNameField() {
+        return nameField;
+    }
+
+    public void setNameField(String nameField) {
+        this.nameField = nameField;
+    }
+
+    public String getNormalized() {
+        return normalized;
+    }
+
+    public void setNormalized(String normalized) {
+        this.normalized = normalized;
+    }
+
+    public String getCologne() {
+        return cologne;
+    }
+
+    public void setCologne(String cologne) {
+        this.cologne = cologne;
+    }
+
+    public String getMetaphone() {
+        return metaphone;
+    }
+
+    public void setMetaphone(String metaphone) {
+        this.metaphone = metaphone;
+    }
+}
@@ -11,13 +11,18 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedQuery;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "T_partner_tag")
+@NamedQuery(name = PartnerTag.FIND_TAGS_BY_PARTNERS,
+    query = "SELECT pt.partner.id, pt.tag FROM PartnerTag pt WHERE pt.partner.id IN :partnerIds ORDER BY pt.tag.tagName")
 public class PartnerTag {
 
+    public static final String FIND_TAGS_BY_PARTNERS = "PartnerTag.findTagsByPartners";
+
     @Id
     @Column(length = 36)
     private String id;
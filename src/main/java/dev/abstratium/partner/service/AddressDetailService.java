@@ -4,8 +4,11 @@ import java.util.List;
 
 import dev.abstratium.partner.entity.Address;
 import dev.abstratium.partner.entity.AddressDetail;
+import dev.abstratium.partner.entity.ChangeLogEntry;
 import dev.abstratium.partner.entity.Partner;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
@@ -16,6 +19,12 @@ public class AddressDetailService {
     @PersistenceContext
     EntityManager em;
 
+    @Inject
+    ChangeLogService changeLog;
+
+    @Inject
+    Event<PartnerChangedEvent> partnerChanged;
+
     public List<AddressDetail> findByPartnerId(String partnerId) {
         return em.createQuery(
                 "SELECT ad FROM AddressDetail ad " +
@@ -86,6 +95,7 @@ public class AddressDetailService {
     }
 
     @Transactional
+    @RecordedWrite
     public AddressDetail create(String partnerId, String addressId, AddressDetail addressDetail) {
         Partner partner = em.find(Partner.class, partnerId);
         if (partner == null) {
@@ -107,14 +117,27 @@ public class AddressDetailService {
         addressDetail.setPartner(partner);
         addressDetail.setAddress(address);
         em.persist(addressDetail);
+        changeLog.record(ChangeLogEntry.EntityType.ADDRESS_DETAIL, addressDetail.getId(), partnerId,
+            ChangeLogEntry.Operation.CREATE);
+        fireAddressChanged(addressDetail);
         return addressDetail;
     }
 
     @Transactional
+    @RecordedWrite
     public void delete(String id) {
         AddressDetail addressDetail = em.find(AddressDetail.class, id);
         if (addressDetail != null) {
             em.remove(addressDetail);
+            changeLog.record(ChangeLogEntry.EntityType.ADDRESS_DETAIL, id, addressDetail.getPartner().getId(),
+                ChangeLogEntry.Operation.DELETE);
+            fireAddressChanged(addressDetail);
         }
     }
+
+    private void fireAddressChanged(AddressDetail addressDetail) {
+        Partner partner = addressDetail.getPartner();
+        partnerChanged.fire(new PartnerChangedEvent(partner.getId(), partner.getPartnerNumberSeq(),
+            PartnerChangedEvent.Type.ADDRESS_CHANGED, addressDetail.getId()));
+    }
 }
@@ -44,12 +44,14 @@ public class AddressService {
     }
 
     @Transactional
+    @RecordedWrite
     public Address create(Address address) {
         em.persist(address);
         return address;
     }
 
     @Transactional
+    @RecordedWrite
     public void delete(String id) {
         Address address = em.find(Address.class, id);
         if (address != null) {
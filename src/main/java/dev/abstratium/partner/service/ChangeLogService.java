@@ -0,0 +1,83 @@
+package dev.abstratium.partner.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import dev.abstratium.partner.dto.ChangeNotification;
+import dev.abstratium.partner.entity.ChangeLogEntry;
+import dev.abstratium.partner.entity.ChangeLogEntry.EntityType;
+import dev.abstratium.partner.entity.ChangeLogEntry.Operation;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+/**
+ * Outbox of partner changes for downstream services, who read it through /api/changes instead of
+ * polling the export file.
+ *
+ * The write services record each change in their own transaction, so a change is published if and only if
+ * it commits. Sequence numbers are allocated from T_change_log_sequence, whose row stays locked until the
+ * writing transaction ends: changes therefore become visible in sequence order, and a consumer that remembers
+ * the last sequence number it read cannot miss one that commits later. Because that lock serializes
+ * writers, {@link #record} should be the last write of a transaction.
+ *
+ * Each change is also fired as a {@link ChangeNotification} CDI event; observers that push it elsewhere should
+ * use {@code @Observes(during = TransactionPhase.AFTER_SUCCESS)}.
+ */
+@ApplicationScoped
+public class ChangeLogService {
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    Event<ChangeNotification> changeNotification;
+
+    /**
+     * Records a change in the current transaction.
+     *
+     * @param partnerId the affected partner; for relationships the partner they start from
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public ChangeLogEntry record(EntityType entityType, String entityId, String partnerId, Operation operation) {
+        em.createNativeQuery("UPDATE T_change_log_sequence SET next_val = next_val + 1 WHERE id = 1")
+            .executeUpdate();
+        long seq = ((Number) em.createNativeQuery("SELECT next_val - 1 FROM T_change_log_sequence WHERE id = 1")
+            .getSingleResult()).longValue();
+
+        // the sequence lock also serializes this, so no two changes of an entity get the same version
+        Long lastVersion = em.createQuery(
+            "SELECT MAX(c.version) FROM ChangeLogEntry c WHERE c.entityType = :entityType AND c.entityId = :entityId",
+            Long.class)
+            .setParameter("entityType", entityType)
+            .setParameter("entityId", entityId)
+            .getSingleResult();
+
+        ChangeLogEntry entry = new ChangeLogEntry();
+        entry.setSeq(seq);
+        entry.setEntityType(entityType);
+        entry.setEntityId(entityId);
+        entry.setPartnerId(partnerId);
+        entry.setOperation(operation);
+        entry.setVersion(lastVersion == null ? 1 : lastVersion + 1);
+        entry.setChangedAt(LocalDateTime.now());
+        em.persist(entry);
+        changeNotification.fire(ChangeNotification.of(entry));
+        return entry;
+    }
+
+    /**
+     * @param since sequence number of the last change already read, 0 to read from the start
+     * @param limit maximum number of changes returned
+     * @return the changes after {@code since}, ordered by sequence number
+     */
+    @Transactional
+    public List<ChangeLogEntry> findSince(long since, int limit) {
+        return em.createQuery("SELECT c FROM ChangeLogEntry c WHERE c.seq > :since ORDER BY c.seq", ChangeLogEntry.class)
+            .setParameter("since", since)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+}
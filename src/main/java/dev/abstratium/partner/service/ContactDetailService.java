@@ -1,10 +1,21 @@
 package dev.abstratium.partner.service;
 
 import java.util.List;
+import java.util.Locale;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import dev.abstratium.partner.dto.ContactLookupResult;
+import dev.abstratium.partner.entity.ChangeLogEntry;
 import dev.abstratium.partner.entity.ContactDetail;
 import dev.abstratium.partner.entity.Partner;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
@@ -12,9 +23,24 @@ import jakarta.transaction.Transactional;
 @ApplicationScoped
 public class ContactDetailService {
 
+    private static final Logger LOG = Logger.getLogger(ContactDetailService.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    static final int MAX_LOOKUP_RESULTS = 50;
+
     @PersistenceContext
     EntityManager em;
 
+    @Inject
+    ChangeLogService changeLog;
+
+    @ConfigProperty(name = "contacts.phone.default-calling-code")
+    String defaultCallingCode;
+
+    @Inject
+    Event<PartnerChangedEvent> partnerChanged;
+
     public List<ContactDetail> findByPartnerId(String partnerId) {
         return em.createQuery(
                 "SELECT cd FROM ContactDetail cd " +
@@ -57,6 +83,7 @@ public class ContactDetailService {
     }
 
     @Transactional
+    @RecordedWrite
     public ContactDetail create(String partnerId, ContactDetail contactDetail) {
         Partner partner = em.find(Partner.class, partnerId);
         if (partner == null) {
@@ -77,11 +104,16 @@ public class ContactDetailService {
         }
         
         contactDetail.setPartner(partner);
+        applyLookupKeys(contactDetail);
         em.persist(contactDetail);
+        changeLog.record(ChangeLogEntry.EntityType.CONTACT_DETAIL, contactDetail.getId(), partnerId,
+            ChangeLogEntry.Operation.CREATE);
+        fireContactChanged(contactDetail);
         return contactDetail;
     }
 
     @Transactional
+    @RecordedWrite
     public ContactDetail update(String id, ContactDetail updatedContactDetail) {
         ContactDetail existingContactDetail = em.find(ContactDetail.class, id);
         if (existingContactDetail == null) {
@@ -108,19 +140,33 @@ public class ContactDetailService {
         existingContactDetail.setLabel(updatedContactDetail.getLabel());
         existingContactDetail.setPrimary(updatedContactDetail.isPrimary());
         existingContactDetail.setVerified(updatedContactDetail.isVerified());
+        applyLookupKeys(existingContactDetail);
         
         em.merge(existingContactDetail);
+        changeLog.record(ChangeLogEntry.EntityType.CONTACT_DETAIL, id, existingContactDetail.getPartner().getId(),
+            ChangeLogEntry.Operation.UPDATE);
+        fireContactChanged(existingContactDetail);
         return existingContactDetail;
     }
 
     @Transactional
+    @RecordedWrite
     public void delete(String id) {
         ContactDetail contactDetail = em.find(ContactDetail.class, id);
         if (contactDetail != null) {
             em.remove(contactDetail);
+            changeLog.record(ChangeLogEntry.EntityType.CONTACT_DETAIL, id, contactDetail.getPartner().getId(),
+                ChangeLogEntry.Operation.DELETE);
+            fireContactChanged(contactDetail);
         }
     }
 
+    private void fireContactChanged(ContactDetail contactDetail) {
+        Partner partner = contactDetail.getPartner();
+        partnerChanged.fire(new PartnerChangedEvent(partner.getId(), partner.getPartnerNumberSeq(),
+            PartnerChangedEvent.Type.CONTACT_CHANGED, contactDetail.getId()));
+    }
+
     public List<ContactDetail> search(String searchTerm) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return List.of();
@@ -136,4 +182,132 @@ public class ContactDetailService {
                 .setParameter("searchPattern", searchPattern)
                 .getResultList();
     }
+
+    /**
+     * Finds contact details, and their partners, by normalized lookup key, using
+     * idx_contact_detail_lookup_key or idx_contact_detail_lookup_domain.
+     * 
+     * The kind of value is guessed from its shape: "@acme.ch" looks up all email addresses
+     * in that domain, a value containing '@' an email address, a value that looks like a phone
+     * number is normalized to E.164 digits, and anything else is treated as a website host.
+     * 
+     * @param value the value to look up
+     * @param prefix if true, all keys starting with the normalized value match
+     * @return at most {@value #MAX_LOOKUP_RESULTS} matches
+     */
+    public List<ContactLookupResult> lookup(String value, boolean prefix) {
+        if (value == null || value.trim().isEmpty()) {
+            return List.of();
+        }
+        
+        String trimmed = value.trim();
+        String column;
+        String key;
+        if (trimmed.startsWith("@")) {
+            column = "cd.lookupDomain";
+            key = trimmed.substring(1).toLowerCase(Locale.ROOT);
+        } else if (trimmed.contains("@")) {
+            column = "cd.lookupKey";
+            key = trimmed.toLowerCase(Locale.ROOT);
+        } else if (ContactLookupKeys.looksLikePhoneNumber(trimmed)) {
+            column = "cd.lookupKey";
+            key = phoneLookupKey(trimmed);
+        } else {
+            column = "cd.lookupKey";
+            key = ContactLookupKeys.host(trimmed);
+        }
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        
+        String condition = prefix
+            ? column + " LIKE :key ESCAPE '\\'"
+            : column + " = :key";
+        return em.createQuery(
+                "SELECT NEW dev.abstratium.partner.dto.ContactLookupResult(" +
+                "cd.partner.id, cd.partner.partnerNumberSeq, cd.id, cd.contactType, cd.contactValue, cd.label, cd.isPrimary) " +
+                "FROM ContactDetail cd " +
+                "WHERE " + condition + " " +
+                "ORDER BY cd.isPrimary DESC, cd.contactType",
+                ContactLookupResult.class)
+                .setParameter("key", prefix ? escapeLike(key) + "%" : key)
+                .setMaxResults(MAX_LOOKUP_RESULTS)
+                .getResultList();
+    }
+
+    /**
+     * Finds the partners having a contact detail whose lookup key or email domain starts with the
+     * normalized value, so that "acme" finds "info@acme.ch" and "www.acme.ch", and "044 123" finds
+     * "+41 44 123 45 67". Both conditions are prefix probes on idx_contact_detail_lookup_key and
+     * idx_contact_detail_lookup_domain.
+     *
+     * @param limit maximum number of partners returned
+     * @return partner number sequences in ascending order
+     */
+    public List<Long> findPartnerNumberSeqsByPrefix(String value, int limit) {
+        if (value == null || value.trim().isEmpty()) {
+            return List.of();
+        }
+        String trimmed = value.trim();
+        String key = ContactLookupKeys.looksLikePhoneNumber(trimmed)
+            ? phoneLookupKey(trimmed)
+            : trimmed.toLowerCase(Locale.ROOT);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        return em.createQuery(
+                "SELECT DISTINCT cd.partner.partnerNumberSeq FROM ContactDetail cd " +
+                "WHERE cd.lookupKey LIKE :key ESCAPE '\\' OR cd.lookupDomain LIKE :key ESCAPE '\\' " +
+                "ORDER BY cd.partner.partnerNumberSeq",
+                Long.class)
+                .setParameter("key", escapeLike(key) + "%")
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * @return the E.164 digits of a phone number, using the configured default calling code for national numbers
+     */
+    public String phoneLookupKey(String phoneNumber) {
+        return ContactLookupKeys.phoneDigits(phoneNumber, defaultCallingCode);
+    }
+
+    private void applyLookupKeys(ContactDetail contactDetail) {
+        contactDetail.setLookupKey(ContactLookupKeys.lookupKey(
+            contactDetail.getContactType(), contactDetail.getContactValue(), defaultCallingCode));
+        contactDetail.setLookupDomain(ContactLookupKeys.lookupDomain(
+            contactDetail.getContactType(), contactDetail.getContactValue()));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Computes the lookup keys of contact details that were created before they existed.
+     * Runs in small transactions so that startup does not hold long locks.
+     */
+    void backfillLookupKeys(@Observes StartupEvent event) {
+        int total = 0;
+        int updated;
+        do {
+            updated = QuarkusTransaction.requiringNew().call(this::backfillLookupKeyBatch);
+            total += updated;
+        } while (updated == BACKFILL_BATCH_SIZE);
+        
+        if (total > 0) {
+            LOG.infof("Computed lookup keys for %d existing contact details", total);
+        }
+    }
+
+    private int backfillLookupKeyBatch() {
+        List<ContactDetail> batch = em.createQuery(
+                "SELECT cd FROM ContactDetail cd " +
+                "WHERE cd.lookupKey IS NULL AND cd.contactValue IS NOT NULL AND TRIM(cd.contactValue) <> ''",
+                ContactDetail.class)
+                .setMaxResults(BACKFILL_BATCH_SIZE)
+                .getResultList();
+        batch.forEach(this::applyLookupKeys);
+        return batch.size();
+    }
 }
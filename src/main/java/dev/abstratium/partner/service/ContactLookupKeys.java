@@ -0,0 +1,130 @@
+package dev.abstratium.partner.service;
+
+import java.util.Locale;
+
+/**
+ * Computes the normalized lookup keys that are stored with each contact detail, so that contacts
+ * can be found with an equality or prefix probe on an index instead of a LIKE scan:
+ * <ul>
+ *   <li>PHONE, MOBILE, FAX: E.164 digits without the leading '+', e.g. "+41 44 123 45 67",
+ *       "0041 44 123 45 67" and "044 123 45 67" all become "41441234567"</li>
+ *   <li>EMAIL: the lower-cased address; the lower-cased domain is stored separately</li>
+ *   <li>WEBSITE: the lower-cased host without "www.", e.g. "https://www.Acme.ch/about" becomes "acme.ch"</li>
+ *   <li>anything else: the trimmed, lower-cased value</li>
+ * </ul>
+ */
+public final class ContactLookupKeys {
+
+    private static final int MIN_PHONE_DIGITS = 5;
+
+    private ContactLookupKeys() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * @param contactType the contact type, e.g. "PHONE"
+     * @param contactValue the value as entered by the user
+     * @param defaultCallingCode country calling code used for national numbers starting with a single 0, e.g. "41"
+     * @return the lookup key, or null if the value is null or blank
+     */
+    public static String lookupKey(String contactType, String contactValue, String defaultCallingCode) {
+        if (contactValue == null || contactValue.trim().isEmpty()) {
+            return null;
+        }
+        String type = contactType != null ? contactType : "";
+        switch (type) {
+            case "PHONE":
+            case "MOBILE":
+            case "FAX":
+                String digits = phoneDigits(contactValue, defaultCallingCode);
+                return digits.isEmpty() ? lowerCase(contactValue) : digits;
+            case "WEBSITE":
+                return host(contactValue);
+            default:
+                return lowerCase(contactValue);
+        }
+    }
+
+    /**
+     * @return the lower-cased domain of an email address, or null if the contact is not an email address
+     */
+    public static String lookupDomain(String contactType, String contactValue) {
+        if (!"EMAIL".equals(contactType) || contactValue == null) {
+            return null;
+        }
+        int at = contactValue.lastIndexOf('@');
+        if (at < 0 || at == contactValue.length() - 1) {
+            return null;
+        }
+        return lowerCase(contactValue.substring(at + 1));
+    }
+
+    /**
+     * Normalizes a phone number to E.164 digits. "+" and "00" mark an international number,
+     * a single leading "0" is a national trunk prefix that is replaced by the default calling code.
+     *
+     * @return the digits, or an empty string if the value contains no digits
+     */
+    public static String phoneDigits(String value, String defaultCallingCode) {
+        String trimmed = value.trim();
+        StringBuilder digits = new StringBuilder();
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.length() == 0 || trimmed.startsWith("+")) {
+            return digits.toString();
+        }
+        if (digits.length() > 2 && digits.charAt(0) == '0' && digits.charAt(1) == '0') {
+            return digits.substring(2);
+        }
+        if (digits.charAt(0) == '0' && defaultCallingCode != null) {
+            return defaultCallingCode + digits.substring(1);
+        }
+        return digits.toString();
+    }
+
+    /**
+     * @return true if the value only consists of characters used when writing phone numbers
+     * and contains enough digits to be one
+     */
+    public static boolean looksLikePhoneNumber(String value) {
+        int digits = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if ("+-()/. ".indexOf(c) < 0) {
+                return false;
+            }
+        }
+        return digits >= MIN_PHONE_DIGITS;
+    }
+
+    /**
+     * @return the lower-cased host of a URL without scheme, "www.", port and path
+     */
+    public static String host(String url) {
+        String host = lowerCase(url);
+        int scheme = host.indexOf("://");
+        if (scheme >= 0) {
+            host = host.substring(scheme + 3);
+        }
+        for (char end : new char[] {'/', '?', '#', ':'}) {
+            int index = host.indexOf(end);
+            if (index >= 0) {
+                host = host.substring(0, index);
+            }
+        }
+        if (host.startsWith("www.")) {
+            host = host.substring(4);
+        }
+        return host;
+    }
+
+    private static String lowerCase(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
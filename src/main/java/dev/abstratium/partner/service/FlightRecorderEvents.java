@@ -0,0 +1,100 @@
+package dev.abstratium.partner.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events of the partner services. They are recorded whenever a recording is
+ * running, e.g. one started on the management interface with {@link FlightRecordingService}, and
+ * show up in JDK Mission Control under "Abstradex", next to the JDBC, GC and thread events.
+ *
+ * Each event measures its own duration with {@code begin()} and {@code end()}; fields are only
+ * filled in if {@code shouldCommit()} says the event is recorded, so that they cost nothing otherwise.
+ */
+public final class FlightRecorderEvents {
+
+    private FlightRecorderEvents() {
+    }
+
+    @Name("dev.abstratium.partner.Search")
+    @Label("Partner Search")
+    @Category({ "Abstradex", "Partner" })
+    @Description("Parsing, matching and ranking of a partner search, without enrichment")
+    static class Search extends Event {
+
+        @Label("Search Term")
+        String searchTerm;
+
+        @Label("Matches")
+        @Description("Number of partners matching the search")
+        int matches;
+
+        @Label("Results")
+        @Description("Number of results returned after ranking")
+        int results;
+
+        @Label("With Facets")
+        boolean withFacets;
+    }
+
+    @Name("dev.abstratium.partner.Enrichment")
+    @Label("Partner Search Enrichment")
+    @Category({ "Abstradex", "Partner" })
+    @Description("Loading of the address line, contact details and tags of search results")
+    static class Enrichment extends Event {
+
+        @Label("Results")
+        int results;
+    }
+
+    @Name("dev.abstratium.partner.Export")
+    @Label("Partner Export")
+    @Category({ "Abstradex", "Partner" })
+    @Description("Export of all partners to the configured file")
+    static class Export extends Event {
+
+        @Label("Path")
+        String path;
+
+        @Label("Rows")
+        int rows;
+
+        @Label("Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("dev.abstratium.partner.PartnerNumberAllocation")
+    @Label("Partner Number Allocation")
+    @Category({ "Abstradex", "Partner" })
+    @Description("Increment of T_partner_sequence, which serializes concurrent partner creation")
+    static class PartnerNumberAllocation extends Event {
+
+        @Label("Partner Number Sequence")
+        long partnerNumberSeq;
+    }
+
+    @Name("dev.abstratium.partner.Write")
+    @Label("Service Write")
+    @Category({ "Abstradex", "Partner" })
+    @Description("A write method of a service, including the commit of its transaction, see RecordedWrite")
+    static class Write extends Event {
+
+        @Label("Service")
+        String service;
+
+        @Label("Method")
+        String method;
+
+        @Label("Statements")
+        @Description("Number of SQL statements executed, including those of nested calls")
+        long statements;
+
+        @Label("Failed")
+        boolean failed;
+    }
+}
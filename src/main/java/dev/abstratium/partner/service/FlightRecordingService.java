@@ -0,0 +1,148 @@
+package dev.abstratium.partner.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Starts and stops Java Flight Recorder recordings of the running instance, so that a live pod
+ * can be profiled with low overhead. Besides the JDK's own events, a recording contains the
+ * {@link FlightRecorderEvents} of the partner services.
+ *
+ * Only one recording runs at a time. It stops by itself after its duration, at most
+ * {@code partner.jfr.max-duration}, and is then written to {@code partner.jfr.directory}.
+ */
+@ApplicationScoped
+public class FlightRecordingService {
+
+    private static final Logger LOG = Logger.getLogger(FlightRecordingService.class);
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+        .withZone(ZoneOffset.UTC);
+
+    @ConfigProperty(name = "partner.jfr.settings")
+    String settings;
+
+    @ConfigProperty(name = "partner.jfr.max-duration")
+    Duration maxDuration;
+
+    @ConfigProperty(name = "partner.jfr.directory")
+    String directory;
+
+    // the latest recording, which may have stopped by itself
+    private Recording recording;
+
+    /**
+     * Starts a recording.
+     *
+     * @param duration how long to record, or null for {@code partner.jfr.max-duration}
+     * @return the status of the new recording, see {@link #status()}
+     * @throws IllegalArgumentException if the duration is not positive or longer than the maximum
+     * @throws IllegalStateException if a recording is already running
+     */
+    public synchronized Map<String, Object> start(Duration duration) {
+        if (duration == null) {
+            duration = maxDuration;
+        }
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0) {
+            throw new IllegalArgumentException("Duration must be positive and at most " + maxDuration);
+        }
+        if (isRunning()) {
+            throw new IllegalStateException("Recording " + recording.getName() + " is already running");
+        }
+        closeRecording();
+
+        Recording started;
+        try {
+            started = new Recording(Configuration.getConfiguration(settings));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Unknown JFR settings: " + settings, e);
+        }
+        try {
+            Path dir = Path.of(directory);
+            Files.createDirectories(dir);
+            started.setName("abstradex-" + FILE_TIMESTAMP.format(Instant.now()));
+            started.setDestination(dir.resolve(started.getName() + ".jfr"));
+            started.setDuration(duration);
+            started.setToDisk(true);
+            started.start();
+        } catch (IOException e) {
+            started.close();
+            throw new IllegalStateException("Cannot write recordings to " + directory, e);
+        }
+        recording = started;
+        LOG.infof("Started flight recording %s for %s with %s settings", started.getName(), duration, settings);
+        return status();
+    }
+
+    /**
+     * Stops the running recording, or returns the latest one if it already stopped by itself.
+     *
+     * @return the .jfr file the recording was written to
+     * @throws IllegalStateException if no recording was started
+     */
+    public synchronized Path stop() {
+        if (recording == null) {
+            throw new IllegalStateException("No recording was started");
+        }
+        if (isRunning()) {
+            recording.stop();
+            LOG.infof("Stopped flight recording %s, written to %s", recording.getName(), recording.getDestination());
+        }
+        return recording.getDestination();
+    }
+
+    /**
+     * @return name, state, start time, duration and file of the latest recording, or only the state NONE
+     */
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("name", recording.getName());
+        status.put("state", recording.getState().name());
+        status.put("startTime", String.valueOf(recording.getStartTime()));
+        status.put("duration", String.valueOf(recording.getDuration()));
+        status.put("destination", String.valueOf(recording.getDestination()));
+        return status;
+    }
+
+    private boolean isRunning() {
+        return recording != null
+            && (recording.getState() == RecordingState.DELAYED || recording.getState() == RecordingState.RUNNING);
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            // the file stays, only the recording's resources are released
+            recording.close();
+            recording = null;
+        }
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        if (isRunning()) {
+            recording.stop();
+        }
+        closeRecording();
+    }
+}
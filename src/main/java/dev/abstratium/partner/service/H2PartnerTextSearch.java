@@ -0,0 +1,46 @@
+package dev.abstratium.partner.service;
+
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.smallrye.common.annotation.Identifier;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Matches free text with H2's built-in full-text engine ({@code FT_SEARCH_DATA}), which is
+ * maintained by triggers on T_partner. H2 matches whole words only, case insensitively, and
+ * requires all words to be present.
+ */
+@ApplicationScoped
+@Identifier("h2")
+public class H2PartnerTextSearch implements PartnerTextSearch {
+
+    @ConfigProperty(name = "partner.search.fulltext.min-term-length", defaultValue = "3")
+    int minTermLength;
+
+    @Inject
+    EntityManager em;
+
+    @Override
+    public boolean supports(String term) {
+        return PartnerTextSearch.isWord(term, minTermLength);
+    }
+
+    @Override
+    public List<Long> findPartnerNumberSeqs(List<String> terms, int limit) {
+        // KEYS holds the primary key of each matching row; only T_partner is indexed, so the
+        // limit passed to FT_SEARCH_DATA applies to partners. H2 does not rank its matches.
+        @SuppressWarnings("unchecked")
+        List<Number> seqs = em.createNativeQuery(
+            "SELECT p.partner_number_seq FROM FT_SEARCH_DATA(?1, ?2, 0) ft " +
+            "JOIN T_partner p ON p.id = ft.KEYS[1] " +
+            "WHERE ft.\"TABLE\" = 'T_PARTNER'")
+            .setParameter(1, String.join(" ", terms))
+            .setParameter(2, limit)
+            .getResultList();
+        return seqs.stream().map(Number::longValue).toList();
+    }
+}
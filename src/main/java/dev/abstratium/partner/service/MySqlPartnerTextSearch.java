@@ -0,0 +1,53 @@
+package dev.abstratium.partner.service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.smallrye.common.annotation.Identifier;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Matches free text with {@code MATCH ... AGAINST} in boolean mode on the ftx_partner_text
+ * FULLTEXT index. Every term is required and matched as a word prefix, so "acm" finds
+ * "Acme Corp", but unlike LIKE it does not find words merely containing the term.
+ *
+ * InnoDB ignores words shorter than innodb_ft_min_token_size (3 by default) and stopwords,
+ * so {@code partner.search.fulltext.min-term-length} should not be lower than the former.
+ * Rows only become visible to full-text search once their transaction has committed.
+ */
+@ApplicationScoped
+@Identifier("mysql")
+public class MySqlPartnerTextSearch implements PartnerTextSearch {
+
+    @ConfigProperty(name = "partner.search.fulltext.min-term-length", defaultValue = "3")
+    int minTermLength;
+
+    @Inject
+    EntityManager em;
+
+    @Override
+    public boolean supports(String term) {
+        return PartnerTextSearch.isWord(term, minTermLength);
+    }
+
+    @Override
+    public List<Long> findPartnerNumberSeqs(List<String> terms, int limit) {
+        // terms are letters and digits only, so they cannot contain boolean mode operators
+        String against = terms.stream().map(term -> "+" + term + "*").collect(Collectors.joining(" "));
+        @SuppressWarnings("unchecked")
+        List<Number> seqs = em.createNativeQuery(
+            "SELECT partner_number_seq FROM T_partner " +
+            "WHERE MATCH(first_name, last_name, legal_name, trading_name, registration_number, notes) " +
+            "AGAINST (?1 IN BOOLEAN MODE) " +
+            "ORDER BY MATCH(first_name, last_name, legal_name, trading_name, registration_number, notes) " +
+            "AGAINST (?1 IN BOOLEAN MODE) DESC")
+            .setParameter(1, against)
+            .setMaxResults(limit)
+            .getResultList();
+        return seqs.stream().map(Number::longValue).toList();
+    }
+}
@@ -0,0 +1,26 @@
+package dev.abstratium.partner.service;
+
+/**
+ * CDI event fired by the partner write services whenever a partner or one of its details changes.
+ *
+ * Observers that maintain in-memory state (search indexes, caches) should observe it with
+ * {@code @Observes(during = TransactionPhase.AFTER_SUCCESS)}, so that they only see committed changes.
+ *
+ * @param partnerId id of the affected partner
+ * @param partnerNumberSeq partner number sequence of the affected partner
+ * @param type what changed
+ * @param detailId id of the changed detail: the tag id for tag changes, the contact detail id for
+ * contact changes and the address detail id for address changes; null for partner changes
+ */
+public record PartnerChangedEvent(String partnerId, Long partnerNumberSeq, Type type, String detailId) {
+
+    public enum Type {
+        PARTNER_CREATED,
+        PARTNER_UPDATED,
+        PARTNER_DELETED,
+        TAG_ADDED,
+        TAG_REMOVED,
+        CONTACT_CHANGED,
+        ADDRESS_CHANGED
+    }
+}
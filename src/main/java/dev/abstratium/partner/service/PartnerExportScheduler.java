@@ -0,0 +1,60 @@
+package dev.abstratium.partner.service;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Writes the full partner export after startup and then every {@code partner.export.snapshot-interval},
+ * compacting the delta and tombstone files that {@link PartnerExportService} appends to in between.
+ * The snapshot after startup also picks up the changes made by other instances, and any delta lost
+ * because this instance stopped.
+ */
+@ApplicationScoped
+public class PartnerExportScheduler {
+
+    private static final Logger LOG = Logger.getLogger(PartnerExportScheduler.class);
+
+    @ConfigProperty(name = "partner.export.snapshot-interval")
+    Duration snapshotInterval;
+
+    @Inject
+    PartnerExportService exportService;
+
+    private ScheduledExecutorService executor;
+
+    void onStartup(@Observes StartupEvent event) {
+        if (snapshotInterval.isZero()) {
+            LOG.info("Scheduled partner export snapshots are disabled");
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("partner-export").factory());
+        executor.scheduleWithFixedDelay(this::snapshot, 0, snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void snapshot() {
+        try {
+            exportService.exportPartnersToFile();
+        } catch (RuntimeException e) {
+            // already logged; a failed run must not cancel the schedule
+            LOG.debug("Scheduled partner export failed", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
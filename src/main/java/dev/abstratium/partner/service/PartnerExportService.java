@@ -1,18 +1,29 @@
 package dev.abstratium.partner.service;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
 import org.jboss.logging.Logger;
 
 import dev.abstratium.partner.entity.Partner;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
@@ -20,6 +31,13 @@ import jakarta.transaction.Transactional;
 /**
  * Service for exporting partner data to a file.
  * Exports all partner attributes with CSV formatting including headers.
+ *
+ * The full export (the snapshot) is written by {@link PartnerExportScheduler} on a schedule. In between,
+ * partner writes are appended to two files once they commit: the delta file holds the partners created or
+ * updated since the snapshot, with their updated_at, and the tombstone file the partners deleted since.
+ * Consumers apply both in order on top of the snapshot. Writing a snapshot compacts them: it first renames both
+ * files with the suffix {@value #ROTATED_SUFFIX}, so that later appends start new ones, and deletes the renamed
+ * files once the snapshot has replaced the previous one. Until then, consumers apply the renamed files first.
  */
 @ApplicationScoped
 public class PartnerExportService {
@@ -32,54 +50,169 @@ public class PartnerExportService {
     @ConfigProperty(name = "partner.export.file.path")
     String exportFilePath;
 
+    @ConfigProperty(name = "partner.export.delta.file.path")
+    String deltaFilePath;
+
+    @ConfigProperty(name = "partner.export.tombstone.file.path")
+    String tombstoneFilePath;
+
+    @Inject
+    Event<Delta> deltas;
+
+    // rows fetched at a time while streaming the snapshot, except on MySQL, which streams them one by one
+    private static final int FETCH_SIZE = 500;
+
+    // appended to the delta and tombstone files while a snapshot that contains them is written
+    static final String ROTATED_SUFFIX = ".compacting";
+
+    // serialises appends with rotating the delta files and replacing the snapshot, never held while reading partners
+    private final ReentrantLock fileLock = new ReentrantLock();
+
+    /**
+     * A line for the delta or tombstone file, appended once the transaction that produced it commits.
+     */
+    record Delta(boolean tombstone, String line) {
+    }
+
     /**
      * Export all partners to the configured file.
      * The file contains a header line and CSV-formatted data for all partner attributes.
-     * Partners are sorted by partner number.
+     * Partners are sorted by partner number and streamed to the file, so they are never all in memory.
+     * The file is replaced atomically, and the deltas appended before the export started are deleted.
      */
     @Transactional
     public void exportPartnersToFile() {
+        FlightRecorderEvents.Export event = new FlightRecorderEvents.Export();
+        event.begin();
+        Path path = Paths.get(exportFilePath);
         try {
             LOG.infof("Starting partner export to file: %s", exportFilePath);
-            
-            // Fetch all partners ordered by partner number
-            List<Partner> partners = em.createQuery(
-                "SELECT p FROM Partner p ORDER BY p.partnerNumberSeq ASC", 
-                Partner.class
-            ).getResultList();
-
-            // Create lines with header and data
-            List<String> lines = new java.util.ArrayList<>();
-            
-            // Add header line
-            lines.add(getHeaderLine());
-            
-            // Add data lines
-            lines.addAll(partners.stream()
-                .map(this::formatPartnerLine)
-                .collect(Collectors.toList()));
-
-            // Write to file
-            Path path = Paths.get(exportFilePath);
-            
+
+            // Deltas committed from now on go to new files; the rotated ones are contained in the snapshot
+            rotateDeltas();
+
             // Create parent directories if they don't exist
             if (path.getParent() != null) {
                 Files.createDirectories(path.getParent());
             }
-            
-            // Write all lines to file (overwrite existing file)
-            Files.write(path, lines, 
-                StandardOpenOption.CREATE, 
-                StandardOpenOption.TRUNCATE_EXISTING);
-
-            LOG.infof("Successfully exported %d partners to %s", partners.size(), exportFilePath);
-            
+
+            // Write to a temporary file and replace the export with it, so that readers never see half of it
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            int rows = writeSnapshot(temporary);
+
+            fileLock.lock();
+            try {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.deleteIfExists(rotated(deltaFilePath));
+                Files.deleteIfExists(rotated(tombstoneFilePath));
+            } finally {
+                fileLock.unlock();
+            }
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = exportFilePath;
+                event.rows = rows;
+                event.bytes = Files.size(path);
+                event.commit();
+            }
+
+            LOG.infof("Successfully exported %d partners to %s", rows, exportFilePath);
+
         } catch (IOException e) {
             LOG.errorf(e, "Failed to export partners to file: %s", exportFilePath);
             throw new RuntimeException("Failed to export partners to file", e);
         }
     }
 
+    /**
+     * Renames the delta and tombstone files, so that appends start new ones. A rotated file left by an
+     * export that failed is kept, and the current file then stays in place too, as neither is in a snapshot yet.
+     */
+    private void rotateDeltas() throws IOException {
+        fileLock.lock();
+        try {
+            for (String file : List.of(deltaFilePath, tombstoneFilePath)) {
+                Path current = Paths.get(file);
+                Path rotated = rotated(file);
+                if (Files.exists(current) && !Files.exists(rotated)) {
+                    Files.move(current, rotated, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    private static Path rotated(String file) {
+        return Paths.get(file + ROTATED_SUFFIX);
+    }
+
+    /**
+     * Streams all partners into the file, read only and detached once written.
+     *
+     * @return the number of partners written
+     */
+    private int writeSnapshot(Path file) throws IOException {
+        // MySQL Connector/J only streams with this fetch size, otherwise it reads the whole table into memory
+        boolean mysql = em.unwrap(Session.class).doReturningWork(
+            connection -> "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+        int rows = 0;
+        try (Stream<Partner> partners = em.createQuery(
+                    "SELECT p FROM Partner p ORDER BY p.partnerNumberSeq ASC", Partner.class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, mysql ? Integer.MIN_VALUE : FETCH_SIZE)
+                .getResultStream();
+                BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(getHeaderLine());
+            writer.newLine();
+            Iterator<Partner> iterator = partners.iterator();
+            while (iterator.hasNext()) {
+                Partner partner = iterator.next();
+                writer.write(formatPartnerLine(partner));
+                writer.newLine();
+                em.detach(partner);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Appends the partner to the delta file once the current transaction commits.
+     * Call after flushing, so that updated_at is set.
+     */
+    public void exportPartnerChange(Partner partner) {
+        deltas.fire(new Delta(false, String.format("%s,\"%s\"",
+            formatPartnerLine(partner), escapeCsv(String.valueOf(partner.getUpdatedAt())))));
+    }
+
+    /**
+     * Appends the partner to the tombstone file once the current transaction commits.
+     */
+    public void exportPartnerDeletion(Partner partner) {
+        deltas.fire(new Delta(true, String.format("\"%s\",\"%s\"",
+            escapeCsv(partner.getPartnerNumber()), escapeCsv(String.valueOf(LocalDateTime.now())))));
+    }
+
+    void append(@Observes(during = TransactionPhase.AFTER_SUCCESS) Delta delta) {
+        Path path = Paths.get(delta.tombstone() ? tombstoneFilePath : deltaFilePath);
+        fileLock.lock();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            List<String> lines = Files.exists(path) ? List.of(delta.line())
+                : List.of(delta.tombstone() ? getTombstoneHeaderLine() : getDeltaHeaderLine(), delta.line());
+            Files.write(path, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            // the change is committed; the next snapshot contains it
+            LOG.errorf(e, "Failed to append to export delta file: %s", path);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
     /**
      * Get the header line for the CSV export.
      */
@@ -87,11 +220,25 @@ public class PartnerExportService {
         return "\"Partner Number\",\"Name\",\"Active\"";
     }
 
+    /**
+     * Get the header line for the delta file.
+     */
+    private String getDeltaHeaderLine() {
+        return getHeaderLine() + ",\"Updated At\"";
+    }
+
+    /**
+     * Get the header line for the tombstone file.
+     */
+    private String getTombstoneHeaderLine() {
+        return "\"Partner Number\",\"Deleted At\"";
+    }
+
     /**
      * Format a partner as a CSV line for the export file.
      * Includes all direct partner fields with proper quoting.
      */
-    private String formatPartnerLine(Partner partner) {
+    String formatPartnerLine(Partner partner) {
         return String.format("\"%s\",\"%s\",\"%s\"",
             escapeCsv(partner.getPartnerNumber()),
             escapeCsv(partner.getName()),
@@ -0,0 +1,141 @@
+package dev.abstratium.partner.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import dev.abstratium.partner.dto.PartnerSearchFacets;
+import dev.abstratium.partner.dto.PartnerSearchResult;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Computes facet counts for a set of partner search results.
+ *
+ * Type and active flag are counted in one pass over the results, which already carry them.
+ * Tag counts are intersection cardinalities of the result bitmap with the bitmaps of the
+ * {@link TagBitmapIndex}. Countries need the preferred address of every result, which is
+ * read from T_address_detail for at most {@link PartnerService#MAX_IN_LIST_SIZE} results at a
+ * time and reduced in the same pass.
+ */
+@ApplicationScoped
+public class PartnerFacetService {
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    TagBitmapIndex tagIndex;
+
+    /**
+     * @param results all matches of a search, before ranking and truncation
+     */
+    public PartnerSearchFacets computeFacets(List<PartnerSearchResult> results) {
+        PartnerSearchFacets facets = new PartnerSearchFacets();
+        facets.setTotal(results.size());
+        if (results.isEmpty()) {
+            return facets;
+        }
+
+        Map<String, Long> partnerTypes = new HashMap<>();
+        Map<String, Long> active = new HashMap<>();
+        RoaringBitmap partners = new RoaringBitmap();
+        for (PartnerSearchResult result : results) {
+            partnerTypes.merge(result.getPartnerType(), 1L, Long::sum);
+            active.merge(String.valueOf(result.isActive()), 1L, Long::sum);
+            partners.add(TagBitmapIndex.toOrdinal(result.getPartnerNumberSeq()));
+        }
+        facets.setPartnerType(byDescendingCount(partnerTypes));
+        facets.setActive(byDescendingCount(active));
+        facets.setTag(countTags(partners));
+        facets.setCountry(countCountries(partners));
+        return facets;
+    }
+
+    private Map<String, Long> countTags(RoaringBitmap partners) {
+        Map<String, Integer> countsByTagId = tagIndex.countWithin(partners);
+        if (countsByTagId.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        Map<String, Long> countsByName = new HashMap<>();
+        em.createQuery("SELECT t.id, t.tagName FROM Tag t WHERE t.id IN :tagIds", Object[].class)
+            .setParameter("tagIds", countsByTagId.keySet())
+            .getResultList()
+            .forEach(row -> countsByName.put((String) row[1], countsByTagId.get((String) row[0]).longValue()));
+        return byDescendingCount(countsByName);
+    }
+
+    /**
+     * Picks the preferred address of every partner like the search result address line does
+     * (primary, then billing, then shipping, then any) and counts its country.
+     */
+    private Map<String, Long> countCountries(RoaringBitmap partners) {
+        // IN lists of at most MAX_IN_LIST_SIZE partners use idx_address_detail_partner, however many partners matched
+        Map<Long, Integer> bestPreference = new HashMap<>();
+        Map<Long, String> countryByPartner = new HashMap<>();
+        List<Long> chunk = new ArrayList<>(Math.min(partners.getCardinality(), PartnerService.MAX_IN_LIST_SIZE));
+        for (int ordinal : partners) {
+            chunk.add((long) ordinal);
+            if (chunk.size() == PartnerService.MAX_IN_LIST_SIZE) {
+                readPreferredCountries(chunk, bestPreference, countryByPartner);
+                chunk = new ArrayList<>(PartnerService.MAX_IN_LIST_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            readPreferredCountries(chunk, bestPreference, countryByPartner);
+        }
+
+        Map<String, Long> countries = new HashMap<>();
+        countryByPartner.values().forEach(country -> {
+            if (country != null) {
+                countries.merge(country, 1L, Long::sum);
+            }
+        });
+        return byDescendingCount(countries);
+    }
+
+    /**
+     * Reads the address details of the partners and keeps the country of the preferred address of each.
+     */
+    private void readPreferredCountries(List<Long> partnerSeqs, Map<Long, Integer> bestPreference,
+            Map<Long, String> countryByPartner) {
+        List<Object[]> rows = em.createQuery(
+            "SELECT ad.partner.partnerNumberSeq, ad.isPrimary, ad.addressType, a.countryCode " +
+            "FROM AddressDetail ad JOIN ad.address a WHERE ad.partner.partnerNumberSeq IN :partnerSeqs",
+            Object[].class)
+            .setParameter("partnerSeqs", partnerSeqs)
+            .getResultList();
+        for (Object[] row : rows) {
+            Long seq = (Long) row[0];
+            int preference = preference((Boolean) row[1], (String) row[2]);
+            Integer best = bestPreference.get(seq);
+            if (best == null || preference < best) {
+                bestPreference.put(seq, preference);
+                countryByPartner.put(seq, (String) row[3]);
+            }
+        }
+    }
+
+    private static int preference(boolean primary, String addressType) {
+        if (primary) {
+            return 0;
+        }
+        if ("BILLING".equals(addressType)) {
+            return 1;
+        }
+        return "SHIPPING".equals(addressType) ? 2 : 3;
+    }
+
+    private static Map<String, Long> byDescendingCount(Map<String, Long> counts) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+}
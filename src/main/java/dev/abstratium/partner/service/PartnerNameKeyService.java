@@ -0,0 +1,170 @@
+package dev.abstratium.partner.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jboss.logging.Logger;
+import org.roaringbitmap.RoaringBitmap;
+
+import dev.abstratium.partner.entity.LegalEntity;
+import dev.abstratium.partner.entity.NaturalPerson;
+import dev.abstratium.partner.entity.Partner;
+import dev.abstratium.partner.entity.PartnerNameKey;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+/**
+ * Maintains the phonetic name keys in T_partner_name_key and uses them for fuzzy name search.
+ *
+ * A fuzzy search never compares the search words with every partner. It first selects the
+ * name words sharing a phonetic code or the normalized form with a search word, using the
+ * indexes on T_partner_name_key, and only computes a bounded edit distance for those.
+ */
+@ApplicationScoped
+public class PartnerNameKeyService {
+
+    private static final Logger LOG = Logger.getLogger(PartnerNameKeyService.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    /**
+     * Maximum number of edits between a search word and a phonetically similar name word,
+     * relative to the length of the search word, so that "Mayer" finds "Meier" but "Li" does not find "Lee".
+     */
+    static int maxDistance(String word) {
+        if (word.length() <= 2) {
+            return 0;
+        }
+        return word.length() <= 4 ? 1 : 2;
+    }
+
+    @Inject
+    EntityManager em;
+
+    /**
+     * Replaces the name keys of a partner. Must be called whenever a partner name changes.
+     */
+    @Transactional
+    public void refresh(Partner partner) {
+        em.createQuery("DELETE FROM PartnerNameKey k WHERE k.partner.id = :partnerId")
+            .setParameter("partnerId", partner.getId())
+            .executeUpdate();
+        persistKeys(partner);
+    }
+
+    private void persistKeys(Partner partner) {
+        if (partner instanceof NaturalPerson person) {
+            persistKeys(partner, "FIRST_NAME", person.getFirstName());
+            persistKeys(partner, "LAST_NAME", person.getLastName());
+        } else if (partner instanceof LegalEntity entity) {
+            persistKeys(partner, "LEGAL_NAME", entity.getLegalName());
+            persistKeys(partner, "TRADING_NAME", entity.getTradingName());
+        }
+    }
+
+    private void persistKeys(Partner partner, String nameField, String name) {
+        Set<String> seen = new HashSet<>();
+        for (String word : PartnerNameKeys.words(name)) {
+            if (seen.add(word)) {
+                PartnerNameKey key = new PartnerNameKey();
+                key.setPartner(partner);
+                key.setNameField(nameField);
+                key.setNormalized(word);
+                key.setCologne(PartnerNameKeys.cologne(word));
+                key.setMetaphone(PartnerNameKeys.metaphone(word));
+                em.persist(key);
+            }
+        }
+    }
+
+    /**
+     * Finds partners whose name contains, for every search word, a word that sounds alike
+     * and is within {@link #maxDistance(String)} edits of it.
+     *
+     * @param terms the search words as entered, e.g. "Mayer" or "Müler"
+     * @return the partner number sequences of matching partners
+     */
+    @Transactional
+    public RoaringBitmap findSimilar(List<String> terms) {
+        RoaringBitmap result = null;
+        for (String term : terms) {
+            for (String word : PartnerNameKeys.words(term)) {
+                RoaringBitmap matches = findSimilarWord(word);
+                result = result == null ? matches : RoaringBitmap.and(result, matches);
+                if (result.isEmpty()) {
+                    return result;
+                }
+            }
+        }
+        return result == null ? new RoaringBitmap() : result;
+    }
+
+    private RoaringBitmap findSimilarWord(String word) {
+        String cologne = PartnerNameKeys.cologne(word);
+        String metaphone = PartnerNameKeys.metaphone(word);
+        List<Object[]> candidates = em.createQuery(
+                "SELECT k.partner.partnerNumberSeq, k.normalized FROM PartnerNameKey k " +
+                "WHERE k.normalized = :word OR k.cologne = :cologne OR k.metaphone = :metaphone",
+                Object[].class)
+            .setParameter("word", word)
+            .setParameter("cologne", cologne != null ? cologne : word)
+            .setParameter("metaphone", metaphone != null ? metaphone : word)
+            .getResultList();
+
+        int max = maxDistance(word);
+        RoaringBitmap matches = new RoaringBitmap();
+        for (Object[] candidate : candidates) {
+            if (PartnerNameKeys.boundedDistance(word, (String) candidate[1], max) <= max) {
+                matches.add(TagBitmapIndex.toOrdinal((Long) candidate[0]));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Computes the name keys of partners that were created before they existed.
+     * Runs in small transactions, walking the partners by partner number.
+     */
+    void backfill(@Observes StartupEvent event) {
+        long after = 0;
+        int total = 0;
+        List<Long> processed;
+        do {
+            long from = after;
+            processed = QuarkusTransaction.requiringNew().call(() -> backfillBatch(from));
+            if (!processed.isEmpty()) {
+                after = processed.get(processed.size() - 1);
+                total += processed.size();
+            }
+        } while (processed.size() == BACKFILL_BATCH_SIZE);
+
+        if (total > 0) {
+            LOG.infof("Computed name keys for %d existing partners", total);
+        }
+    }
+
+    private List<Long> backfillBatch(long afterPartnerNumberSeq) {
+        List<Partner> batch = em.createQuery(
+                "SELECT p FROM Partner p " +
+                "WHERE p.partnerNumberSeq > :after " +
+                "AND NOT EXISTS (SELECT k.id FROM PartnerNameKey k WHERE k.partner = p) " +
+                "ORDER BY p.partnerNumberSeq",
+                Partner.class)
+            .setParameter("after", afterPartnerNumberSeq)
+            .setMaxResults(BACKFILL_BATCH_SIZE)
+            .getResultList();
+        List<Long> processed = new ArrayList<>(batch.size());
+        for (Partner partner : batch) {
+            persistKeys(partner);
+            processed.add(partner.getPartnerNumberSeq());
+        }
+        return processed;
+    }
+}
@@ -0,0 +1,117 @@
+package dev.abstratium.partner.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.codec.language.ColognePhonetic;
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+/**
+ * Computes the keys stored in T_partner_name_key and compares names with a bounded edit distance.
+ * <ul>
+ *   <li>normalized: lower-cased, with German umlauts expanded and other accents removed,
+ *       so "Müller" and "Mueller" both become "mueller" and "Zoë" becomes "zoe"</li>
+ *   <li>cologne: Cologne phonetics, e.g. "Meier", "Meyer" and "Maier" all become "67"</li>
+ *   <li>metaphone: the primary Double Metaphone code, e.g. "Smith" and "Smyth" both become "SM0"</li>
+ * </ul>
+ */
+public final class PartnerNameKeys {
+
+    private static final ColognePhonetic COLOGNE = new ColognePhonetic();
+    private static final DoubleMetaphone METAPHONE = new DoubleMetaphone();
+
+    static final int MAX_WORD_LENGTH = 100;
+
+    private PartnerNameKeys() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Splits a name into normalized words, dropping punctuation.
+     * @return the normalized words, empty if the name is null or contains no letters or digits
+     */
+    public static List<String> words(String name) {
+        List<String> words = new ArrayList<>();
+        if (name == null) {
+            return words;
+        }
+        for (String word : normalize(name).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word.length() > MAX_WORD_LENGTH ? word.substring(0, MAX_WORD_LENGTH) : word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Lower-cases the value, expands German umlauts and sharp s, and removes all other diacritics.
+     */
+    public static String normalize(String value) {
+        String lower = value.toLowerCase(Locale.ROOT)
+            .replace("ä", "ae")
+            .replace("ö", "oe")
+            .replace("ü", "ue")
+            .replace("ß", "ss");
+        return Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+    }
+
+    /**
+     * @return the Cologne phonetics code of a normalized word, or null if it has none (e.g. only digits)
+     */
+    public static String cologne(String word) {
+        String code = COLOGNE.colognePhonetic(word);
+        return code == null || code.isEmpty() ? null : code;
+    }
+
+    /**
+     * @return the primary Double Metaphone code of a normalized word, or null if it has none
+     */
+    public static String metaphone(String word) {
+        String code = METAPHONE.doubleMetaphone(word);
+        return code == null || code.isEmpty() ? null : code;
+    }
+
+    /**
+     * Levenshtein distance that gives up as soon as it is certain to exceed the bound,
+     * so comparing a name against a candidate costs O(max * length) instead of O(length²).
+     *
+     * @return the edit distance, or {@code max + 1} if it is larger than max
+     */
+    public static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            // only cells within max of the diagonal can lead to a distance <= max
+            int from = Math.max(1, i - max);
+            int to = Math.min(b.length(), i + max);
+            if (from > 1) {
+                current[from - 1] = max + 1;
+            }
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < b.length()) {
+                current[to + 1] = max + 1;
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+}
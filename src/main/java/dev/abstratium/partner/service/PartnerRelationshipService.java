@@ -2,9 +2,11 @@ package dev.abstratium.partner.service;
 
 import java.util.List;
 
+import dev.abstratium.partner.entity.ChangeLogEntry;
 import dev.abstratium.partner.entity.Partner;
 import dev.abstratium.partner.entity.PartnerRelationship;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
@@ -15,6 +17,9 @@ public class PartnerRelationshipService {
     @PersistenceContext
     EntityManager em;
 
+    @Inject
+    ChangeLogService changeLog;
+
     public List<PartnerRelationship> findByPartnerId(String partnerId) {
         return em.createQuery(
                 "SELECT pr FROM PartnerRelationship pr " +
@@ -40,6 +45,7 @@ public class PartnerRelationshipService {
     }
 
     @Transactional
+    @RecordedWrite
     public PartnerRelationship create(String fromPartnerId, String toPartnerId, PartnerRelationship relationship) {
         Partner fromPartner = em.find(Partner.class, fromPartnerId);
         if (fromPartner == null) {
@@ -54,14 +60,19 @@ public class PartnerRelationshipService {
         relationship.setFromPartner(fromPartner);
         relationship.setToPartner(toPartner);
         em.persist(relationship);
+        changeLog.record(ChangeLogEntry.EntityType.PARTNER_RELATIONSHIP, relationship.getId(), fromPartnerId,
+            ChangeLogEntry.Operation.CREATE);
         return relationship;
     }
 
     @Transactional
+    @RecordedWrite
     public void delete(String id) {
         PartnerRelationship relationship = em.find(PartnerRelationship.class, id);
         if (relationship != null) {
             em.remove(relationship);
+            changeLog.record(ChangeLogEntry.EntityType.PARTNER_RELATIONSHIP, id,
+                relationship.getFromPartner().getId(), ChangeLogEntry.Operation.DELETE);
         }
     }
 }
@@ -0,0 +1,20 @@
+package dev.abstratium.partner.service;
+
+import java.util.List;
+
+import dev.abstratium.partner.dto.PartnerSearchFacets;
+import dev.abstratium.partner.dto.PartnerSearchResult;
+
+/**
+ * Result of a partner search together with how long its phases took, for Server-Timing headers and metrics.
+ *
+ * @param results the ranked and enriched results
+ * @param facets facet counts, or null if they were not requested
+ * @param totalCount number of matching partners before ranking kept the best ones
+ * @param dbNanos time spent querying candidates and summaries, including facets
+ * @param rankNanos time spent ranking the matches
+ * @param enrichmentNanos time spent loading address lines, contact details and tags for the results
+ */
+public record PartnerSearchOutcome(List<PartnerSearchResult> results, PartnerSearchFacets facets, long totalCount,
+        long dbNanos, long rankNanos, long enrichmentNanos) {
+}
@@ -0,0 +1,292 @@
+package dev.abstratium.partner.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import dev.abstratium.partner.entity.PartnerDiscriminator;
+
+/**
+ * Parsed form of the partner search string.
+ *
+ * Supported syntax, clauses are separated by whitespace and combined with AND:
+ * <ul>
+ *   <li>{@code tag:vip} - partner has the tag with that name</li>
+ *   <li>{@code tag:vip,supplier} - partner has at least one of the tags</li>
+ *   <li>{@code -tag:blocked} - partner does not have the tag</li>
+ *   <li>{@code -tag:blocked,former} - partner has none of the tags</li>
+ *   <li>{@code email:john@acme.ch} or {@code email:@acme.ch} - partner has that email address, or an email in that domain</li>
+ *   <li>{@code phone:"044 123 45 67"} - partner has that phone, mobile or fax number, however it is formatted</li>
+ *   <li>{@code city:zurich} - partner uses an address in that city, ignoring case</li>
+ *   <li>{@code type:LE} / {@code type:NP} - legal entities or natural persons only</li>
+ *   <li>{@code active:false} - active or inactive partners only</li>
+ *   <li>{@code P00000077} - the partner with that number</li>
+ *   <li>{@code ~meyer} - a name word that sounds alike and is spelled similarly, e.g. Meier, Maier or Mayer</li>
+ *   <li>{@code "acme corp"} - a quoted phrase, matched as one piece of text</li>
+ *   <li>anything else is free text, matched against numbers, names and notes</li>
+ * </ul>
+ * Values may be quoted too, e.g. {@code city:"St. Gallen"}. Unknown keys are treated as free text.
+ */
+public final class PartnerSearchQuery {
+
+    private final List<String> textTerms = new ArrayList<>();
+    private final List<String> fuzzyTerms = new ArrayList<>();
+    private final List<List<String>> tagGroups = new ArrayList<>();
+    private final List<String> excludedTags = new ArrayList<>();
+    private final List<String> emails = new ArrayList<>();
+    private final List<String> phones = new ArrayList<>();
+    private final List<String> cities = new ArrayList<>();
+    private String partnerType;
+    private Boolean active;
+    private Long partnerNumberSeq;
+
+    private PartnerSearchQuery() {
+    }
+
+    /**
+     * Parses a search string. Never returns null; an empty or null string results in an empty query.
+     */
+    public static PartnerSearchQuery parse(String search) {
+        PartnerSearchQuery query = new PartnerSearchQuery();
+        if (search == null) {
+            return query;
+        }
+        for (String token : tokenize(search)) {
+            query.addToken(token);
+        }
+        return query;
+    }
+
+    /**
+     * Splits the search string at whitespace, keeping quoted sections (including {@code key:"a b"}) together.
+     * Quotes are removed from the returned tokens.
+     */
+    static List<String> tokenize(String search) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        boolean hasToken = false;
+        for (int i = 0; i < search.length(); i++) {
+            char c = search.charAt(i);
+            if (c == '"') {
+                inQuotes = !inQuotes;
+                hasToken = true;
+            } else if (Character.isWhitespace(c) && !inQuotes) {
+                if (hasToken) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                    hasToken = false;
+                }
+            } else {
+                current.append(c);
+                hasToken = true;
+            }
+        }
+        if (hasToken) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private void addToken(String token) {
+        int colon = token.indexOf(':');
+        if (colon > 0 && colon < token.length() - 1) {
+            String key = token.substring(0, colon).toLowerCase(Locale.ROOT);
+            String value = token.substring(colon + 1).trim();
+            if ("-tag".equals(key)) {
+                List<String> tags = splitTags(value);
+                if (!tags.isEmpty()) {
+                    excludedTags.addAll(tags);
+                    return;
+                }
+            }
+            if (addClause(key, value)) {
+                return;
+            }
+        }
+
+        if (token.length() > 1 && token.charAt(0) == '~') {
+            fuzzyTerms.add(token.substring(1).trim());
+            return;
+        }
+        Long seq = parsePartnerNumber(token);
+        if (seq != null) {
+            partnerNumberSeq = seq;
+        } else if (!token.trim().isEmpty()) {
+            textTerms.add(token.trim());
+        }
+    }
+
+    private static List<String> splitTags(String value) {
+        List<String> tags = new ArrayList<>();
+        for (String tag : value.split(",")) {
+            if (!tag.trim().isEmpty()) {
+                tags.add(tag.trim());
+            }
+        }
+        return tags;
+    }
+
+    private boolean addClause(String key, String value) {
+        switch (key) {
+            case "tag":
+                List<String> group = splitTags(value);
+                if (group.isEmpty()) {
+                    return false;
+                }
+                tagGroups.add(group);
+                return true;
+            case "email":
+                emails.add(value.toLowerCase(Locale.ROOT));
+                return true;
+            case "phone":
+                if (!ContactLookupKeys.looksLikePhoneNumber(value)) {
+                    return false;
+                }
+                phones.add(value);
+                return true;
+            case "city":
+                cities.add(value);
+                return true;
+            case "type":
+                String type = parsePartnerType(value);
+                if (type == null) {
+                    return false;
+                }
+                partnerType = type;
+                return true;
+            case "active":
+                if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+                    active = Boolean.parseBoolean(value.toLowerCase(Locale.ROOT));
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private static String parsePartnerType(String value) {
+        switch (value.toUpperCase(Locale.ROOT)) {
+            case "NP":
+            case PartnerDiscriminator.NATURAL_PERSON:
+                return PartnerDiscriminator.NATURAL_PERSON;
+            case "LE":
+            case PartnerDiscriminator.LEGAL_ENTITY:
+                return PartnerDiscriminator.LEGAL_ENTITY;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Parses a partner number like "P00000077" (case insensitive).
+     * @return the sequence value, or null if the token is not a partner number
+     */
+    static Long parsePartnerNumber(String token) {
+        if (token.length() < 2 || Character.toUpperCase(token.charAt(0)) != 'P') {
+            return null;
+        }
+        for (int i = 1; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                return null;
+            }
+        }
+        try {
+            return Long.parseLong(token.substring(1));
+        } catch (NumberFormatException e) {
+            // too many digits
+            return null;
+        }
+    }
+
+    /**
+     * @return a copy of this query without its free text terms, i.e. with only the clauses that filter partners
+     * by their attributes, tags, contact details, addresses or similar sounding names
+     */
+    public PartnerSearchQuery withoutText() {
+        PartnerSearchQuery copy = new PartnerSearchQuery();
+        copy.fuzzyTerms.addAll(fuzzyTerms);
+        copy.tagGroups.addAll(tagGroups);
+        copy.excludedTags.addAll(excludedTags);
+        copy.emails.addAll(emails);
+        copy.phones.addAll(phones);
+        copy.cities.addAll(cities);
+        copy.partnerType = partnerType;
+        copy.active = active;
+        copy.partnerNumberSeq = partnerNumberSeq;
+        return copy;
+    }
+
+    /**
+     * @return true if the query contains at least one clause that restricts the result to a
+     * reasonably small set of partners, i.e. something other than just type and active filters
+     */
+    public boolean isSelective() {
+        return partnerNumberSeq != null || !textTerms.isEmpty() || !fuzzyTerms.isEmpty() || !tagGroups.isEmpty()
+            || !emails.isEmpty() || !phones.isEmpty() || !cities.isEmpty();
+    }
+
+    /**
+     * @return true if the query contains tag or excluded tag clauses
+     */
+    public boolean hasTagClauses() {
+        return !tagGroups.isEmpty() || !excludedTags.isEmpty();
+    }
+
+    public List<String> getTextTerms() {
+        return Collections.unmodifiableList(textTerms);
+    }
+
+    /**
+     * @return name words to be matched phonetically, without the leading '~'
+     */
+    public List<String> getFuzzyTerms() {
+        return Collections.unmodifiableList(fuzzyTerms);
+    }
+
+    /**
+     * @return tag names grouped per tag clause; a partner must have at least one tag of every group
+     */
+    public List<List<String>> getTagGroups() {
+        return Collections.unmodifiableList(tagGroups);
+    }
+
+    /**
+     * @return tag names that partners must not have
+     */
+    public List<String> getExcludedTags() {
+        return Collections.unmodifiableList(excludedTags);
+    }
+
+    public List<String> getEmails() {
+        return Collections.unmodifiableList(emails);
+    }
+
+    /**
+     * @return phone numbers as entered; they are normalized when looked up
+     */
+    public List<String> getPhones() {
+        return Collections.unmodifiableList(phones);
+    }
+
+    public List<String> getCities() {
+        return Collections.unmodifiableList(cities);
+    }
+
+    /**
+     * @return {@link PartnerDiscriminator#NATURAL_PERSON}, {@link PartnerDiscriminator#LEGAL_ENTITY} or null for both
+     */
+    public String getPartnerType() {
+        return partnerType;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public Long getPartnerNumberSeq() {
+        return partnerNumberSeq;
+    }
+}
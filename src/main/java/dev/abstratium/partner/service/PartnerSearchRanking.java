@@ -0,0 +1,123 @@
+package dev.abstratium.partner.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+import dev.abstratium.partner.dto.PartnerSearchResult;
+
+/**
+ * Orders partner search results by relevance and keeps only the best k.
+ *
+ * Every free text term contributes the best of its matches over the fields of a result,
+ * weighted by field and by how well it matches:
+ * <ul>
+ *   <li>field: partner number and names 3, registration number 2, notes 1</li>
+ *   <li>match: the whole field or one of its words equals the term 4, starts with it 2, contains it 1</li>
+ * </ul>
+ * The sum over all terms is boosted by 20% for active partners, ties are broken by partner number.
+ *
+ * Results are ranked with a min-heap of size k, so ranking n results costs O(n log k)
+ * and everything after ranking, like enrichment, only sees k results.
+ */
+public final class PartnerSearchRanking {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int REGISTRATION_NUMBER_WEIGHT = 2;
+    private static final int NOTES_WEIGHT = 1;
+
+    private static final int EXACT = 4;
+    private static final int PREFIX = 2;
+    private static final int SUBSTRING = 1;
+
+    private static final double ACTIVE_BOOST = 1.2;
+
+    private record Scored(PartnerSearchResult result, double score) {
+    }
+
+    // best first: higher score, then lower partner number
+    private static final Comparator<Scored> BEST_FIRST = Comparator
+        .comparingDouble(Scored::score).reversed()
+        .thenComparing(scored -> scored.result().getPartnerNumberSeq());
+
+    private PartnerSearchRanking() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * @param results the unranked results
+     * @param textTerms the free text terms of the search
+     * @param k maximum number of results to return
+     * @return at most k results, most relevant first
+     */
+    public static List<PartnerSearchResult> topK(List<PartnerSearchResult> results, List<String> textTerms, int k) {
+        List<String> terms = textTerms.stream().map(term -> term.toLowerCase(Locale.ROOT)).toList();
+        // worst of the kept results at the head, so it can be replaced in O(log k)
+        PriorityQueue<Scored> heap = new PriorityQueue<>(Math.min(k, results.size()) + 1, BEST_FIRST.reversed());
+        for (PartnerSearchResult result : results) {
+            Scored scored = new Scored(result, score(result, terms));
+            if (heap.size() < k) {
+                heap.add(scored);
+            } else if (BEST_FIRST.compare(scored, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(scored);
+            }
+        }
+        List<Scored> best = new ArrayList<>(heap);
+        best.sort(BEST_FIRST);
+        return best.stream().map(Scored::result).toList();
+    }
+
+    /**
+     * @param terms lower-cased free text terms
+     */
+    static double score(PartnerSearchResult result, List<String> terms) {
+        double score = 0;
+        for (String term : terms) {
+            int best = 0;
+            best = Math.max(best, NAME_WEIGHT * match(result.getPartnerNumber(), term));
+            best = Math.max(best, NAME_WEIGHT * match(String.valueOf(result.getPartnerNumberSeq()), term));
+            best = Math.max(best, NAME_WEIGHT * match(result.getFirstName(), term));
+            best = Math.max(best, NAME_WEIGHT * match(result.getLastName(), term));
+            best = Math.max(best, NAME_WEIGHT * match(result.getLegalName(), term));
+            best = Math.max(best, NAME_WEIGHT * match(result.getTradingName(), term));
+            best = Math.max(best, REGISTRATION_NUMBER_WEIGHT * match(result.getRegistrationNumber(), term));
+            best = Math.max(best, NOTES_WEIGHT * match(result.getNotes(), term));
+            score += best;
+        }
+        // filter-only searches still put active partners first
+        return result.isActive() ? Math.max(score, 1) * ACTIVE_BOOST : score;
+    }
+
+    /**
+     * @param term lower-cased term
+     * @return EXACT, PREFIX, SUBSTRING or 0
+     */
+    static int match(String field, String term) {
+        if (field == null || term.isEmpty()) {
+            return 0;
+        }
+        String value = field.toLowerCase(Locale.ROOT);
+        int index = value.indexOf(term);
+        if (index < 0) {
+            return 0;
+        }
+        int best = SUBSTRING;
+        // check every occurrence, a later one may be a whole word
+        while (index >= 0) {
+            boolean wordStart = index == 0 || !Character.isLetterOrDigit(value.charAt(index - 1));
+            if (wordStart) {
+                int end = index + term.length();
+                boolean wordEnd = end == value.length() || !Character.isLetterOrDigit(value.charAt(end));
+                if (wordEnd) {
+                    return EXACT;
+                }
+                best = PREFIX;
+            }
+            index = value.indexOf(term, index + 1);
+        }
+        return best;
+    }
+}
@@ -1,36 +1,103 @@
 package dev.abstratium.partner.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.roaringbitmap.RoaringBitmap;
+
+import dev.abstratium.partner.dto.PartnerSearchFacets;
+import dev.abstratium.partner.dto.PartnerSearchPage;
+import dev.abstratium.partner.dto.PartnerSearchResponse;
 import dev.abstratium.partner.dto.PartnerSearchResult;
 import dev.abstratium.partner.entity.Address;
 import dev.abstratium.partner.entity.AddressDetail;
+import dev.abstratium.partner.entity.ChangeLogEntry;
 import dev.abstratium.partner.entity.ContactDetail;
-import dev.abstratium.partner.entity.LegalEntity;
-import dev.abstratium.partner.entity.NaturalPerson;
 import dev.abstratium.partner.entity.Partner;
 import dev.abstratium.partner.entity.PartnerDiscriminator;
+import dev.abstratium.partner.entity.PartnerTag;
 import dev.abstratium.partner.entity.Tag;
+import io.smallrye.common.annotation.Identifier;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
 
 @ApplicationScoped
 public class PartnerService {
 
+    private static final Logger LOG = Logger.getLogger(PartnerService.class);
+
+    /**
+     * Candidate sets up to this size are added to the search query as an IN list,
+     * larger ones are applied to the query results instead.
+     */
+    static final int MAX_IN_LIST_SIZE = 1000;
+
+    @ConfigProperty(name = "partner.search.max-results", defaultValue = "100")
+    int maxResults;
+
+    @ConfigProperty(name = "partner.search.text-backend", defaultValue = "like")
+    String textBackendName;
+
+    @ConfigProperty(name = "partner.search.fulltext.max-matches", defaultValue = "2000")
+    int fullTextMaxMatches;
+
     @Inject
     EntityManager em;
 
     @Inject
     PartnerExportService exportService;
 
+    @Inject
+    TagBitmapIndex tagIndex;
+
+    @Inject
+    ContactDetailService contactDetailService;
+
+    @Inject
+    PartnerNameKeyService nameKeyService;
+
+    @Inject
+    PartnerFacetService facetService;
+
+    @Inject
+    ChangeLogService changeLog;
+
+    @Inject
+    Event<PartnerChangedEvent> partnerChanged;
+
+    @Inject
+    Instance<PartnerTextSearch> textBackends;
+
+    // null if free text is always matched with LIKE
+    private PartnerTextSearch textBackend;
+
+    @PostConstruct
+    void init() {
+        if (!"like".equals(textBackendName)) {
+            Instance<PartnerTextSearch> selected = textBackends.select(Identifier.Literal.of(textBackendName));
+            if (!selected.isResolvable()) {
+                throw new IllegalStateException("Unknown partner.search.text-backend: " + textBackendName);
+            }
+            textBackend = selected.get();
+        }
+    }
+
     @Transactional
     public Partner findById(String id) {
-        Partner partner = em.createQuery(
-            "SELECT p FROM Partner p WHERE p.id = :id", 
-            Partner.class)
+        Partner partner = em.createNamedQuery(Partner.FIND_BY_ID, Partner.class)
             .setParameter("id", id)
             .getResultStream()
             .findFirst()
@@ -39,35 +106,52 @@ public class PartnerService {
     }
 
     @Transactional
+    @RecordedWrite
     public Partner create(Partner partner) {
         // Ensure partner is always active when first created
         partner.setActive(true);
         
-        // Get and increment next partner number from sequence table
-        // This works across MySQL, PostgreSQL, H2, and MS SQL
-        em.createNativeQuery("UPDATE T_partner_sequence SET next_val = next_val + 1 WHERE id = 1")
-            .executeUpdate();
-        
-        Long nextPartnerNumber = ((Number) em.createNativeQuery(
-            "SELECT next_val - 1 FROM T_partner_sequence WHERE id = 1")
-            .getSingleResult()).longValue();
-        
-        partner.setPartnerNumberSeq(nextPartnerNumber);
+        partner.setPartnerNumberSeq(allocatePartnerNumber());
         
         em.persist(partner);
         em.flush();
+        nameKeyService.refresh(partner);
         
-        // Export partners to file
-        exportService.exportPartnersToFile();
+        exportService.exportPartnerChange(partner);
         
+        changeLog.record(ChangeLogEntry.EntityType.PARTNER, partner.getId(), partner.getId(),
+            ChangeLogEntry.Operation.CREATE);
+        partnerChanged.fire(new PartnerChangedEvent(partner.getId(), partner.getPartnerNumberSeq(),
+            PartnerChangedEvent.Type.PARTNER_CREATED, null));
         return partner;
     }
 
+    /**
+     * Gets and increments the next partner number from the sequence table.
+     * This works across MySQL, PostgreSQL, H2, and MS SQL.
+     * The row stays locked until the transaction ends, which serializes concurrent creates.
+     */
+    private long allocatePartnerNumber() {
+        FlightRecorderEvents.PartnerNumberAllocation event = new FlightRecorderEvents.PartnerNumberAllocation();
+        event.begin();
+        em.createNativeQuery("UPDATE T_partner_sequence SET next_val = next_val + 1 WHERE id = 1")
+            .executeUpdate();
+        
+        long nextPartnerNumber = ((Number) em.createNativeQuery(
+            "SELECT next_val - 1 FROM T_partner_sequence WHERE id = 1")
+            .getSingleResult()).longValue();
+        event.end();
+        if (event.shouldCommit()) {
+            event.partnerNumberSeq = nextPartnerNumber;
+            event.commit();
+        }
+        return nextPartnerNumber;
+    }
+
     @Transactional
+    @RecordedWrite
     public Partner update(Partner partner) {
-        Partner existing = em.createQuery(
-            "SELECT p FROM Partner p WHERE p.id = :id", 
-            Partner.class)
+        Partner existing = em.createNamedQuery(Partner.FIND_BY_ID, Partner.class)
             .setParameter("id", partner.getId())
             .getResultStream()
             .findFirst()
@@ -80,41 +164,43 @@ public class PartnerService {
         }
         Partner updated = em.merge(partner);
         em.flush();
+        nameKeyService.refresh(updated);
+        
+        exportService.exportPartnerChange(updated);
         
-        // Export partners to file
-        exportService.exportPartnersToFile();
+        changeLog.record(ChangeLogEntry.EntityType.PARTNER, updated.getId(), updated.getId(),
+            ChangeLogEntry.Operation.UPDATE);
+        partnerChanged.fire(new PartnerChangedEvent(updated.getId(), updated.getPartnerNumberSeq(),
+            PartnerChangedEvent.Type.PARTNER_UPDATED, null));
         
         // Re-fetch to get the updated entity with partnerType loaded
         return findById(updated.getId());
     }
 
     @Transactional
+    @RecordedWrite
     public void delete(String id) {
         Partner partner = em.find(Partner.class, id);
         if (partner != null) {
             em.remove(partner);
             em.flush();
             
-            // Export partners to file
-            exportService.exportPartnersToFile();
+            exportService.exportPartnerDeletion(partner);
+            
+            // the details of the partner are deleted with it, without changes of their own
+            changeLog.record(ChangeLogEntry.EntityType.PARTNER, partner.getId(), partner.getId(),
+                ChangeLogEntry.Operation.DELETE);
+            partnerChanged.fire(new PartnerChangedEvent(partner.getId(), partner.getPartnerNumberSeq(),
+                PartnerChangedEvent.Type.PARTNER_DELETED, null));
         }
     }
 
     @Transactional
     public List<Partner> search(String searchTerm) {
+        FlightRecorderEvents.Search event = new FlightRecorderEvents.Search();
+        event.begin();
         String searchPattern = "%" + searchTerm.toLowerCase() + "%";
-        
-        // Check if searching for a partner number (e.g., P00000077)
-        Long partnerNumberSeq = null;
-        if (searchTerm.toUpperCase().startsWith("P")) {
-            try {
-                // Extract numeric part after 'P'
-                String numericPart = searchTerm.substring(1);
-                partnerNumberSeq = Long.parseLong(numericPart);
-            } catch (NumberFormatException e) {
-                // Not a valid partner number format, continue with text search
-            }
-        }
+        Long partnerNumberSeq = PartnerSearchQuery.parsePartnerNumber(searchTerm);
         
         // Search across partner fields and subclass fields (NaturalPerson and LegalEntity)
         String jpql = """
@@ -134,74 +220,608 @@ public class PartnerService {
             ORDER BY p.partnerNumberSeq
             """;
         
-        return em.createQuery(jpql, Partner.class)
+        List<Partner> partners = em.createQuery(jpql, Partner.class)
                 .setParameter("search", searchPattern)
                 .setParameter("partnerSeq", partnerNumberSeq)
                 .getResultList();
+        event.end();
+        if (event.shouldCommit()) {
+            event.searchTerm = searchTerm;
+            event.matches = partners.size();
+            event.results = partners.size();
+            event.commit();
+        }
+        return partners;
     }
     
+    /**
+     * Parses the search string with {@link PartnerSearchQuery} and returns the matching partners,
+     * see {@link #searchSummaries(PartnerSearchQuery)}.
+     */
     @Transactional
-    public List<PartnerSearchResult> searchWithAddressContactDetailsAndTags(String searchTerm) {
-        List<Partner> partners = search(searchTerm);
+    public List<PartnerSearchResult> searchSummaries(String searchTerm) {
+        return searchSummaries(PartnerSearchQuery.parse(searchTerm));
+    }
+    
+    /**
+     * Selects only the columns needed by {@link PartnerSearchResult} using JPQL constructor
+     * expressions. No Partner entities are hydrated or registered in the persistence context.
+     * 
+     * Each clause uses the cheapest access path available:
+     * <ul>
+     *   <li>partner number, type and active flag become predicates on T_partner, which use the
+     *       unique index on partner_number_seq and the equality indexes on partner_type and is_active</li>
+     *   <li>tag clauses are evaluated in memory by the {@link TagBitmapIndex}</li>
+     *   <li>fuzzy name terms use the phonetic keys of the {@link PartnerNameKeyService}</li>
+     *   <li>email and city clauses are resolved by joining T_contact_detail and T_address_detail</li>
+     *   <li>free text words are looked up in the full-text index of the configured {@link PartnerTextSearch};
+     *       words matching more than {@code partner.search.fulltext.max-matches} partners are left to LIKE,
+     *       as a cut-off candidate set would silently miss partners</li>
+     *   <li>the resulting candidate sets are intersected as bitmaps of partner number sequences,
+     *       and an empty intersection ends the search without running the text query</li>
+     *   <li>the remaining free text, i.e. all of it without a full-text backend, is matched with LIKE
+     *       last; small candidate sets are pushed into that query, large ones are applied to its results</li>
+     * </ul>
+     * 
+     * Natural persons and legal entities are queried separately, so that each constructor
+     * expression only references the attributes of its own subtype; the two sorted lists
+     * are then merged by partner number.
+     * 
+     * @return search results without address line, contact details and tags
+     */
+    @Transactional
+    public List<PartnerSearchResult> searchSummaries(PartnerSearchQuery query) {
+        List<String> fullTextTerms = new ArrayList<>();
+        List<String> likeTerms = new ArrayList<>();
+        for (String term : query.getTextTerms()) {
+            (textBackend != null && textBackend.supports(term) ? fullTextTerms : likeTerms).add(term);
+        }
+        
+        RoaringBitmap candidates = findCandidates(query, fullTextTerms, likeTerms);
+        if (candidates != null && candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        RoaringBitmap excluded = null;
+        if (!query.getExcludedTags().isEmpty()) {
+            excluded = tagIndex.union(findTagIds(query.getExcludedTags()));
+            if (candidates != null) {
+                candidates = RoaringBitmap.andNot(candidates, excluded);
+                excluded = null;
+                if (candidates.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+        }
+        
+        // Without text or partner number the candidates are the result, so they must go into the query
+        boolean candidatesOnly = likeTerms.isEmpty() && query.getPartnerNumberSeq() == null;
+        List<PartnerSearchResult> results;
+        if (candidates != null && (candidatesOnly || candidates.getCardinality() <= MAX_IN_LIST_SIZE)) {
+            results = querySummariesInChunks(query, likeTerms, candidates);
+            candidates = null;
+        } else {
+            results = querySummaries(query, likeTerms, null);
+        }
+        if (candidates != null || excluded != null) {
+            RoaringBitmap include = candidates;
+            RoaringBitmap exclude = excluded;
+            results.removeIf(r -> {
+                int ordinal = TagBitmapIndex.toOrdinal(r.getPartnerNumberSeq());
+                return (include != null && !include.contains(ordinal)) || (exclude != null && exclude.contains(ordinal));
+            });
+        }
+        return results;
+    }
+    
+    /**
+     * Runs {@link #querySummaries(PartnerSearchQuery, List, List)} for at most {@link #MAX_IN_LIST_SIZE}
+     * candidates at a time, in partner number order, so that no IN list exceeds that size however many
+     * partners e.g. a tag has.
+     */
+    private List<PartnerSearchResult> querySummariesInChunks(PartnerSearchQuery query, List<String> textTerms,
+            RoaringBitmap candidates) {
+        List<PartnerSearchResult> results = new ArrayList<>();
+        List<Long> chunk = new ArrayList<>(Math.min(candidates.getCardinality(), MAX_IN_LIST_SIZE));
+        for (int ordinal : candidates) {
+            chunk.add((long) ordinal);
+            if (chunk.size() == MAX_IN_LIST_SIZE) {
+                results.addAll(querySummaries(query, textTerms, chunk));
+                chunk = new ArrayList<>(MAX_IN_LIST_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(querySummaries(query, textTerms, chunk));
+        }
+        return results;
+    }
+    
+    /**
+     * Runs the projection query for both partner subtypes and merges the results by partner number.
+     * 
+     * @param textTerms free text terms to match with LIKE
+     */
+    private List<PartnerSearchResult> querySummaries(PartnerSearchQuery query, List<String> textTerms,
+            List<Long> candidateSeqs) {
+        List<PartnerSearchResult> naturalPersons = List.of();
+        if (query.getPartnerType() == null || PartnerDiscriminator.NATURAL_PERSON.equals(query.getPartnerType())) {
+            naturalPersons = createSummaryQuery(query, textTerms, candidateSeqs,
+                "SELECT NEW dev.abstratium.partner.dto.PartnerSearchResult(" +
+                "p.id, p.partnerNumberSeq, p.isActive, p.notes, p.createdAt, p.updatedAt, " +
+                "p.firstName, p.lastName, p.dateOfBirth) " +
+                "FROM NaturalPerson p",
+                List.of("p.firstName", "p.lastName"))
+                .getResultList();
+        }
         
-        return partners.stream()
-                .map(this::mapToSearchResult)
-                .collect(Collectors.toList());
+        List<PartnerSearchResult> legalEntities = List.of();
+        if (query.getPartnerType() == null || PartnerDiscriminator.LEGAL_ENTITY.equals(query.getPartnerType())) {
+            legalEntities = createSummaryQuery(query, textTerms, candidateSeqs,
+                "SELECT NEW dev.abstratium.partner.dto.PartnerSearchResult(" +
+                "p.id, p.partnerNumberSeq, p.isActive, p.notes, p.createdAt, p.updatedAt, " +
+                "p.legalName, p.tradingName, p.jurisdiction, p.registrationNumber, p.incorporationDate) " +
+                "FROM LegalEntity p",
+                List.of("p.legalName", "p.tradingName", "p.registrationNumber"))
+                .getResultList();
+        }
+        
+        return mergeByPartnerNumber(naturalPersons, legalEntities);
+    }
+    
+    /**
+     * Builds the projection query for one partner subtype, adding the T_partner predicates,
+     * the candidate restriction and the free text terms.
+     * 
+     * @param textTerms free text terms, each of which must match one of the text attributes
+     * @param candidateSeqs partner number sequences the result is restricted to, or null
+     * @param textAttributes the subtype specific attributes that free text is matched against
+     */
+    private TypedQuery<PartnerSearchResult> createSummaryQuery(PartnerSearchQuery query, List<String> textTerms,
+            List<Long> candidateSeqs, String selectFrom, List<String> textAttributes) {
+        List<String> predicates = new ArrayList<>();
+        if (query.getPartnerNumberSeq() != null) {
+            predicates.add("p.partnerNumberSeq = :partnerSeq");
+        }
+        if (query.getActive() != null) {
+            predicates.add("p.isActive = :active");
+        }
+        if (candidateSeqs != null) {
+            predicates.add("p.partnerNumberSeq IN :candidateSeqs");
+        }
+        for (int i = 0; i < textTerms.size(); i++) {
+            String param = ":text" + i;
+            StringBuilder text = new StringBuilder("(CAST(p.partnerNumberSeq AS string) LIKE ").append(param)
+                .append(" OR LOWER(p.notes) LIKE ").append(param);
+            for (String attribute : textAttributes) {
+                text.append(" OR LOWER(").append(attribute).append(") LIKE ").append(param);
+            }
+            predicates.add(text.append(")").toString());
+        }
+        
+        String jpql = selectFrom
+            + (predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates))
+            + " ORDER BY p.partnerNumberSeq";
+        
+        TypedQuery<PartnerSearchResult> typedQuery = em.createQuery(jpql, PartnerSearchResult.class);
+        if (query.getPartnerNumberSeq() != null) {
+            typedQuery.setParameter("partnerSeq", query.getPartnerNumberSeq());
+        }
+        if (query.getActive() != null) {
+            typedQuery.setParameter("active", query.getActive());
+        }
+        if (candidateSeqs != null) {
+            typedQuery.setParameter("candidateSeqs", candidateSeqs);
+        }
+        for (int i = 0; i < textTerms.size(); i++) {
+            typedQuery.setParameter("text" + i, "%" + textTerms.get(i).toLowerCase() + "%");
+        }
+        return typedQuery;
+    }
+    
+    /**
+     * Resolves the tag, fuzzy name, email, phone and city clauses of the query and the full-text terms
+     * to partner number sequences, intersecting them and stopping as soon as the intersection is empty.
+     * Tags are evaluated first because the tag index needs no database access.
+     * 
+     * @param fullTextTerms free text terms to look up with the full-text backend
+     * @param likeTerms free text terms to match with LIKE; the full-text terms are added to them if they match
+     * more than {@code partner.search.fulltext.max-matches} partners
+     * @return the candidates, or null if the query has no such clauses and no full-text candidates
+     */
+    private RoaringBitmap findCandidates(PartnerSearchQuery query, List<String> fullTextTerms, List<String> likeTerms) {
+        RoaringBitmap candidates = null;
+        
+        if (!query.getTagGroups().isEmpty()) {
+            Map<String, String> tagIdsByName = findTagIdsByName(query.getTagGroups().stream().flatMap(List::stream).toList());
+            List<List<String>> tagIdGroups = new ArrayList<>();
+            for (List<String> group : query.getTagGroups()) {
+                List<String> ids = group.stream().map(tagIdsByName::get).filter(Objects::nonNull).toList();
+                if (ids.isEmpty()) {
+                    // none of the tags exist
+                    return new RoaringBitmap();
+                }
+                tagIdGroups.add(ids);
+            }
+            candidates = tagIndex.evaluate(tagIdGroups, List.of());
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+        }
+        for (String email : query.getEmails()) {
+            candidates = intersect(candidates, findPartnerSeqsByEmail(email));
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+        }
+        if (!query.getFuzzyTerms().isEmpty()) {
+            candidates = candidates == null
+                ? nameKeyService.findSimilar(query.getFuzzyTerms())
+                : RoaringBitmap.and(candidates, nameKeyService.findSimilar(query.getFuzzyTerms()));
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+        }
+        for (String phone : query.getPhones()) {
+            candidates = intersect(candidates, findPartnerSeqsByPhone(phone));
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+        }
+        for (String city : query.getCities()) {
+            candidates = intersect(candidates, findPartnerSeqsByCity(city));
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+        }
+        if (!fullTextTerms.isEmpty()) {
+            // one more than the maximum tells whether the matches were cut off
+            List<Long> matches = textBackend.findPartnerNumberSeqs(fullTextTerms, fullTextMaxMatches + 1);
+            if (matches.size() > fullTextMaxMatches) {
+                // cut off, they would miss partners the other clauses match, so the words are matched with LIKE instead
+                LOG.debugf("Full-text terms %s match more than %d partners, using LIKE", fullTextTerms, fullTextMaxMatches);
+                likeTerms.addAll(fullTextTerms);
+            } else {
+                candidates = intersect(candidates, matches);
+            }
+        }
+        return candidates;
+    }
+    
+    private RoaringBitmap intersect(RoaringBitmap candidates, List<Long> partnerNumberSeqs) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        partnerNumberSeqs.forEach(seq -> bitmap.add(TagBitmapIndex.toOrdinal(seq)));
+        return candidates == null ? bitmap : RoaringBitmap.and(candidates, bitmap);
     }
     
-    private PartnerSearchResult mapToSearchResult(Partner partner) {
-        PartnerSearchResult result = new PartnerSearchResult();
-        result.setId(partner.getId());
-        result.setPartnerNumber(partner.getPartnerNumber());
-        result.setActive(partner.isActive());
-        result.setNotes(partner.getNotes());
-        result.setCreatedAt(partner.getCreatedAt() != null ? partner.getCreatedAt().toString() : null);
-        result.setUpdatedAt(partner.getUpdatedAt() != null ? partner.getUpdatedAt().toString() : null);
-        
-        // Set type-specific fields
-        if (partner instanceof NaturalPerson) {
-            NaturalPerson np = (NaturalPerson) partner;
-            result.setPartnerType(PartnerDiscriminator.NATURAL_PERSON);
-            result.setFirstName(np.getFirstName());
-            result.setLastName(np.getLastName());
-            result.setDateOfBirth(np.getDateOfBirth() != null ? np.getDateOfBirth().toString() : null);
-        } else if (partner instanceof LegalEntity) {
-            LegalEntity le = (LegalEntity) partner;
-            result.setPartnerType(PartnerDiscriminator.LEGAL_ENTITY);
-            result.setLegalName(le.getLegalName());
-            result.setJurisdiction(le.getJurisdiction());
-            result.setRegistrationNumber(le.getRegistrationNumber());
-            result.setIncorporationDate(le.getIncorporationDate() != null ? le.getIncorporationDate().toString() : null);
-        }
-        
-        // Load and format preferred address using lazy loading
-        String addressLine = getPreferredAddressLine(partner.getId());
-        result.setAddressLine(addressLine);
-        
-        // Load and set contact details
-        setContactDetails(partner.getId(), result);
-        
-        // Load and set tags
-        List<Tag> tags = em.createQuery(
-            "SELECT pt.tag FROM PartnerTag pt WHERE pt.partner.id = :partnerId ORDER BY pt.tag.tagName",
-            Tag.class)
-            .setParameter("partnerId", partner.getId())
+    private Map<String, String> findTagIdsByName(List<String> tagNames) {
+        // uses the unique index on tag_name
+        Map<String, String> tagIdsByName = new HashMap<>();
+        em.createQuery("SELECT t.tagName, t.id FROM Tag t WHERE t.tagName IN :tagNames", Object[].class)
+            .setParameter("tagNames", tagNames)
+            .getResultList()
+            .forEach(row -> tagIdsByName.put((String) row[0], (String) row[1]));
+        return tagIdsByName;
+    }
+    
+    private List<String> findTagIds(List<String> tagNames) {
+        return new ArrayList<>(findTagIdsByName(tagNames).values());
+    }
+    
+    private List<Long> findPartnerSeqsByEmail(String email) {
+        if (email.startsWith("@")) {
+            // whole domain: equality on idx_contact_detail_lookup_domain
+            return em.createQuery(
+                "SELECT DISTINCT cd.partner.partnerNumberSeq FROM ContactDetail cd " +
+                "WHERE cd.lookupDomain = :domain",
+                Long.class)
+                .setParameter("domain", email.substring(1))
+                .getResultList();
+        }
+        // exact address: equality on idx_contact_detail_lookup_key
+        return em.createQuery(
+            "SELECT DISTINCT cd.partner.partnerNumberSeq FROM ContactDetail cd " +
+            "WHERE cd.lookupKey = :email AND cd.contactType = 'EMAIL'",
+            Long.class)
+            .setParameter("email", email)
             .getResultList();
-        result.setTags(tags);
+    }
+    
+    private List<Long> findPartnerSeqsByPhone(String phone) {
+        // equality on idx_contact_detail_lookup_key, so the number matches however it was formatted
+        return em.createQuery(
+            "SELECT DISTINCT cd.partner.partnerNumberSeq FROM ContactDetail cd " +
+            "WHERE cd.lookupKey = :phone AND cd.contactType IN ('PHONE', 'MOBILE', 'FAX')",
+            Long.class)
+            .setParameter("phone", contactDetailService.phoneLookupKey(phone))
+            .getResultList();
+    }
+    
+    private List<Long> findPartnerSeqsByCity(String city) {
+        // case-insensitive on every database, so idx_address_city is scanned rather than searched;
+        // idx_address_detail_address joins the matching addresses
+        return em.createQuery(
+            "SELECT DISTINCT ad.partner.partnerNumberSeq FROM AddressDetail ad WHERE LOWER(ad.address.city) = :city",
+            Long.class)
+            .setParameter("city", city.toLowerCase(Locale.ROOT))
+            .getResultList();
+    }
+    
+    /**
+     * Searches like {@link #searchSummaries(PartnerSearchQuery)}, ranks the results by relevance
+     * with {@link PartnerSearchRanking} and enriches only the best {@code partner.search.max-results}.
+     */
+    @Transactional
+    public List<PartnerSearchResult> searchWithAddressContactDetailsAndTags(String searchTerm) {
+        return searchWithTimings(searchTerm, false).results();
+    }
+    
+    /**
+     * Like {@link #searchWithAddressContactDetailsAndTags(String)}, and also counts all matches
+     * per type, active flag, tag and country, see {@link PartnerFacetService}. The matches are
+     * only searched once for both.
+     */
+    @Transactional
+    public PartnerSearchResponse searchWithFacets(String searchTerm) {
+        PartnerSearchOutcome outcome = searchWithTimings(searchTerm, true);
+        return new PartnerSearchResponse(outcome.results(), outcome.facets());
+    }
+    
+    /**
+     * The enriched search, also returning the total number of matches and the time taken by each phase.
+     * 
+     * @param withFacets whether to compute facet counts
+     */
+    @Transactional
+    public PartnerSearchOutcome searchWithTimings(String searchTerm, boolean withFacets) {
+        FlightRecorderEvents.Search event = new FlightRecorderEvents.Search();
+        event.begin();
+        long start = System.nanoTime();
+        PartnerSearchQuery query = PartnerSearchQuery.parse(searchTerm);
+        List<PartnerSearchResult> matches = searchSummaries(query);
+        PartnerSearchFacets facets = withFacets ? facetService.computeFacets(matches) : null;
+        long searched = System.nanoTime();
         
-        return result;
+        List<PartnerSearchResult> results = PartnerSearchRanking.topK(matches, query.getTextTerms(), maxResults);
+        long ranked = System.nanoTime();
+        event.end();
+        if (event.shouldCommit()) {
+            event.searchTerm = searchTerm;
+            event.matches = matches.size();
+            event.results = results.size();
+            event.withFacets = withFacets;
+            event.commit();
+        }
+        
+        enrich(results);
+        long enriched = System.nanoTime();
+        
+        return new PartnerSearchOutcome(results, facets, matches.size(),
+            searched - start, ranked - searched, enriched - ranked);
     }
     
-    private String getPreferredAddressLine(String partnerId) {
-        // Load address details with addresses using lazy loading
-        List<AddressDetail> addressDetails = em.createQuery(
-            "SELECT ad FROM AddressDetail ad " +
-            "JOIN FETCH ad.address a " +
-            "WHERE ad.partner.id = :partnerId",
-            AddressDetail.class)
-            .setParameter("partnerId", partnerId)
+    /**
+     * Finds the partners using an address that matches the search, or using the given address.
+     * 
+     * Every word of the search must occur in one of the address fields. Matching addresses are
+     * joined to their partners through T_address_detail in one set-based query per step:
+     * counting the partners, selecting one page of partner numbers, fetching the matched address
+     * of each partner on that page, and finally projecting and enriching only that page.
+     * 
+     * @param searchTerm words matched against street, city, state, postal code and country code, or null
+     * @param addressId id of an address whose partners are returned, or null
+     * @param page zero based page index
+     * @param size page size
+     * @return enriched results ordered by partner number, with the matched address set
+     */
+    @Transactional
+    public PartnerSearchPage searchByAddress(String searchTerm, String addressId, int page, int size) {
+        List<String> terms = searchTerm == null ? List.of() : PartnerSearchQuery.tokenize(searchTerm);
+        if (terms.isEmpty() && addressId == null) {
+            throw new IllegalArgumentException("Address search requires a search term or an address id");
+        }
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Page must not be negative and size must be positive");
+        }
+        
+        String where = addressPredicates(terms, addressId);
+        long totalCount = setAddressParameters(em.createQuery(
+            "SELECT COUNT(DISTINCT ad.partner.partnerNumberSeq) FROM AddressDetail ad JOIN ad.address a WHERE " + where,
+            Long.class), terms, addressId)
+            .getSingleResult();
+        if (totalCount == 0 || (long) page * size >= totalCount) {
+            return new PartnerSearchPage(new ArrayList<>(), totalCount, page, size);
+        }
+        
+        List<Long> pageSeqs = setAddressParameters(em.createQuery(
+            "SELECT ad.partner.partnerNumberSeq FROM AddressDetail ad JOIN ad.address a WHERE " + where +
+            " GROUP BY ad.partner.partnerNumberSeq ORDER BY ad.partner.partnerNumberSeq",
+            Long.class), terms, addressId)
+            .setFirstResult(page * size)
+            .setMaxResults(size)
             .getResultList();
         
+        // A partner may use several matching addresses: prefer its primary one
+        Map<Long, Address> matchedAddresses = new HashMap<>();
+        setAddressParameters(em.createQuery(
+            "SELECT ad.partner.partnerNumberSeq, a FROM AddressDetail ad JOIN ad.address a WHERE " + where +
+            " AND ad.partner.partnerNumberSeq IN :pageSeqs ORDER BY ad.isPrimary DESC, a.city, a.streetLine1",
+            Object[].class), terms, addressId)
+            .setParameter("pageSeqs", pageSeqs)
+            .getResultList()
+            .forEach(row -> matchedAddresses.putIfAbsent((Long) row[0], (Address) row[1]));
+        
+        List<PartnerSearchResult> results = querySummaries(PartnerSearchQuery.parse(null), List.of(), pageSeqs);
+        enrich(results);
+        for (PartnerSearchResult result : results) {
+            Address matched = matchedAddresses.get(result.getPartnerNumberSeq());
+            if (matched != null) {
+                result.setMatchedAddressId(matched.getId());
+                result.setMatchedAddressLine(formatAddressLine(matched));
+            }
+        }
+        return new PartnerSearchPage(results, totalCount, page, size);
+    }
+    
+    /**
+     * Finds the partners using an address that matches every word of the search, like
+     * {@link #searchByAddress(String, String, int, int)}, but without counting, paging and enrichment.
+     *
+     * @param filters clauses the partners must match as well, see {@link #findSummaries(List, PartnerSearchQuery)}
+     * @param limit maximum number of matching address assignments read
+     * @return summaries ordered by partner number, with the matched address set, the primary one preferred
+     */
+    @Transactional
+    public List<PartnerSearchResult> searchSummariesByAddress(String searchTerm, PartnerSearchQuery filters, int limit) {
+        List<String> terms = searchTerm == null ? List.of() : PartnerSearchQuery.tokenize(searchTerm);
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Address> matchedAddresses = new HashMap<>();
+        setAddressParameters(em.createQuery(
+            "SELECT ad.partner.partnerNumberSeq, a FROM AddressDetail ad JOIN ad.address a WHERE " +
+            addressPredicates(terms, null) + " ORDER BY ad.partner.partnerNumberSeq, ad.isPrimary DESC",
+            Object[].class), terms, null)
+            .setMaxResults(limit)
+            .getResultList()
+            .forEach(row -> matchedAddresses.putIfAbsent((Long) row[0], (Address) row[1]));
+        if (matchedAddresses.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<PartnerSearchResult> results = findSummaries(new ArrayList<>(matchedAddresses.keySet()), filters);
+        for (PartnerSearchResult result : results) {
+            Address matched = matchedAddresses.get(result.getPartnerNumberSeq());
+            result.setMatchedAddressId(matched.getId());
+            result.setMatchedAddressLine(formatAddressLine(matched));
+        }
+        return results;
+    }
+
+    /**
+     * Projects the partners with the given partner number sequences that also match the filters, without enrichment.
+     * Used for partners found by other sources than {@link #searchSummaries(PartnerSearchQuery)}, so that they
+     * are subject to the same type, active, partner number, tag, email, phone, city and fuzzy name clauses.
+     *
+     * @param filters a query without free text terms, see {@link PartnerSearchQuery#withoutText()}
+     * @return summaries ordered by partner number
+     */
+    @Transactional
+    public List<PartnerSearchResult> findSummaries(List<Long> partnerNumberSeqs, PartnerSearchQuery filters) {
+        if (partnerNumberSeqs.isEmpty()) {
+            return new ArrayList<>();
+        }
+        RoaringBitmap within = new RoaringBitmap();
+        partnerNumberSeqs.forEach(seq -> within.add(TagBitmapIndex.toOrdinal(seq)));
+        RoaringBitmap candidates = findCandidates(filters, List.of(), new ArrayList<>());
+        if (candidates != null) {
+            within.and(candidates);
+        }
+        if (!filters.getExcludedTags().isEmpty()) {
+            within.andNot(tagIndex.union(findTagIds(filters.getExcludedTags())));
+        }
+        if (within.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // type, active and partner number become predicates of the query
+        return querySummariesInChunks(filters, List.of(), within);
+    }
+
+    /**
+     * Adds the preferred address line, preferred contact details and tags to each of the results.
+     */
+    @Transactional
+    public void enrich(List<PartnerSearchResult> results) {
+        FlightRecorderEvents.Enrichment event = new FlightRecorderEvents.Enrichment();
+        event.begin();
+        // the results are usually limited to partner.search.max-results, so this is one chunk
+        for (int from = 0; from < results.size(); from += MAX_IN_LIST_SIZE) {
+            enrichSearchResults(results.subList(from, Math.min(results.size(), from + MAX_IN_LIST_SIZE)));
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.results = results.size();
+            event.commit();
+        }
+    }
+
+    private String addressPredicates(List<String> terms, String addressId) {
+        List<String> predicates = new ArrayList<>();
+        if (addressId != null) {
+            predicates.add("a.id = :addressId");
+        }
+        for (int i = 0; i < terms.size(); i++) {
+            String param = ":term" + i;
+            predicates.add("(LOWER(a.streetLine1) LIKE " + param +
+                " OR LOWER(a.streetLine2) LIKE " + param +
+                " OR LOWER(a.city) LIKE " + param +
+                " OR LOWER(a.stateProvince) LIKE " + param +
+                " OR LOWER(a.postalCode) LIKE " + param +
+                " OR LOWER(a.countryCode) LIKE " + param + ")");
+        }
+        return String.join(" AND ", predicates);
+    }
+    
+    private <T> TypedQuery<T> setAddressParameters(TypedQuery<T> query, List<String> terms, String addressId) {
+        if (addressId != null) {
+            query.setParameter("addressId", addressId);
+        }
+        for (int i = 0; i < terms.size(); i++) {
+            query.setParameter("term" + i, "%" + terms.get(i).toLowerCase() + "%");
+        }
+        return query;
+    }
+    
+    private List<PartnerSearchResult> mergeByPartnerNumber(List<PartnerSearchResult> a, List<PartnerSearchResult> b) {
+        List<PartnerSearchResult> merged = new ArrayList<>(a.size() + b.size());
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            if (a.get(i).getPartnerNumberSeq() <= b.get(j).getPartnerNumberSeq()) {
+                merged.add(a.get(i++));
+            } else {
+                merged.add(b.get(j++));
+            }
+        }
+        merged.addAll(a.subList(i, a.size()));
+        merged.addAll(b.subList(j, b.size()));
+        return merged;
+    }
+    
+    /**
+     * Adds the preferred address line, preferred contact details and tags to the search results,
+     * loading the address details, contact details and tags of all of them with one query each.
+     */
+    private void enrichSearchResults(List<PartnerSearchResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        List<String> partnerIds = results.stream().map(PartnerSearchResult::getId).toList();
+        Map<String, List<AddressDetail>> addressDetails = groupByPartner(
+            AddressDetail.FIND_BY_PARTNERS_WITH_ADDRESS, partnerIds, AddressDetail.class);
+        Map<String, List<ContactDetail>> contacts = groupByPartner(
+            ContactDetail.FIND_BY_PARTNERS, partnerIds, ContactDetail.class);
+        Map<String, List<Tag>> tags = groupByPartner(PartnerTag.FIND_TAGS_BY_PARTNERS, partnerIds, Tag.class);
+
+        for (PartnerSearchResult result : results) {
+            result.setAddressLine(getPreferredAddressLine(addressDetails.getOrDefault(result.getId(), List.of())));
+            setContactDetails(contacts.getOrDefault(result.getId(), List.of()), result);
+            result.setTags(tags.getOrDefault(result.getId(), new ArrayList<>()));
+        }
+    }
+    
+    /**
+     * Runs a named query selecting a partner ID and an entity per row, keeping the order of the rows per partner.
+     */
+    private <T> Map<String, List<T>> groupByPartner(String queryName, List<String> partnerIds, Class<T> type) {
+        Map<String, List<T>> byPartner = new HashMap<>();
+        em.createNamedQuery(queryName, Object[].class)
+            .setParameter("partnerIds", partnerIds)
+            .getResultList()
+            .forEach(row -> byPartner.computeIfAbsent((String) row[0], id -> new ArrayList<>()).add(type.cast(row[1])));
+        return byPartner;
+    }
+    
+    private String getPreferredAddressLine(List<AddressDetail> addressDetails) {
         if (addressDetails.isEmpty()) {
             return null;
         }
@@ -221,7 +841,7 @@ public class PartnerService {
         return formatAddressLine(preferred.getAddress());
     }
     
-    private String formatAddressLine(Address address) {
+    static String formatAddressLine(Address address) {
         if (address == null) {
             return null;
         }
@@ -244,14 +864,7 @@ public class PartnerService {
         return parts.isEmpty() ? null : String.join(", ", parts);
     }
     
-    private void setContactDetails(String partnerId, PartnerSearchResult result) {
-        // Load all contact details for this partner
-        List<ContactDetail> contacts = em.createQuery(
-            "SELECT cd FROM ContactDetail cd WHERE cd.partner.id = :partnerId",
-            ContactDetail.class)
-            .setParameter("partnerId", partnerId)
-            .getResultList();
-        
+    private void setContactDetails(List<ContactDetail> contacts, PartnerSearchResult result) {
         if (contacts.isEmpty()) {
             return;
         }
@@ -268,7 +881,7 @@ public class PartnerService {
         result.setWebsite(selectPreferredContact(contacts, "WEBSITE"));
     }
     
-    private String selectPreferredContact(List<ContactDetail> contacts, String contactType) {
+    static String selectPreferredContact(List<ContactDetail> contacts, String contactType) {
         List<ContactDetail> ofType = contacts.stream()
             .filter(cd -> contactType.equals(cd.getContactType()))
             .collect(Collectors.toList());
@@ -291,7 +904,7 @@ public class PartnerService {
         return selected != null ? selected.getContactValue() : null;
     }
     
-    private int compareContactValues(ContactDetail a, ContactDetail b) {
+    private static int compareContactValues(ContactDetail a, ContactDetail b) {
         String valA = a.getContactValue() != null ? a.getContactValue() : "";
         String valB = b.getContactValue() != null ? b.getContactValue() : "";
         return valA.compareToIgnoreCase(valB);
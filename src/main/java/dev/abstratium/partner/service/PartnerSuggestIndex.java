@@ -0,0 +1,577 @@
+package dev.abstratium.partner.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.roaringbitmap.RoaringBitmap;
+
+import dev.abstratium.partner.dto.PartnerSuggestion;
+import dev.abstratium.partner.entity.Partner;
+import dev.abstratium.partner.entity.PartnerDiscriminator;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Type-ahead index over partner names and numbers.
+ *
+ * Every partner contributes one key per name word, one for its whole name and one for its
+ * partner number, all normalized with {@link PartnerNameKeys#normalize(String)}. The keys
+ * are kept sorted, so a prefix lookup is a binary search for the first key not smaller than
+ * the prefix followed by a short forward scan, without any database access.
+ *
+ * The bulk of the keys lives in a memory-mapped {@link PartnerSuggestSegment} file, written
+ * next to the partner export, so that a restart reopens it without reading the partners or
+ * parsing the file. Partners changed since the segment was written are kept in a small sorted
+ * overlay array, and their segment keys are masked by a bitmap; lookups merge both.
+ *
+ * At startup the segment is reopened and caught up with the partners whose updated_at is
+ * newer than the segment's high-water mark, and with deleted partners. The readiness check
+ * only reports the application as ready once that is done. Afterwards the overlay is updated
+ * from {@link PartnerChangedEvent}s after each successful commit, and caught up again once
+ * it is older than {@code partner.suggest.max-age}, to pick up changes made by other instances.
+ * Once more than {@code partner.suggest.segment.compact-threshold} partners have changed, the
+ * segment is rewritten. Loading, catching up and compacting run on a background thread, while
+ * lookups keep using the current snapshot; until the first load, lookups find nothing. Overlay
+ * and bitmap are replaced as a whole (copy on write), so readers never lock or wait.
+ */
+@ApplicationScoped
+public class PartnerSuggestIndex {
+
+    private static final Logger LOG = Logger.getLogger(PartnerSuggestIndex.class);
+
+    record Entry(String key, long partnerNumberSeq, PartnerSuggestion suggestion) {
+    }
+
+    static final Comparator<Entry> ORDER = Comparator
+        .comparing(Entry::key)
+        .thenComparingLong(Entry::partnerNumberSeq);
+
+    /**
+     * @param overlay keys of partners changed since the segment was written
+     * @param masked partners whose segment keys are outdated, because they changed or were deleted
+     * @param highWaterMark epoch millis of the newest updated_at seen
+     * @param caughtUpAt when changes were last loaded from the database
+     */
+    private record Snapshot(PartnerSuggestSegment segment, Entry[] overlay, RoaringBitmap masked,
+            long highWaterMark, long caughtUpAt) {
+    }
+
+    @Inject
+    EntityManager em;
+
+    @ConfigProperty(name = "partner.suggest.max-age", defaultValue = "PT15M")
+    Duration maxAge;
+
+    @ConfigProperty(name = "partner.suggest.segment.path")
+    String segmentPath;
+
+    @ConfigProperty(name = "partner.suggest.segment.overlap", defaultValue = "PT1M")
+    Duration overlap;
+
+    @ConfigProperty(name = "partner.suggest.segment.compact-threshold", defaultValue = "1000")
+    int compactThreshold;
+
+    private volatile Snapshot snapshot = null;
+
+    // set while the background thread loads, catches up or compacts
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    // partners changed by apply() while the background thread reads the database or writes the segment,
+    // whose entries in the current overlay are newer than what it read; null while it does not. Guarded by this.
+    private RoaringBitmap changedDuringRefresh = null;
+
+    // number of the latest read started by apply() per partner number, so that an earlier read never replaces
+    // the entries of a later one. Guarded by this.
+    private final Map<Long, Long> latestLoads = new HashMap<>();
+    private long lastLoad = 0;
+
+    void onStartup(@Observes StartupEvent event) {
+        // loading must not block startup; readiness reports when it is done
+        refreshInBackground();
+    }
+
+    /**
+     * @return true once the index has been loaded and caught up with the database
+     */
+    public boolean isReady() {
+        Snapshot current = snapshot;
+        // a reopened segment is published before it has caught up, see load()
+        return current != null && current.caughtUpAt() > 0;
+    }
+
+    /**
+     * Loads or catches up the index again in the background if it is not ready and that is not already running,
+     * e.g. because the load at startup failed. Called by the readiness check: an instance that is not ready gets
+     * no lookups, which would otherwise be what retries it.
+     */
+    public void retryIfNotReady() {
+        if (!isReady()) {
+            refreshInBackground();
+        }
+    }
+
+    /**
+     * @return epoch millis of the newest partner updated_at contained in the index, or null if it is not loaded yet
+     */
+    public Long getHighWaterMark() {
+        Snapshot current = snapshot;
+        return current == null ? null : current.highWaterMark();
+    }
+
+    /**
+     * @param prefix what the user typed so far, matched against the start of name words, whole names and partner numbers
+     * @param limit maximum number of suggestions
+     * @return suggestions ordered by the matched key, each partner at most once
+     */
+    public List<PartnerSuggestion> suggest(String prefix, int limit) {
+        String normalized = prefix == null ? "" : PartnerNameKeys.normalize(prefix.trim());
+        if (normalized.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        Snapshot current = snapshot;
+        if (current == null || System.currentTimeMillis() - current.caughtUpAt() >= maxAge.toMillis()) {
+            refreshInBackground();
+        }
+        if (current == null) {
+            return List.of();
+        }
+        PartnerSuggestSegment segment = current.segment();
+        Entry[] overlay = current.overlay();
+
+        int segmentIndex = segment.lowerBound(normalized);
+        int overlayIndex = lowerBound(overlay, normalized);
+        Set<Long> seen = new HashSet<>();
+        List<PartnerSuggestion> suggestions = new ArrayList<>(limit);
+        while (suggestions.size() < limit) {
+            // next segment key that is not masked
+            String segmentKey = null;
+            while (segmentIndex < segment.size()) {
+                String key = segment.key(segmentIndex);
+                if (!key.startsWith(normalized)) {
+                    segmentIndex = segment.size();
+                } else if (current.masked().contains(TagBitmapIndex.toOrdinal(segment.partnerNumberSeq(segmentIndex)))) {
+                    segmentIndex++;
+                } else {
+                    segmentKey = key;
+                    break;
+                }
+            }
+            Entry overlayEntry = overlayIndex < overlay.length && overlay[overlayIndex].key().startsWith(normalized)
+                ? overlay[overlayIndex]
+                : null;
+            if (segmentKey == null && overlayEntry == null) {
+                break;
+            }
+
+            if (overlayEntry == null || (segmentKey != null && segmentKey.compareTo(overlayEntry.key()) <= 0)) {
+                if (seen.add(segment.partnerNumberSeq(segmentIndex))) {
+                    suggestions.add(segment.suggestion(segmentIndex));
+                }
+                segmentIndex++;
+            } else {
+                if (seen.add(overlayEntry.partnerNumberSeq())) {
+                    suggestions.add(overlayEntry.suggestion());
+                }
+                overlayIndex++;
+            }
+        }
+        return suggestions;
+    }
+
+    private static int lowerBound(Entry[] entries, String key) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries[mid].key().compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Loads the index, or catches it up and compacts it, on a background thread, unless that is already running.
+     * A failure is logged and leaves the current snapshot in use; the next lookup, or while the index is not
+     * ready the next readiness check, tries again.
+     */
+    private void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("partner-suggest-index").start(() -> {
+            try {
+                if (snapshot == null) {
+                    load();
+                } else {
+                    refresh();
+                }
+            } catch (RuntimeException e) {
+                LOG.error("Failed to load the partner suggest index", e);
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Reopens the segment file and catches up with the database, or rebuilds the index if there
+     * is no usable segment, e.g. because it was written for another database.
+     */
+    private void load() {
+        PartnerSuggestSegment segment = null;
+        if (Files.exists(Path.of(segmentPath))) {
+            try {
+                segment = PartnerSuggestSegment.open(Path.of(segmentPath));
+            } catch (IOException | IllegalStateException e) {
+                LOG.warnf("Ignoring unreadable partner suggest segment %s: %s", segmentPath, e.getMessage());
+            }
+        }
+        // the partner sequence never goes backwards, unless the segment belongs to another database
+        if (segment == null || readNextPartnerSeq() < segment.nextPartnerSeq()) {
+            rebuild();
+            return;
+        }
+        // published right away, so that changes committed during the catch-up are applied to it,
+        // but not ready until caughtUpAt is set
+        synchronized (this) {
+            snapshot = new Snapshot(segment, new Entry[0], new RoaringBitmap(), segment.highWaterMark(), 0);
+        }
+        refresh();
+    }
+
+    /**
+     * Loads all partner names from the database and replaces the index and its segment file.
+     * Changes committed meanwhile are not applied, but caught up with later, because the high-water
+     * mark is read first.
+     */
+    Snapshot rebuild() {
+        long start = System.currentTimeMillis();
+        // own transaction, so that uncommitted changes of a caller never end up in the index
+        Loaded loaded = QuarkusTransaction.requiringNew().call(() -> {
+            // read before the partners, so that changes made meanwhile are caught up later
+            long highWaterMark = loadHighWaterMark();
+            return new Loaded(loadEntries(null, null), highWaterMark, loadNextPartnerSeq(), null);
+        });
+        Entry[] sorted = loaded.entries().toArray(Entry[]::new);
+        Arrays.sort(sorted, ORDER);
+        PartnerSuggestSegment segment = writeSegment(Arrays.asList(sorted), loaded.highWaterMark(),
+            loaded.nextPartnerSeq());
+        Snapshot rebuilt = new Snapshot(segment, new Entry[0], new RoaringBitmap(), loaded.highWaterMark(),
+            System.currentTimeMillis());
+        synchronized (this) {
+            snapshot = rebuilt;
+        }
+        LOG.debugf("Built suggest index with %d keys in %d ms", sorted.length, System.currentTimeMillis() - start);
+        return rebuilt;
+    }
+
+    /**
+     * Loads the partners changed since the high-water mark into the overlay and masks deleted partners,
+     * then compacts the segment if too many partners have changed. The database is read and the segment
+     * written without holding the lock, so that changes are applied meanwhile; they are tracked in
+     * {@link #changedDuringRefresh} and win over what was read.
+     */
+    private void refresh() {
+        synchronized (this) {
+            changedDuringRefresh = new RoaringBitmap();
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Loaded loaded = readChanges(snapshot.highWaterMark());
+            Snapshot caughtUp;
+            synchronized (this) {
+                caughtUp = merge(snapshot, loaded, changedDuringRefresh);
+                snapshot = caughtUp;
+                changedDuringRefresh = new RoaringBitmap();
+            }
+            LOG.debugf("Caught up suggest index with %d changed partners in %d ms",
+                loaded.entries().stream().mapToLong(Entry::partnerNumberSeq).distinct().count(),
+                System.currentTimeMillis() - start);
+
+            if (caughtUp.masked().getCardinality() > compactThreshold) {
+                compact(caughtUp, loaded.nextPartnerSeq());
+            }
+        } finally {
+            synchronized (this) {
+                changedDuringRefresh = null;
+            }
+        }
+    }
+
+    /**
+     * @param changedMeanwhile partners whose entries in the current overlay are newer than the loaded ones
+     */
+    private static Snapshot merge(Snapshot current, Loaded loaded, RoaringBitmap changedMeanwhile) {
+        RoaringBitmap changed = new RoaringBitmap();
+        List<Entry> overlay = new ArrayList<>(loaded.entries().size() + current.overlay().length);
+        for (Entry entry : loaded.entries()) {
+            int ordinal = TagBitmapIndex.toOrdinal(entry.partnerNumberSeq());
+            if (!changedMeanwhile.contains(ordinal)) {
+                changed.add(ordinal);
+                overlay.add(entry);
+            }
+        }
+        RoaringBitmap masked = RoaringBitmap.or(current.masked(), changed);
+        masked.or(RoaringBitmap.andNot(current.segment().partners(), loaded.existing()));
+
+        for (Entry entry : current.overlay()) {
+            int ordinal = TagBitmapIndex.toOrdinal(entry.partnerNumberSeq());
+            if (changedMeanwhile.contains(ordinal) || (!changed.contains(ordinal) && loaded.existing().contains(ordinal))) {
+                overlay.add(entry);
+            }
+        }
+        Entry[] sorted = overlay.toArray(Entry[]::new);
+        Arrays.sort(sorted, ORDER);
+        return new Snapshot(current.segment(), sorted, masked, Math.max(current.highWaterMark(), loaded.highWaterMark()),
+            System.currentTimeMillis());
+    }
+
+    /**
+     * Rewrites the segment file from the given snapshot's segment and overlay, without database access.
+     * Partners changed since stay in the overlay and masked.
+     */
+    private void compact(Snapshot base, long nextPartnerSeq) {
+        PartnerSuggestSegment segment = base.segment();
+        List<Entry> entries = new ArrayList<>(segment.size() + base.overlay().length);
+        for (int i = 0; i < segment.size(); i++) {
+            long seq = segment.partnerNumberSeq(i);
+            if (!base.masked().contains(TagBitmapIndex.toOrdinal(seq))) {
+                entries.add(new Entry(segment.key(i), seq, segment.suggestion(i)));
+            }
+        }
+        entries.addAll(Arrays.asList(base.overlay()));
+        entries.sort(ORDER);
+        // the file is replaced atomically, so the current snapshot's mapping stays readable
+        PartnerSuggestSegment written = writeSegment(entries, base.highWaterMark(), nextPartnerSeq);
+
+        synchronized (this) {
+            Snapshot current = snapshot;
+            RoaringBitmap changedMeanwhile = changedDuringRefresh.clone();
+            Entry[] overlay = Arrays.stream(current.overlay())
+                .filter(entry -> changedMeanwhile.contains(TagBitmapIndex.toOrdinal(entry.partnerNumberSeq())))
+                .toArray(Entry[]::new);
+            snapshot = new Snapshot(written, overlay, changedMeanwhile, current.highWaterMark(), current.caughtUpAt());
+        }
+    }
+
+    private PartnerSuggestSegment writeSegment(List<Entry> entries, long highWaterMark, long nextPartnerSeq) {
+        try {
+            return PartnerSuggestSegment.write(Path.of(segmentPath), entries, highWaterMark, nextPartnerSeq);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write partner suggest segment " + segmentPath, e);
+        }
+    }
+
+    void onPartnerChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) PartnerChangedEvent event) {
+        switch (event.type()) {
+            case PARTNER_CREATED, PARTNER_UPDATED, PARTNER_DELETED -> apply(event);
+            default -> {
+                // names are unaffected
+            }
+        }
+    }
+
+    /**
+     * Reads the changed partner without holding the lock, as this runs on the committing writer's thread,
+     * and only swaps the snapshot under it. If reading fails, the partner's outdated keys are masked, so
+     * that it is not suggested under its old name until the next catch-up loads it.
+     */
+    private void apply(PartnerChangedEvent event) {
+        long seq = event.partnerNumberSeq();
+        long load;
+        synchronized (this) {
+            if (snapshot == null) {
+                // not loaded yet, catching up sees the change
+                return;
+            }
+            if (changedDuringRefresh != null) {
+                changedDuringRefresh.add(TagBitmapIndex.toOrdinal(seq));
+            }
+            load = ++lastLoad;
+            latestLoads.put(seq, load);
+        }
+
+        List<Entry> replacement;
+        if (event.type() == PartnerChangedEvent.Type.PARTNER_DELETED) {
+            replacement = List.of();
+        } else {
+            try {
+                replacement = readEntries(event.partnerId());
+            } catch (RuntimeException e) {
+                LOG.warnf(e, "Failed to read partner %s for the suggest index, masking it until the next catch-up",
+                    event.partnerId());
+                replacement = List.of();
+            }
+        }
+
+        synchronized (this) {
+            if (latestLoads.get(seq) != load) {
+                // a later change of the same partner read newer entries
+                return;
+            }
+            latestLoads.remove(seq);
+            Snapshot current = snapshot;
+            List<Entry> entries = new ArrayList<>(current.overlay().length + replacement.size());
+            for (Entry entry : current.overlay()) {
+                if (entry.partnerNumberSeq() != seq) {
+                    entries.add(entry);
+                }
+            }
+            entries.addAll(replacement);
+            Entry[] sorted = entries.toArray(Entry[]::new);
+            Arrays.sort(sorted, ORDER);
+            RoaringBitmap masked = current.masked().clone();
+            masked.add(TagBitmapIndex.toOrdinal(seq));
+            snapshot = new Snapshot(current.segment(), sorted, masked, current.highWaterMark(), current.caughtUpAt());
+            if (masked.getCardinality() > compactThreshold) {
+                refreshInBackground();
+            }
+        }
+    }
+
+    record Loaded(List<Entry> entries, long highWaterMark, long nextPartnerSeq, RoaringBitmap existing) {
+    }
+
+    /**
+     * @return the keys of the given partner, read in a transaction of their own
+     */
+    List<Entry> readEntries(String partnerId) {
+        return QuarkusTransaction.requiringNew().call(() -> loadEntries(partnerId, null));
+    }
+
+    /**
+     * @return the next partner number of the database
+     */
+    long readNextPartnerSeq() {
+        return QuarkusTransaction.requiringNew().call(this::loadNextPartnerSeq);
+    }
+
+    /**
+     * Reads the partners changed since shortly before the high-water mark, and the partner numbers of all partners.
+     * Starts a little before the high-water mark, because transactions may commit in a different
+     * order than they set updated_at.
+     */
+    Loaded readChanges(long highWaterMark) {
+        LocalDateTime since = toLocalDateTime(highWaterMark).minus(overlap);
+        // own transaction, so that uncommitted changes of a caller never end up in the index
+        return QuarkusTransaction.requiringNew().call(() -> new Loaded(loadEntries(null, since),
+            Math.max(highWaterMark, loadHighWaterMark()), loadNextPartnerSeq(), loadPartnerSeqs()));
+    }
+
+    private long loadHighWaterMark() {
+        LocalDateTime newest = em.createQuery("SELECT MAX(p.updatedAt) FROM Partner p", LocalDateTime.class)
+            .getSingleResult();
+        return newest == null ? 0 : newest.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private long loadNextPartnerSeq() {
+        return ((Number) em.createNativeQuery("SELECT next_val FROM T_partner_sequence WHERE id = 1")
+            .getSingleResult()).longValue();
+    }
+
+    private RoaringBitmap loadPartnerSeqs() {
+        // reads idx_partner_number_seq only
+        RoaringBitmap seqs = new RoaringBitmap();
+        em.createQuery("SELECT p.partnerNumberSeq FROM Partner p", Long.class)
+            .getResultStream()
+            .forEach(seq -> seqs.add(TagBitmapIndex.toOrdinal(seq)));
+        return seqs;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        // updated_at has no time zone; UTC is only used to encode it as a number
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    /**
+     * @param partnerId the partner to load, or null for all partners
+     * @param changedSince only load partners updated at or after this time, or null for all partners
+     */
+    private List<Entry> loadEntries(String partnerId, LocalDateTime changedSince) {
+        List<Entry> entries = new ArrayList<>();
+        String restriction = partnerId != null ? " WHERE p.id = :partnerId"
+            : changedSince != null ? " WHERE p.updatedAt >= :changedSince"
+            : "";
+
+        var naturalPersons = em.createQuery(
+            "SELECT p.id, p.partnerNumberSeq, p.isActive, p.firstName, p.lastName FROM NaturalPerson p" + restriction,
+            Object[].class);
+        var legalEntities = em.createQuery(
+            "SELECT p.id, p.partnerNumberSeq, p.isActive, p.legalName, p.tradingName FROM LegalEntity p" + restriction,
+            Object[].class);
+        if (partnerId != null) {
+            naturalPersons.setParameter("partnerId", partnerId);
+            legalEntities.setParameter("partnerId", partnerId);
+        } else if (changedSince != null) {
+            naturalPersons.setParameter("changedSince", changedSince);
+            legalEntities.setParameter("changedSince", changedSince);
+        }
+
+        for (Object[] row : naturalPersons.getResultList()) {
+            String name = join(" ", (String) row[3], (String) row[4]);
+            addEntries(entries, row, PartnerDiscriminator.NATURAL_PERSON, name, name);
+        }
+        for (Object[] row : legalEntities.getResultList()) {
+            String tradingName = (String) row[4];
+            String name = tradingName == null || tradingName.isBlank()
+                ? (String) row[3]
+                : join(" ", (String) row[3], "(" + tradingName + ")");
+            addEntries(entries, row, PartnerDiscriminator.LEGAL_ENTITY, name, join(" ", (String) row[3], tradingName));
+        }
+        return entries;
+    }
+
+    private static void addEntries(List<Entry> entries, Object[] row, String partnerType, String name, String searchableNames) {
+        long seq = (Long) row[1];
+        String partnerNumber = Partner.formatPartnerNumber(seq);
+        PartnerSuggestion suggestion = new PartnerSuggestion((String) row[0], partnerNumber, partnerType,
+            name, (Boolean) row[2]);
+
+        Set<String> keys = new LinkedHashSet<>(PartnerNameKeys.words(searchableNames));
+        if (name != null && !name.isBlank()) {
+            keys.add(PartnerNameKeys.normalize(name.trim()));
+        }
+        keys.add(partnerNumber.toLowerCase());
+        for (String key : keys) {
+            entries.add(new Entry(key, seq, suggestion));
+        }
+    }
+
+    private static String join(String separator, String... parts) {
+        StringBuilder joined = new StringBuilder();
+        for (String part : parts) {
+            if (part != null && !part.isBlank()) {
+                if (joined.length() > 0) {
+                    joined.append(separator);
+                }
+                joined.append(part.trim());
+            }
+        }
+        return joined.length() == 0 ? null : joined.toString();
+    }
+}
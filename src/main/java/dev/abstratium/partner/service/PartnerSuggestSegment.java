@@ -0,0 +1,230 @@
+package dev.abstratium.partner.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import dev.abstratium.partner.dto.PartnerSuggestion;
+import dev.abstratium.partner.entity.Partner;
+import dev.abstratium.partner.entity.PartnerDiscriminator;
+
+/**
+ * Read-only, memory-mapped file holding the sorted keys of the {@link PartnerSuggestIndex}.
+ *
+ * Opening a segment maps the file and reads its header only; keys and partners are decoded
+ * when a lookup touches them, so a large index is usable immediately after a restart.
+ *
+ * Layout, all numbers big-endian:
+ * <pre>
+ * header     magic, version, high-water mark (epoch millis of the newest updated_at),
+ *            next partner number at build time, partner count, entry count, creation time
+ * partners   per partner: partner number, flags (active, legal entity), id and name as string references
+ * entries    per key, sorted by key and partner number: key as string reference, partner index
+ * strings    UTF-8 bytes referenced by offset and length
+ * </pre>
+ */
+final class PartnerSuggestSegment {
+
+    private static final int MAGIC = 0x50534731; // "PSG1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 48;
+    private static final int PARTNER_SIZE = 28;
+    private static final int ENTRY_SIZE = 12;
+
+    private static final int FLAG_ACTIVE = 1;
+    private static final int FLAG_LEGAL_ENTITY = 2;
+
+    private final MappedByteBuffer buffer;
+    private final long highWaterMark;
+    private final long nextPartnerSeq;
+    private final int partnerCount;
+    private final int entryCount;
+    private final int partnersOffset;
+    private final int entriesOffset;
+    private final int stringsOffset;
+
+    private PartnerSuggestSegment(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a partner suggest segment of version " + VERSION);
+        }
+        this.highWaterMark = buffer.getLong(8);
+        this.nextPartnerSeq = buffer.getLong(16);
+        this.partnerCount = buffer.getInt(24);
+        this.entryCount = buffer.getInt(28);
+        this.partnersOffset = HEADER_SIZE;
+        this.entriesOffset = partnersOffset + partnerCount * PARTNER_SIZE;
+        this.stringsOffset = buffer.getInt(40);
+        if (entriesOffset + (long) entryCount * ENTRY_SIZE > stringsOffset || stringsOffset > buffer.capacity()) {
+            throw new IllegalStateException("Partner suggest segment is truncated");
+        }
+    }
+
+    /**
+     * Maps an existing segment file.
+     *
+     * @throws IllegalStateException if the file is not a segment of the current version
+     */
+    static PartnerSuggestSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed, and after the file is replaced
+            return new PartnerSuggestSegment(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes the entries to a new segment file, replacing an existing one atomically, and maps it.
+     *
+     * @param entries entries sorted by key and partner number
+     * @param highWaterMark epoch millis of the newest updated_at contained in the entries
+     * @param nextPartnerSeq the database's next partner number, to recognize a segment of another database
+     */
+    static PartnerSuggestSegment write(Path path, List<PartnerSuggestIndex.Entry> entries, long highWaterMark,
+            long nextPartnerSeq) throws IOException {
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        Map<Long, Integer> partnerIndexes = new LinkedHashMap<>();
+        ByteBuffer partners = ByteBuffer.allocate(countPartners(entries) * PARTNER_SIZE);
+        ByteBuffer entryTable = ByteBuffer.allocate(entries.size() * ENTRY_SIZE);
+        for (PartnerSuggestIndex.Entry entry : entries) {
+            Integer partnerIndex = partnerIndexes.get(entry.partnerNumberSeq());
+            if (partnerIndex == null) {
+                partnerIndex = partnerIndexes.size();
+                partnerIndexes.put(entry.partnerNumberSeq(), partnerIndex);
+                PartnerSuggestion suggestion = entry.suggestion();
+                int flags = (suggestion.isActive() ? FLAG_ACTIVE : 0)
+                    | (PartnerDiscriminator.LEGAL_ENTITY.equals(suggestion.getPartnerType()) ? FLAG_LEGAL_ENTITY : 0);
+                partners.putLong(entry.partnerNumberSeq()).putInt(flags);
+                putString(partners, strings, suggestion.getPartnerId());
+                putString(partners, strings, suggestion.getName());
+            }
+            putString(entryTable, strings, entry.key());
+            entryTable.putInt(partnerIndex);
+        }
+
+        long size = HEADER_SIZE + (long) partners.capacity() + entryTable.capacity() + strings.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Partner suggest segment would exceed 2 GB");
+        }
+        int stringsOffset = HEADER_SIZE + partners.capacity() + entryTable.capacity();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+            .putInt(MAGIC)
+            .putInt(VERSION)
+            .putLong(highWaterMark)
+            .putLong(nextPartnerSeq)
+            .putInt(partnerIndexes.size())
+            .putInt(entries.size())
+            .putLong(System.currentTimeMillis())
+            .putInt(stringsOffset)
+            .putInt(0); // reserved
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer[] sections = {header.flip(), partners.flip(), entryTable.flip(), ByteBuffer.wrap(strings.toByteArray())};
+            while (channel.position() < size) {
+                channel.write(sections);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(path);
+    }
+
+    private static int countPartners(List<PartnerSuggestIndex.Entry> entries) {
+        return (int) entries.stream().mapToLong(PartnerSuggestIndex.Entry::partnerNumberSeq).distinct().count();
+    }
+
+    // strings are stored relative to the start of the string section, whose position is only known at the end
+    private static void putString(ByteBuffer table, ByteArrayOutputStream strings, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        table.putInt(strings.size()).putInt(value == null ? -1 : bytes.length);
+        strings.writeBytes(bytes);
+    }
+
+    /**
+     * @return epoch millis of the newest updated_at contained in this segment
+     */
+    long highWaterMark() {
+        return highWaterMark;
+    }
+
+    long nextPartnerSeq() {
+        return nextPartnerSeq;
+    }
+
+    int size() {
+        return entryCount;
+    }
+
+    String key(int entry) {
+        return getString(entriesOffset + entry * ENTRY_SIZE);
+    }
+
+    long partnerNumberSeq(int entry) {
+        return buffer.getLong(partnerOffset(entry));
+    }
+
+    PartnerSuggestion suggestion(int entry) {
+        int partner = partnerOffset(entry);
+        long seq = buffer.getLong(partner);
+        int flags = buffer.getInt(partner + 8);
+        return new PartnerSuggestion(getString(partner + 12), Partner.formatPartnerNumber(seq),
+            (flags & FLAG_LEGAL_ENTITY) != 0 ? PartnerDiscriminator.LEGAL_ENTITY : PartnerDiscriminator.NATURAL_PERSON,
+            getString(partner + 20), (flags & FLAG_ACTIVE) != 0);
+    }
+
+    /**
+     * @return the partner numbers of all partners in this segment, as {@link TagBitmapIndex#toOrdinal(Long)} ordinals
+     */
+    RoaringBitmap partners() {
+        RoaringBitmap partners = new RoaringBitmap();
+        for (int i = 0; i < partnerCount; i++) {
+            partners.add(TagBitmapIndex.toOrdinal(buffer.getLong(partnersOffset + i * PARTNER_SIZE)));
+        }
+        return partners;
+    }
+
+    /**
+     * @return index of the first entry whose key is not smaller than the given key
+     */
+    int lowerBound(String key) {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (key(mid).compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int partnerOffset(int entry) {
+        return partnersOffset + buffer.getInt(entriesOffset + entry * ENTRY_SIZE + 8) * PARTNER_SIZE;
+    }
+
+    private String getString(int referenceOffset) {
+        int length = buffer.getInt(referenceOffset + 4);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(stringsOffset + buffer.getInt(referenceOffset), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,231 @@
+package dev.abstratium.partner.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Exports the partners with everything attached to them, one CSV file per table, for downstream services
+ * that need more than the partner export ({@link PartnerExportService}).
+ *
+ * Each table is streamed by its own worker, on its own connection, in a read-only repeatable-read
+ * transaction. At most one connection less than the pool has ({@code quarkus.datasource.jdbc.max-size}) is
+ * used at a time, so that requests can still get one. The files go into a new directory below
+ * {@code partner.export.tables.directory}, and {@code manifest.json} is written last, once all of them are
+ * complete. It lists the files with their row counts and SHA-256 checksums, and the change feed position
+ * (T_change_log) read before the workers started.
+ *
+ * The files are not read from one snapshot of the database: each worker's transaction has its own, taken when
+ * it starts, so a change that commits meanwhile may be in some files but not in others. A single snapshot would
+ * need either one connection reading every table in turn, or a global read lock while the workers start, which
+ * blocks all writes and needs the RELOAD privilege. The manifest says so with {@code "consistency": "per-table"};
+ * consumers that need the tables to agree apply the change feed from its {@code changeSeq}, which is idempotent
+ * for the changes already contained in a file.
+ */
+@ApplicationScoped
+public class PartnerTableExportService {
+
+    private static final Logger LOG = Logger.getLogger(PartnerTableExportService.class);
+
+    static final String MANIFEST_FILE = "manifest.json";
+
+    private static final DateTimeFormatter DIRECTORY_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+        .withZone(ZoneOffset.UTC);
+
+    // exported file name to table; the name keys, change log and sequences are internal
+    private static final Map<String, String> TABLES = new LinkedHashMap<>();
+    static {
+        TABLES.put("partner-types.csv", "T_partner_type");
+        TABLES.put("partners.csv", "T_partner");
+        TABLES.put("addresses.csv", "T_address");
+        TABLES.put("address-details.csv", "T_address_detail");
+        TABLES.put("contact-details.csv", "T_contact_detail");
+        TABLES.put("tags.csv", "T_tag");
+        TABLES.put("partner-tags.csv", "T_partner_tag");
+        TABLES.put("relationship-types.csv", "T_relationship_type");
+        TABLES.put("partner-relationships.csv", "T_partner_relationship");
+    }
+
+    // rows a worker fetches at a time, except on MySQL, which streams them one by one
+    private static final int FETCH_SIZE = 1000;
+
+    @ConfigProperty(name = "partner.export.tables.directory")
+    String directory;
+
+    @ConfigProperty(name = "quarkus.datasource.jdbc.max-size", defaultValue = "20")
+    int poolMaxSize;
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private record TableFile(String file, String table, long rows, long bytes, String sha256) {
+    }
+
+    /**
+     * Exports all tables into a new directory.
+     *
+     * @return the manifest, as written to {@value #MANIFEST_FILE}, including the directory
+     * @throws IllegalStateException if an export is already running
+     */
+    public Map<String, Object> export() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An export is already running");
+        }
+        Instant startedAt = Instant.now();
+        Path target = Path.of(directory, DIRECTORY_TIMESTAMP.format(startedAt));
+        try {
+            Files.createDirectories(target);
+            long changeSeq = currentChangeSeq();
+
+            List<Future<TableFile>> futures = new ArrayList<>();
+            try (ExecutorService workers = Executors.newFixedThreadPool(workerCount(), Thread.ofVirtual().factory())) {
+                for (Map.Entry<String, String> table : TABLES.entrySet()) {
+                    futures.add(workers.submit(() -> exportTable(table.getValue(), target.resolve(table.getKey()))));
+                }
+            }
+            List<Map<String, Object>> files = new ArrayList<>();
+            for (Future<TableFile> future : futures) {
+                TableFile file = future.get();
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("file", file.file());
+                entry.put("table", file.table());
+                entry.put("rows", file.rows());
+                entry.put("bytes", file.bytes());
+                entry.put("sha256", file.sha256());
+                files.add(entry);
+            }
+
+            Map<String, Object> manifest = new LinkedHashMap<>();
+            manifest.put("startedAt", startedAt.toString());
+            manifest.put("completedAt", Instant.now().toString());
+            manifest.put("changeSeq", changeSeq);
+            // every table is read in a transaction of its own, see the class comment
+            manifest.put("consistency", "per-table");
+            manifest.put("files", files);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(target.resolve(MANIFEST_FILE).toFile(), manifest);
+
+            LOG.infof("Exported %d tables to %s, change feed position %d", files.size(), target, changeSeq);
+            Map<String, Object> result = new LinkedHashMap<>(manifest);
+            result.put("directory", target.toString());
+            return result;
+        } catch (ExecutionException e) {
+            LOG.errorf(e.getCause(), "Failed to export tables to %s", target);
+            throw new RuntimeException("Failed to export tables", e.getCause());
+        } catch (IOException | SQLException e) {
+            LOG.errorf(e, "Failed to export tables to %s", target);
+            throw new RuntimeException("Failed to export tables", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while exporting tables", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * @return the number of tables exported at the same time, each holding a connection
+     */
+    int workerCount() {
+        return Math.max(1, Math.min(TABLES.size(), poolMaxSize - 1));
+    }
+
+    private long currentChangeSeq() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(seq), 0) FROM T_change_log")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private TableFile exportTable(String table, Path file) throws SQLException, IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        long rows = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean mysql = "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try (Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    OutputStream out = new DigestOutputStream(Files.newOutputStream(file), digest);
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                // MySQL Connector/J only streams with this fetch size, otherwise it reads the whole table into memory
+                statement.setFetchSize(mysql ? Integer.MIN_VALUE : FETCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery("SELECT * FROM " + table + " ORDER BY id")) {
+                    ResultSetMetaData metaData = resultSet.getMetaData();
+                    int columns = metaData.getColumnCount();
+                    for (int i = 1; i <= columns; i++) {
+                        writeValue(writer, metaData.getColumnLabel(i).toLowerCase(), i);
+                    }
+                    writer.write('\n');
+                    while (resultSet.next()) {
+                        for (int i = 1; i <= columns; i++) {
+                            writeValue(writer, resultSet.getString(i), i);
+                        }
+                        writer.write('\n');
+                        rows++;
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+        return new TableFile(file.getFileName().toString(), table, rows, Files.size(file),
+            HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Writes a quoted CSV value; null is written as an empty, unquoted value, to tell it from an empty string.
+     */
+    private static void writeValue(Writer writer, String value, int column) throws IOException {
+        if (column > 1) {
+            writer.write(',');
+        }
+        if (value != null) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
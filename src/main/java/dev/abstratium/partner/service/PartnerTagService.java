@@ -2,10 +2,12 @@ package dev.abstratium.partner.service;
 
 import java.util.List;
 
+import dev.abstratium.partner.entity.ChangeLogEntry;
 import dev.abstratium.partner.entity.Partner;
 import dev.abstratium.partner.entity.PartnerTag;
 import dev.abstratium.partner.entity.Tag;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
@@ -16,6 +18,12 @@ public class PartnerTagService {
     @Inject
     EntityManager em;
 
+    @Inject
+    ChangeLogService changeLog;
+
+    @Inject
+    Event<PartnerChangedEvent> partnerChanged;
+
     @Transactional
     public List<PartnerTag> findByPartnerId(String partnerId) {
         return em.createQuery(
@@ -48,6 +56,7 @@ public class PartnerTagService {
     }
 
     @Transactional
+    @RecordedWrite
     public PartnerTag addTagToPartner(String partnerId, String tagId) {
         Partner partner = em.find(Partner.class, partnerId);
         if (partner == null) {
@@ -77,27 +86,53 @@ public class PartnerTagService {
 
         em.persist(partnerTag);
         em.flush();
+        changeLog.record(ChangeLogEntry.EntityType.PARTNER_TAG, partnerTag.getId(), partnerId,
+            ChangeLogEntry.Operation.CREATE);
+
+        partnerChanged.fire(new PartnerChangedEvent(partnerId, partner.getPartnerNumberSeq(),
+            PartnerChangedEvent.Type.TAG_ADDED, tagId));
         return partnerTag;
     }
 
     @Transactional
+    @RecordedWrite
     public void removeTagFromPartner(String partnerId, String tagId) {
-        int deleted = em.createQuery(
-            "DELETE FROM PartnerTag pt WHERE pt.partner.id = :partnerId AND pt.tag.id = :tagId")
+        // the ids are published in the change log
+        List<String> partnerTagIds = em.createQuery(
+            "SELECT pt.id FROM PartnerTag pt WHERE pt.partner.id = :partnerId AND pt.tag.id = :tagId", String.class)
             .setParameter("partnerId", partnerId)
             .setParameter("tagId", tagId)
-            .executeUpdate();
+            .getResultList();
 
-        if (deleted == 0) {
+        if (partnerTagIds.isEmpty()) {
             throw new IllegalArgumentException("Tag assignment not found for partner");
         }
+
+        em.createQuery("DELETE FROM PartnerTag pt WHERE pt.id IN :ids")
+            .setParameter("ids", partnerTagIds)
+            .executeUpdate();
+        for (String partnerTagId : partnerTagIds) {
+            changeLog.record(ChangeLogEntry.EntityType.PARTNER_TAG, partnerTagId, partnerId,
+                ChangeLogEntry.Operation.DELETE);
+        }
+
+        Partner partner = em.find(Partner.class, partnerId);
+        partnerChanged.fire(new PartnerChangedEvent(partnerId, partner.getPartnerNumberSeq(),
+            PartnerChangedEvent.Type.TAG_REMOVED, tagId));
     }
 
     @Transactional
+    @RecordedWrite
     public void delete(String id) {
         PartnerTag partnerTag = em.find(PartnerTag.class, id);
         if (partnerTag != null) {
             em.remove(partnerTag);
+
+            Partner partner = partnerTag.getPartner();
+            changeLog.record(ChangeLogEntry.EntityType.PARTNER_TAG, id, partner.getId(),
+                ChangeLogEntry.Operation.DELETE);
+            partnerChanged.fire(new PartnerChangedEvent(partner.getId(), partner.getPartnerNumberSeq(),
+                PartnerChangedEvent.Type.TAG_REMOVED, partnerTag.getTag().getId()));
         }
     }
 }
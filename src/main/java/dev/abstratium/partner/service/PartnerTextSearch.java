@@ -0,0 +1,48 @@
+package dev.abstratium.partner.service;
+
+import java.util.List;
+
+/**
+ * Full-text search backend for the free text terms of a partner search, matching names,
+ * trading names, registration numbers and notes using a database full-text index instead
+ * of {@code LOWER(column) LIKE '%term%'}, which has to lower-case and scan every row.
+ *
+ * The backend is selected with {@code partner.search.text-backend}: {@code mysql},
+ * {@code h2}, or {@code like} to always use LIKE. Terms that a backend does not support,
+ * e.g. short terms and terms containing punctuation, are still matched with LIKE.
+ */
+public interface PartnerTextSearch {
+
+    /**
+     * @return true if the term can be matched by this backend
+     */
+    boolean supports(String term);
+
+    /**
+     * @param terms terms for which {@link #supports(String)} returned true
+     * @param limit maximum number of partners returned, so that a common word does not turn into
+     * a candidate set of the whole table; backends that rank matches return the most relevant ones
+     * @return partner number sequences of the partners matching all terms
+     */
+    List<Long> findPartnerNumberSeqs(List<String> terms, int limit);
+
+    /**
+     * A term qualifies for a full-text index if it is a single word of at least the minimum
+     * length with at least one letter; purely numeric terms are left to LIKE, so that they
+     * still match partial partner numbers.
+     */
+    static boolean isWord(String term, int minLength) {
+        if (term.length() < minLength) {
+            return false;
+        }
+        boolean hasLetter = false;
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                return false;
+            }
+            hasLetter |= Character.isLetter(c);
+        }
+        return hasLetter;
+    }
+}
@@ -0,0 +1,101 @@
+package dev.abstratium.partner.service;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Counts the database work done on behalf of one HTTP request: SQL statements, entity loads,
+ * lazy collection fetches and the time spent executing statements.
+ *
+ * The statistics of the current request are kept in a thread local. They are not inherited by
+ * threads the request starts, as those may outlive it, e.g. a background rebuild of an index;
+ * work done for the request on other threads, e.g. the concurrent queries of the unified search,
+ * is handed them explicitly with {@link #propagate(Supplier)}. Hibernate reports into it through
+ * {@link QueryStatisticsSessionListener} and {@link QueryStatisticsIntegrator}; outside of a
+ * request nothing is counted, unless a {@link RecordedWriteInterceptor} starts statistics of
+ * its own.
+ */
+public final class QueryStatistics {
+
+    private static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder entityLoads = new LongAdder();
+    private final LongAdder collectionFetches = new LongAdder();
+    private final LongAdder jdbcNanos = new LongAdder();
+
+    /**
+     * Starts counting for the current thread.
+     */
+    public static QueryStatistics start() {
+        QueryStatistics statistics = new QueryStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * Stops counting for the current thread.
+     */
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the statistics of the current request, or null outside of a request
+     */
+    static QueryStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return the task, counting into the statistics of the current thread wherever it runs
+     */
+    static <T> Supplier<T> propagate(Supplier<T> task) {
+        QueryStatistics statistics = CURRENT.get();
+        if (statistics == null) {
+            return task;
+        }
+        return () -> {
+            QueryStatistics previous = CURRENT.get();
+            CURRENT.set(statistics);
+            try {
+                return task.get();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    void statementExecuted(long nanos) {
+        statements.increment();
+        jdbcNanos.add(nanos);
+    }
+
+    void entityLoaded() {
+        entityLoads.increment();
+    }
+
+    void collectionFetched() {
+        collectionFetches.increment();
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getEntityLoads() {
+        return entityLoads.sum();
+    }
+
+    public long getCollectionFetches() {
+        return collectionFetches.sum();
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos.sum();
+    }
+}
@@ -0,0 +1,44 @@
+package dev.abstratium.partner.service;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+
+/**
+ * Counts entity loads and lazy collection fetches in the {@link QueryStatistics} of the current request.
+ * Many of either per request usually means an N+1 problem.
+ *
+ * Registered with Hibernate through META-INF/services/org.hibernate.integrator.spi.Integrator.
+ */
+public class QueryStatisticsIntegrator implements Integrator {
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+            SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getEventListenerRegistry();
+        registry.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) QueryStatisticsIntegrator::onPostLoad);
+        registry.appendListeners(EventType.INIT_COLLECTION,
+            (InitializeCollectionEventListener) QueryStatisticsIntegrator::onInitializeCollection);
+    }
+
+    private static void onPostLoad(PostLoadEvent event) {
+        QueryStatistics statistics = QueryStatistics.current();
+        if (statistics != null) {
+            statistics.entityLoaded();
+        }
+    }
+
+    private static void onInitializeCollection(InitializeCollectionEvent event) {
+        QueryStatistics statistics = QueryStatistics.current();
+        if (statistics != null) {
+            statistics.collectionFetched();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package dev.abstratium.partner.service;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Counts the statements a Hibernate session executes, and the time they take, in the {@link QueryStatistics}
+ * of the current request. Hibernate creates one instance per session, see hibernate.session.events.auto
+ * in application.properties.
+ */
+public class QueryStatisticsSessionListener implements SessionEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private long executeStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        executed();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        executed();
+    }
+
+    private void executed() {
+        QueryStatistics statistics = QueryStatistics.current();
+        if (statistics != null) {
+            statistics.statementExecuted(System.nanoTime() - executeStart);
+        }
+    }
+}
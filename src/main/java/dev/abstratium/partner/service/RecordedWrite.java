@@ -0,0 +1,18 @@
+package dev.abstratium.partner.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.interceptor.InterceptorBinding;
+
+/**
+ * Marks a service method that writes to the database, so that each call is recorded as a
+ * {@link FlightRecorderEvents.Write} event, see {@link RecordedWriteInterceptor}.
+ */
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface RecordedWrite {
+}
@@ -0,0 +1,53 @@
+package dev.abstratium.partner.service;
+
+import jakarta.annotation.Priority;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Records {@link RecordedWrite} methods as {@link FlightRecorderEvents.Write} events, with the number of
+ * statements they execute. Runs outside of the transaction interceptor, so that the commit is included.
+ *
+ * Statements are counted with the {@link QueryStatistics} of the current request, or with statistics of
+ * its own if the write happens outside of a request. Without a running recording the method is just called.
+ */
+@RecordedWrite
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE)
+public class RecordedWriteInterceptor {
+
+    @AroundInvoke
+    Object record(InvocationContext context) throws Exception {
+        FlightRecorderEvents.Write event = new FlightRecorderEvents.Write();
+        if (!event.isEnabled()) {
+            return context.proceed();
+        }
+
+        QueryStatistics statistics = QueryStatistics.current();
+        boolean ownStatistics = statistics == null;
+        if (ownStatistics) {
+            statistics = QueryStatistics.start();
+        }
+        long statementsBefore = statistics.getStatements();
+        boolean failed = true;
+        event.begin();
+        try {
+            Object result = context.proceed();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.service = context.getMethod().getDeclaringClass().getSimpleName();
+                event.method = context.getMethod().getName();
+                event.statements = statistics.getStatements() - statementsBefore;
+                event.failed = failed;
+                event.commit();
+            }
+            if (ownStatistics) {
+                QueryStatistics.stop();
+            }
+        }
+    }
+}
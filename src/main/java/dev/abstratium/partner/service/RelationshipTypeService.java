@@ -54,6 +54,7 @@ public class RelationshipTypeService {
     }
 
     @Transactional
+    @RecordedWrite
     public RelationshipType create(RelationshipType relationshipType) {
         // Check if type name already exists
         RelationshipType existing = findByTypeName(relationshipType.getTypeName());
@@ -66,6 +67,7 @@ public class RelationshipTypeService {
     }
 
     @Transactional
+    @RecordedWrite
     public RelationshipType update(String id, RelationshipType relationshipType) {
         RelationshipType existing = findById(id);
         if (existing == null) {
@@ -90,6 +92,7 @@ public class RelationshipTypeService {
     }
 
     @Transactional
+    @RecordedWrite
     public void delete(String id) {
         RelationshipType relationshipType = findById(id);
         if (relationshipType != null) {
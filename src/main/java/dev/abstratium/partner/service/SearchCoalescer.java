@@ -0,0 +1,121 @@
+package dev.abstratium.partner.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+/**
+ * Single-flight layer with a short lived result cache for expensive, read only searches.
+ *
+ * Concurrent calls with the same key share one computation: the first caller computes,
+ * the others wait for its result. Results are then kept for {@code partner.search.cache-ttl},
+ * so a burst of identical searches only runs the query and enrichment once.
+ *
+ * Every committed {@link PartnerChangedEvent} clears the cache. A computation that was
+ * already running when a change was committed still returns its result to its callers,
+ * but that result is not cached, and callers arriving after the change start a new computation
+ * instead of joining it. Changes that fire no event, like renaming a tag, and
+ * changes made by other instances are visible after at most the TTL.
+ */
+@ApplicationScoped
+public class SearchCoalescer {
+
+    /**
+     * @param generation the generation the computation started in; the entry is only valid while it is current
+     */
+    private record Cached(Object value, long expiresAt, long generation) {
+    }
+
+    @ConfigProperty(name = "partner.search.cache-ttl", defaultValue = "PT2S")
+    Duration ttl;
+
+    @ConfigProperty(name = "partner.search.cache-max-entries", defaultValue = "1000")
+    int maxEntries;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param key identifies the computation; callers must include everything the result depends on,
+     * e.g. the search string and the caller's roles
+     * @param computation computes the result, only called if no result is cached or in flight
+     * @return the cached, shared or newly computed result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> computation) {
+        Cached cached = cache.get(key);
+        if (cached != null) {
+            // an entry put by a computation that checked the generation just before a change was committed
+            // is older than the current generation, and must not be served
+            if (cached.expiresAt() > System.nanoTime() && cached.generation() == generation.get()) {
+                return (T) cached.value();
+            }
+            cache.remove(key, cached);
+        }
+
+        // only join a computation that started after the last committed change
+        long startGeneration = generation.get();
+        String flightKey = startGeneration + "/" + key;
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flightKey, future);
+        if (running != null) {
+            return (T) join(running);
+        }
+
+        try {
+            T value = computation.get();
+            if (ttl.isPositive() && generation.get() == startGeneration) {
+                if (cache.size() >= maxEntries) {
+                    cache.clear();
+                }
+                cache.put(key, new Cached(value, System.nanoTime() + ttl.toNanos(), startGeneration));
+            }
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // also errors like StackOverflowError, which would otherwise leave the waiting callers blocked
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, future);
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // rethrow the leader's exception unchanged, so that callers see the same error
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops all cached results.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    void onPartnerChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) PartnerChangedEvent event) {
+        invalidate();
+    }
+}
@@ -0,0 +1,117 @@
+package dev.abstratium.partner.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Warms up the search path after startup, so that the first users after a deploy do not pay
+ * for opening database connections, compiling queries and interpreting cold code.
+ *
+ * The queries that enrich the search results (address details, contact details, tags) are
+ * named queries, which Hibernate already compiles when it boots. The warm-up then
+ * <ol>
+ *   <li>opens {@code partner.warmup.connections} connections at the same time, so that the pool holds them</li>
+ *   <li>runs each of the {@code partner.warmup.searches} through the partner, faceted, address,
+ *       unified and suggest searches {@code partner.warmup.iterations} times, which caches the
+ *       query plans of the dynamic queries and gives the JIT compiler something to work with</li>
+ * </ol>
+ * It runs in the background; the readiness check reports the application as ready once it is done.
+ * The searches only read, and a failing warm-up is logged but still completes.
+ */
+@ApplicationScoped
+public class SearchWarmUp {
+
+    private static final Logger LOG = Logger.getLogger(SearchWarmUp.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    @ConfigProperty(name = "partner.warmup.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "partner.warmup.connections", defaultValue = "5")
+    int connections;
+
+    @ConfigProperty(name = "partner.warmup.iterations", defaultValue = "20")
+    int iterations;
+
+    @ConfigProperty(name = "partner.warmup.searches")
+    List<String> searches;
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    PartnerService partnerService;
+
+    @Inject
+    UnifiedSearchService unifiedSearchService;
+
+    @Inject
+    PartnerSuggestIndex suggestIndex;
+
+    private volatile boolean completed = false;
+
+    void onStartup(@Observes StartupEvent event) {
+        if (!enabled) {
+            completed = true;
+            return;
+        }
+        Thread.ofVirtual().name("search-warm-up").start(this::warmUp);
+    }
+
+    /**
+     * @return true once the warm-up has finished, or if it is disabled
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            primeConnectionPool();
+            for (int i = 0; i < iterations; i++) {
+                for (String search : searches) {
+                    partnerService.searchWithTimings(search, i % 2 == 1);
+                    partnerService.searchByAddress(search, null, 0, 20);
+                    unifiedSearchService.search(search);
+                    suggestIndex.suggest(search, 10);
+                }
+            }
+            LOG.infof("Search warm-up with %d searches completed in %d ms",
+                iterations * searches.size(), System.currentTimeMillis() - start);
+        } catch (SQLException | RuntimeException e) {
+            LOG.warn("Search warm-up failed, serving requests without it", e);
+        } finally {
+            completed = true;
+        }
+    }
+
+    private void primeConnectionPool() throws SQLException {
+        // holding the connections at the same time forces the pool to open that many
+        List<Connection> held = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                Connection connection = dataSource.getConnection();
+                held.add(connection);
+                connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            }
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package dev.abstratium.partner.service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A statement that took longer than {@code partner.slow-query.threshold}, as kept by the {@link SlowQueryLog}.
+ */
+public final class SlowQuery {
+
+    private final Instant executedAt;
+    private final String sql;
+    private final long nanos;
+    private final List<String> binds;
+    private final int batchSize;
+    private final String caller;
+    private final String requestKey;
+
+    // set later by the EXPLAIN, which runs asynchronously
+    private volatile List<String> plan;
+
+    SlowQuery(Instant executedAt, String sql, long nanos, List<String> binds, int batchSize, String caller,
+            String requestKey) {
+        this.executedAt = executedAt;
+        this.sql = sql;
+        this.nanos = nanos;
+        this.binds = binds;
+        this.batchSize = batchSize;
+        this.caller = caller;
+        this.requestKey = requestKey;
+    }
+
+    public Instant getExecutedAt() {
+        return executedAt;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return the sanitized bind parameters, or those of the last row of a batch
+     */
+    public List<String> getBinds() {
+        return binds;
+    }
+
+    /**
+     * @return the number of rows of a batch, 1 for single statements
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return the innermost application method on the stack, e.g. "PartnerService.querySummaries"
+     */
+    public String getCaller() {
+        return caller;
+    }
+
+    /**
+     * @return the request's key in the log (abstratiumkey), or null outside of a request
+     */
+    public String getRequestKey() {
+        return requestKey;
+    }
+
+    /**
+     * @return the rows of the statement's EXPLAIN, or null if not (yet) explained
+     */
+    public List<String> getPlan() {
+        return plan;
+    }
+
+    void setPlan(List<String> plan) {
+        this.plan = plan;
+    }
+}
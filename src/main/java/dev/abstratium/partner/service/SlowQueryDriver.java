@@ -0,0 +1,220 @@
+package dev.abstratium.partner.service;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import io.quarkus.runtime.annotations.RegisterForProxy;
+
+/**
+ * JDBC driver that delegates to the actual driver of the URL, e.g. MySQL or H2, and times every statement
+ * executed on its connections for the {@link SlowQueryLog}. The bind parameters of prepared statements are
+ * remembered until execution, so that slow statements can be logged and explained with them.
+ *
+ * It is configured as {@code quarkus.datasource.jdbc.driver}, so the datasource URLs stay unchanged.
+ * Until the {@link SlowQueryLog} has started, statements are executed without being timed.
+ */
+@RegisterForProxy(targets = Connection.class)
+@RegisterForProxy(targets = Statement.class)
+@RegisterForProxy(targets = PreparedStatement.class)
+@RegisterForProxy(targets = CallableStatement.class)
+public class SlowQueryDriver implements Driver {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+        "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private static volatile SlowQueryLog log;
+
+    static void setLog(SlowQueryLog slowQueryLog) {
+        log = slowQueryLog;
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        Driver delegate = delegateFor(url);
+        if (delegate == null) {
+            return null;
+        }
+        Connection connection = delegate.connect(url, info);
+        if (connection == null) {
+            return null;
+        }
+        boolean mysql = "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        return (Connection) Proxy.newProxyInstance(SlowQueryDriver.class.getClassLoader(),
+            new Class<?>[] { Connection.class }, new ConnectionHandler(connection, mysql));
+    }
+
+    @Override
+    public boolean acceptsURL(String url) throws SQLException {
+        return delegateFor(url) != null;
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+        Driver delegate = delegateFor(url);
+        return delegate == null ? new DriverPropertyInfo[0] : delegate.getPropertyInfo(url, info);
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    /**
+     * Finds the driver of the URL among the drivers on this class path, or among those registered with the
+     * DriverManager, which may not see the application's class loader.
+     */
+    private static Driver delegateFor(String url) throws SQLException {
+        if (url == null) {
+            return null;
+        }
+        for (Driver driver : ServiceLoader.load(Driver.class, SlowQueryDriver.class.getClassLoader())) {
+            if (!(driver instanceof SlowQueryDriver) && driver.acceptsURL(url)) {
+                return driver;
+            }
+        }
+        for (Driver driver : Collections.list(DriverManager.getDrivers())) {
+            if (!(driver instanceof SlowQueryDriver) && driver.acceptsURL(url)) {
+                return driver;
+            }
+        }
+        return null;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Hands out timed statements, and itself to them as their connection.
+     */
+    private static class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final boolean mysql;
+
+        ConnectionHandler(Connection target, boolean mysql) {
+            this.target = target;
+            this.mysql = mysql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SlowQueryDriver.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                    : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(SlowQueryDriver.class.getClassLoader(), new Class<?>[] { type },
+                    new StatementHandler(statement, (Connection) proxy, sql, mysql));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Remembers the bind parameters and times the executions of one statement.
+     */
+    private static class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final Connection connection;
+        private final String preparedSql;
+        private final boolean mysql;
+
+        private Object[] binds = new Object[8];
+        private int bindCount;
+        private int batchSize;
+
+        StatementHandler(Statement target, Connection connection, String preparedSql, boolean mysql) {
+            this.target = target;
+            this.connection = connection;
+            this.preparedSql = preparedSql;
+            this.mysql = mysql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            SlowQueryLog slowQueryLog = log;
+            if (slowQueryLog == null) {
+                return "getConnection".equals(name) ? connection : SlowQueryDriver.invoke(target, method, args);
+            }
+            if (preparedSql != null && name.startsWith("set") && args != null && args.length >= 2
+                    && args[0] instanceof Integer index) {
+                bind(index, name.equals("setNull") ? null : args[1]);
+            } else if ("clearParameters".equals(name)) {
+                Arrays.fill(binds, null);
+                bindCount = 0;
+            } else if ("addBatch".equals(name)) {
+                batchSize++;
+            } else if ("clearBatch".equals(name)) {
+                batchSize = 0;
+            } else if ("getConnection".equals(name)) {
+                return connection;
+            } else if (EXECUTE_METHODS.contains(name)) {
+                // plain statements pass their SQL, without bind parameters
+                boolean prepared = args == null || args.length == 0 || !(args[0] instanceof String);
+                String sql = prepared ? preparedSql : (String) args[0];
+                long start = System.nanoTime();
+                try {
+                    return SlowQueryDriver.invoke(target, method, args);
+                } finally {
+                    long nanos = System.nanoTime() - start;
+                    boolean batch = name.endsWith("Batch");
+                    slowQueryLog.executed(sql, nanos, binds, prepared ? bindCount : 0, batch ? batchSize : 1, mysql);
+                    if (batch) {
+                        batchSize = 0;
+                    }
+                }
+            }
+            return SlowQueryDriver.invoke(target, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (index < 1) {
+                return;
+            }
+            if (index > binds.length) {
+                binds = Arrays.copyOf(binds, Math.max(index, binds.length * 2));
+            }
+            binds[index - 1] = value;
+            bindCount = Math.max(bindCount, index);
+        }
+    }
+}
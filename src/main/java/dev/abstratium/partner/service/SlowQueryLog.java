@@ -0,0 +1,276 @@
+package dev.abstratium.partner.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jboss.logging.MDC;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Times every statement executed through the {@link SlowQueryDriver} in a histogram per operation and table
+ * ({@code abstradex.jdbc.statement}), and keeps those slower than {@code partner.slow-query.threshold} in a
+ * ring buffer of the last {@code partner.slow-query.buffer-size}, served on the management interface at
+ * /m/slow-queries.
+ *
+ * A slow statement is kept with its bind parameters, truncated and stripped of control characters, the
+ * application method that executed it and the request's log key. On MySQL, slow SELECTs are explained with
+ * the same parameters on a single background thread; if it falls behind, further EXPLAINs are skipped.
+ */
+@ApplicationScoped
+public class SlowQueryLog {
+
+    private static final Logger LOG = Logger.getLogger(SlowQueryLog.class);
+
+    // the MDC key that identifies a request in the log, see QueryStatisticsFilter
+    private static final String REQUEST_KEY = "abstratiumkey";
+
+    // statements are usually generated by Hibernate with few distinct texts; beyond this they are not cached
+    private static final int MAX_CACHED_STATEMENTS = 2000;
+
+    private static final Pattern TABLE = Pattern.compile("\\b(?:from|into|update)\\s+[`\"]?([\\w.]+)",
+        Pattern.CASE_INSENSITIVE);
+
+    @ConfigProperty(name = "partner.slow-query.threshold")
+    Duration threshold;
+
+    @ConfigProperty(name = "partner.slow-query.buffer-size")
+    int bufferSize;
+
+    @ConfigProperty(name = "partner.slow-query.max-bind-length")
+    int maxBindLength;
+
+    @ConfigProperty(name = "partner.slow-query.explain")
+    boolean explainEnabled;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    DataSource dataSource;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ThreadLocal<Boolean> explaining = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private long thresholdNanos;
+    private SlowQuery[] buffer;
+    private long recorded;
+    private ExecutorService explainer;
+
+    @PostConstruct
+    void init() {
+        thresholdNanos = threshold.toNanos();
+        buffer = new SlowQuery[bufferSize];
+        explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16),
+            Thread.ofVirtual().name("slow-query-explain").factory(), new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    void register(@Observes StartupEvent event) {
+        SlowQueryDriver.setLog(this);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        SlowQueryDriver.setLog(null);
+        explainer.shutdownNow();
+    }
+
+    /**
+     * Called by the {@link SlowQueryDriver} after each execution, on the executing thread.
+     *
+     * @param binds the bind parameters, of which the first bindCount are set; only read during the call
+     * @param batchSize number of rows of a batch, 1 for single statements
+     * @param mysql whether the statement ran on MySQL, which can explain it
+     */
+    void executed(String sql, long nanos, Object[] binds, int bindCount, int batchSize, boolean mysql) {
+        if (sql == null || explaining.get()) {
+            return;
+        }
+        timer(sql).record(nanos, TimeUnit.NANOSECONDS);
+        if (nanos < thresholdNanos) {
+            return;
+        }
+
+        Object[] values = Arrays.copyOf(binds, bindCount);
+        List<String> sanitized = new ArrayList<>(values.length);
+        for (Object value : values) {
+            sanitized.add(sanitize(value));
+        }
+        SlowQuery slowQuery = new SlowQuery(Instant.now(), sql.replaceAll("\\s+", " ").trim(), nanos, sanitized,
+            batchSize, caller(), MDC.get(REQUEST_KEY) == null ? null : String.valueOf(MDC.get(REQUEST_KEY)));
+        add(slowQuery);
+        LOG.warnf("Slow statement took %d ms in %s: %s %s", TimeUnit.NANOSECONDS.toMillis(nanos),
+            slowQuery.getCaller(), slowQuery.getSql(), sanitized);
+
+        if (explainEnabled && mysql && slowQuery.getSql().regionMatches(true, 0, "select", 0, 6)) {
+            explainer.execute(() -> explain(slowQuery, values));
+        }
+    }
+
+    /**
+     * @return the kept slow statements, newest first
+     */
+    public synchronized List<SlowQuery> getSlowQueries() {
+        int kept = (int) Math.min(recorded, buffer.length);
+        List<SlowQuery> slowQueries = new ArrayList<>(kept);
+        for (long i = recorded - 1; i >= recorded - kept; i--) {
+            slowQueries.add(buffer[(int) (i % buffer.length)]);
+        }
+        return slowQueries;
+    }
+
+    /**
+     * @return the number of slow statements since the start or since they were last cleared, including those
+     * no longer kept
+     */
+    public synchronized long getRecorded() {
+        return recorded;
+    }
+
+    public Duration getThreshold() {
+        return threshold;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(buffer, null);
+        recorded = 0;
+    }
+
+    private synchronized void add(SlowQuery slowQuery) {
+        buffer[(int) (recorded++ % buffer.length)] = slowQuery;
+    }
+
+    private Timer timer(String sql) {
+        Timer timer = timers.get(sql);
+        if (timer == null) {
+            String operation = operation(sql);
+            Matcher table = TABLE.matcher(sql);
+            timer = Timer.builder("abstradex.jdbc.statement")
+                .description("Execution time of SQL statements")
+                .tags("operation", operation, "table", table.find() ? table.group(1) : "none")
+                .publishPercentileHistogram()
+                .register(registry);
+            if (timers.size() < MAX_CACHED_STATEMENTS) {
+                timers.put(sql, timer);
+            }
+        }
+        return timer;
+    }
+
+    static String operation(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        String operation = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+        return switch (operation) {
+            case "select", "insert", "update", "delete", "merge", "call" -> operation;
+            default -> "other";
+        };
+    }
+
+    String sanitize(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        String text = value.toString();
+        StringBuilder sanitized = new StringBuilder(Math.min(text.length(), maxBindLength) + 3).append('\'');
+        for (int i = 0; i < text.length() && i < maxBindLength; i++) {
+            char c = text.charAt(i);
+            if (c == '\'') {
+                sanitized.append("''");
+            } else {
+                sanitized.append(Character.isISOControl(c) ? ' ' : c);
+            }
+        }
+        if (text.length() > maxBindLength) {
+            sanitized.append("...");
+        }
+        return sanitized.append('\'').toString();
+    }
+
+    /**
+     * @return the innermost application method on the stack, skipping this log, the driver and generated proxies
+     */
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+            .filter(frame -> isApplicationClass(frame.getClassName()))
+            .findFirst()
+            .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                + "." + frame.getMethodName())
+            .orElse("unknown"));
+    }
+
+    private static boolean isApplicationClass(String name) {
+        return name.startsWith("dev.abstratium.")
+            && !name.equals(SlowQueryLog.class.getName())
+            && !name.startsWith(SlowQueryDriver.class.getName())
+            && !name.contains("_Subclass")
+            && !name.contains("_ClientProxy");
+    }
+
+    private void explain(SlowQuery slowQuery, Object[] values) {
+        explaining.set(Boolean.TRUE);
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("EXPLAIN " + slowQuery.getSql())) {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            List<String> plan = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery()) {
+                ResultSetMetaData columns = rows.getMetaData();
+                while (rows.next()) {
+                    List<String> row = new ArrayList<>();
+                    for (int column = 1; column <= columns.getColumnCount(); column++) {
+                        Object value = rows.getObject(column);
+                        if (value != null) {
+                            row.add(columns.getColumnLabel(column) + "=" + value);
+                        }
+                    }
+                    plan.add(String.join(", ", row));
+                }
+            }
+            slowQuery.setPlan(plan);
+        } catch (SQLException e) {
+            LOG.debugf(e, "Could not explain %s", slowQuery.getSql());
+            slowQuery.setPlan(List.of("EXPLAIN failed: " + e.getMessage()));
+        } finally {
+            explaining.remove();
+        }
+    }
+}
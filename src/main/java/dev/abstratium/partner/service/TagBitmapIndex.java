@@ -0,0 +1,295 @@
+package dev.abstratium.partner.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.roaringbitmap.RoaringBitmap;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * In-memory index from tag id to the set of partners carrying that tag, stored as compressed
+ * Roaring bitmaps. Partners are identified by their partner number sequence, which is dense
+ * and ascending, so the bitmaps compress well.
+ *
+ * Boolean tag expressions ("vip AND supplier AND NOT blocked") are evaluated with bitmap
+ * AND/OR/ANDNOT instead of joining T_partner_tag once per tag.
+ *
+ * The index is built lazily with a single scan of T_partner_tag and then kept up to date
+ * from {@link PartnerChangedEvent}s after each successful commit. Changes made by other
+ * instances are not observed, so the index is also rebuilt once it is older than
+ * {@code partner.search.tag-index.max-age}. That rebuild runs in the background: searches keep using
+ * the old bitmaps until the new ones are swapped in, and changes committed during the rebuild are
+ * applied to both.
+ */
+@ApplicationScoped
+public class TagBitmapIndex {
+
+    private static final Logger LOG = Logger.getLogger(TagBitmapIndex.class);
+
+    @Inject
+    EntityManager em;
+
+    @ConfigProperty(name = "partner.search.tag-index.max-age", defaultValue = "PT5M")
+    Duration maxAge;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // guarded by lock
+    private Map<String, RoaringBitmap> partnersByTagId = null;
+    private long builtAt;
+    // changes applied while a background rebuild scans, replayed onto its result; null if none is running
+    private List<PartnerChangedEvent> changedDuringRebuild = null;
+
+    /**
+     * Evaluates a tag expression in conjunctive normal form.
+     *
+     * @param tagIdGroups groups of tag ids; partners must carry at least one tag of every group
+     * @param excludedTagIds partners carrying any of these tags are removed from the result
+     * @return the matching partner number sequences; if there are no groups, the result contains
+     * all tagged partners not excluded, so callers usually handle that case with {@link #union(List)}
+     */
+    public RoaringBitmap evaluate(List<List<String>> tagIdGroups, List<String> excludedTagIds) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = null;
+            for (List<String> group : tagIdGroups) {
+                RoaringBitmap groupBitmap = unionLocked(group);
+                result = result == null ? groupBitmap : RoaringBitmap.and(result, groupBitmap);
+                if (result.isEmpty()) {
+                    return result;
+                }
+            }
+            if (result == null) {
+                result = unionLocked(partnersByTagId.keySet());
+            }
+            if (!excludedTagIds.isEmpty()) {
+                result = RoaringBitmap.andNot(result, unionLocked(excludedTagIds));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return all partners carrying at least one of the given tags
+     */
+    public RoaringBitmap union(List<String> tagIds) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return unionLocked(tagIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of partners carrying the tag
+     */
+    public int count(String tagId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            RoaringBitmap bitmap = partnersByTagId.get(tagId);
+            return bitmap == null ? 0 : bitmap.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts, for every tag, how many of the given partners carry it, using
+     * intersection cardinalities so that no intermediate bitmaps are created.
+     *
+     * @param partners partner number sequences
+     * @return partner count by tag id, only tags with at least one of the partners
+     */
+    public Map<String, Integer> countWithin(RoaringBitmap partners) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> counts = new HashMap<>();
+            partnersByTagId.forEach((tagId, bitmap) -> {
+                int count = RoaringBitmap.andCardinality(bitmap, partners);
+                if (count > 0) {
+                    counts.put(tagId, count);
+                }
+            });
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap unionLocked(Iterable<String> tagIds) {
+        RoaringBitmap result = new RoaringBitmap();
+        for (String tagId : tagIds) {
+            RoaringBitmap bitmap = partnersByTagId.get(tagId);
+            if (bitmap != null) {
+                result.or(bitmap);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Forces the index to be rebuilt on next use.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            partnersByTagId = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void onPartnerChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) PartnerChangedEvent event) {
+        switch (event.type()) {
+            case TAG_ADDED, TAG_REMOVED, PARTNER_DELETED -> apply(event);
+            default -> {
+                // tags are unaffected
+            }
+        }
+    }
+
+    private void apply(PartnerChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (partnersByTagId == null) {
+                // not loaded yet, the next load sees the change
+                return;
+            }
+            applyLocked(partnersByTagId, event);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void applyLocked(Map<String, RoaringBitmap> index, PartnerChangedEvent event) {
+        int ordinal = toOrdinal(event.partnerNumberSeq());
+        switch (event.type()) {
+            case TAG_ADDED -> index.computeIfAbsent(event.detailId(), k -> new RoaringBitmap()).add(ordinal);
+            case TAG_REMOVED -> {
+                RoaringBitmap bitmap = index.get(event.detailId());
+                if (bitmap != null) {
+                    bitmap.remove(ordinal);
+                }
+            }
+            case PARTNER_DELETED -> index.values().forEach(bitmap -> bitmap.remove(ordinal));
+            default -> {
+                // not relevant
+            }
+        }
+    }
+
+    /**
+     * Loads the index on first use; once it is older than the maximum age, starts a background rebuild and
+     * returns right away, so that searches keep using the current bitmaps.
+     */
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (partnersByTagId != null) {
+                if (System.currentTimeMillis() - builtAt >= maxAge.toMillis()
+                        && rebuilding.compareAndSet(false, true)) {
+                    Thread.ofVirtual().name("tag-index-rebuild").start(this::rebuild);
+                }
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (partnersByTagId == null) {
+                // nothing to serve yet, so this load blocks; changes wait for it and are applied afterwards
+                swapLocked(build(scan()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rebuild() {
+        try {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Map<String, RoaringBitmap> rebuilt = build(scan());
+            lock.writeLock().lock();
+            try {
+                // a change may or may not have been seen by the scan; applying it again does no harm
+                changedDuringRebuild.forEach(event -> applyLocked(rebuilt, event));
+                if (partnersByTagId != null) {
+                    swapLocked(rebuilt);
+                }
+            } finally {
+                changedDuringRebuild = null;
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            // the current bitmaps stay in use and the next search retries
+            LOG.warn("Failed to rebuild the tag index", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * @return the tag id and partner number sequence of every tag assignment
+     */
+    List<Object[]> scan() {
+        // own transaction, so that uncommitted changes of the caller never end up in the index
+        return QuarkusTransaction.requiringNew().call(() -> em.createQuery(
+            "SELECT pt.tag.id, pt.partner.partnerNumberSeq FROM PartnerTag pt",
+            Object[].class)
+            .getResultList());
+    }
+
+    private static Map<String, RoaringBitmap> build(List<Object[]> rows) {
+        long start = System.currentTimeMillis();
+        Map<String, RoaringBitmap> loaded = new HashMap<>();
+        for (Object[] row : rows) {
+            loaded.computeIfAbsent((String) row[0], k -> new RoaringBitmap()).add(toOrdinal((Long) row[1]));
+        }
+        loaded.values().forEach(RoaringBitmap::runOptimize);
+        LOG.debugf("Built tag index with %d tags and %d assignments in %d ms",
+            loaded.size(), rows.size(), System.currentTimeMillis() - start);
+        return loaded;
+    }
+
+    private void swapLocked(Map<String, RoaringBitmap> loaded) {
+        partnersByTagId = loaded;
+        builtAt = System.currentTimeMillis();
+    }
+
+    static int toOrdinal(Long partnerNumberSeq) {
+        return Math.toIntExact(partnerNumberSeq);
+    }
+}
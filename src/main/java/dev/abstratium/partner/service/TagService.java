@@ -38,6 +38,7 @@ public class TagService {
     }
 
     @Transactional
+    @RecordedWrite
     public Tag create(Tag tag) {
         // Check if tag with same name already exists
         Tag existing = findByName(tag.getTagName());
@@ -51,6 +52,7 @@ public class TagService {
     }
 
     @Transactional
+    @RecordedWrite
     public Tag update(String id, Tag updatedTag) {
         Tag existingTag = em.find(Tag.class, id);
         if (existingTag == null) {
@@ -74,6 +76,7 @@ public class TagService {
     }
 
     @Transactional
+    @RecordedWrite
     public void delete(String id) {
         Tag tag = em.find(Tag.class, id);
         if (tag != null) {
@@ -0,0 +1,165 @@
+package dev.abstratium.partner.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import dev.abstratium.partner.dto.PartnerSearchResult;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Searches partners, contact details and addresses at the same time, so that "acme" finds
+ * partners named Acme, partners with an email address or website at acme.ch, and partners
+ * living in Acmestrasse.
+ *
+ * The three source queries run concurrently on virtual threads, each in its own transaction
+ * and therefore on its own connection, so the search takes about as long as the slowest
+ * source rather than all three together. Their results are merged by partner, remembering
+ * which sources found it, ranked with {@link PartnerSearchRanking}, and only the best
+ * {@code partner.search.max-results} are enriched, in a single pass.
+ */
+@ApplicationScoped
+public class UnifiedSearchService {
+
+    private static final Logger LOG = Logger.getLogger(UnifiedSearchService.class);
+
+    public static final String SOURCE_PARTNER = "PARTNER";
+    public static final String SOURCE_CONTACT = "CONTACT";
+    public static final String SOURCE_ADDRESS = "ADDRESS";
+
+    @ConfigProperty(name = "partner.search.max-results", defaultValue = "100")
+    int maxResults;
+
+    @ConfigProperty(name = "partner.search.unified.timeout", defaultValue = "PT10S")
+    Duration timeout;
+
+    @Inject
+    PartnerService partnerService;
+
+    @Inject
+    ContactDetailService contactDetailService;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Contact details and addresses are only searched for the query's text terms, and not at all when it
+     * has none; the partners found through them must match the query's other clauses too, as those found
+     * by their names do.
+     *
+     * @param searchTerm text matched against partner names, numbers and notes, contact lookup keys
+     * and email domains, and address fields; it must be selective, see {@link PartnerSearchQuery#isSelective()}
+     * @return the ranked and enriched results with their matched sources set, together with the
+     * number of distinct partners found and the time taken by each phase
+     */
+    public PartnerSearchOutcome search(String searchTerm) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            throw new IllegalArgumentException("Search term is required");
+        }
+        long start = System.nanoTime();
+        PartnerSearchQuery query = PartnerSearchQuery.parse(searchTerm);
+        if (!query.isSelective()) {
+            throw new IllegalArgumentException(
+                "Search must contain text, a partner number, or a tag, email, phone or city filter");
+        }
+        // filter syntax such as tag:vip or city:bern means nothing to contact details and addresses
+        String text = String.join(" ", query.getTextTerms());
+        PartnerSearchQuery filters = query.withoutText();
+
+        Future<List<PartnerSearchResult>> partners = submit(() -> partnerService.searchSummaries(query));
+        Future<List<PartnerSearchResult>> contacts = text.isEmpty() ? CompletableFuture.completedFuture(List.of())
+            : submit(() -> partnerService.findSummaries(
+                contactDetailService.findPartnerNumberSeqsByPrefix(text, maxResults), filters));
+        Future<List<PartnerSearchResult>> addresses = text.isEmpty() ? CompletableFuture.completedFuture(List.of())
+            : submit(() -> partnerService.searchSummariesByAddress(text, filters, maxResults));
+
+        Map<String, PartnerSearchResult> merged = new LinkedHashMap<>();
+        try {
+            merge(merged, await(partners, start), SOURCE_PARTNER);
+            merge(merged, await(contacts, start), SOURCE_CONTACT);
+            merge(merged, await(addresses, start), SOURCE_ADDRESS);
+        } finally {
+            partners.cancel(true);
+            contacts.cancel(true);
+            addresses.cancel(true);
+        }
+        long searched = System.nanoTime();
+
+        List<PartnerSearchResult> results = PartnerSearchRanking.topK(
+            new ArrayList<>(merged.values()), query.getTextTerms(), maxResults);
+        long ranked = System.nanoTime();
+
+        partnerService.enrich(results);
+        long enriched = System.nanoTime();
+
+        LOG.debugf("Unified search found %d partners in %d ms", merged.size(),
+            TimeUnit.NANOSECONDS.toMillis(enriched - start));
+        return new PartnerSearchOutcome(results, null, merged.size(),
+            searched - start, ranked - searched, enriched - ranked);
+    }
+
+    private Future<List<PartnerSearchResult>> submit(Supplier<List<PartnerSearchResult>> source) {
+        // the EntityManager is bound to the transaction of the calling thread, so every source needs its own
+        Supplier<List<PartnerSearchResult>> task = QueryStatistics.propagate(
+            () -> QuarkusTransaction.requiringNew().call(source::get));
+        return executor.submit(task::get);
+    }
+
+    private List<PartnerSearchResult> await(Future<List<PartnerSearchResult>> source, long start) {
+        long remaining = timeout.toNanos() - (System.nanoTime() - start);
+        try {
+            return source.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while searching", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Search did not complete within " + timeout, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+    }
+
+    private static void merge(Map<String, PartnerSearchResult> merged, List<PartnerSearchResult> found, String source) {
+        for (PartnerSearchResult result : found) {
+            PartnerSearchResult existing = merged.putIfAbsent(result.getId(), result);
+            if (existing == null) {
+                result.setMatchedSources(new ArrayList<>(List.of(source)));
+            } else {
+                existing.getMatchedSources().add(source);
+                if (existing.getMatchedAddressId() == null) {
+                    existing.setMatchedAddressId(result.getMatchedAddressId());
+                    existing.setMatchedAddressLine(result.getMatchedAddressLine());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+-- Normalized lookup keys for contact details, computed by the application on write:
+-- lookup_key: E.164 digits for phone numbers, lower-cased email address, host for websites
+-- lookup_domain: lower-cased domain of email addresses
+-- Existing rows are filled in by the application at startup
+ALTER TABLE T_contact_detail ADD COLUMN lookup_key VARCHAR(255);
+ALTER TABLE T_contact_detail ADD COLUMN lookup_domain VARCHAR(255);
+
+-- Create indices for exact and prefix lookups
+CREATE INDEX idx_contact_detail_lookup_key ON T_contact_detail(lookup_key);
+CREATE INDEX idx_contact_detail_lookup_domain ON T_contact_detail(lookup_domain);
@@ -0,0 +1,22 @@
+-- Create partner name key table for phonetic and fuzzy name search
+-- One row per word of first_name, last_name, legal_name and trading_name, computed by the application on write:
+-- normalized: lower-cased, accent-folded word, e.g. 'Müller' becomes 'mueller'
+-- cologne: Cologne phonetics code, suited to German names, e.g. 'Meier' and 'Meyer' both become '67'
+-- metaphone: Double Metaphone primary code, suited to English names
+-- Existing partners are filled in by the application at startup
+CREATE TABLE T_partner_name_key (
+    id VARCHAR(36) PRIMARY KEY,
+    partner_id VARCHAR(36) NOT NULL,
+    name_field VARCHAR(20) NOT NULL,
+    normalized VARCHAR(100) NOT NULL,
+    cologne VARCHAR(100),
+    metaphone VARCHAR(20),
+    CONSTRAINT fk_partner_name_key_partner FOREIGN KEY (partner_id) REFERENCES T_partner(id) ON DELETE CASCADE,
+    CONSTRAINT chk_name_field CHECK (name_field IN ('FIRST_NAME', 'LAST_NAME', 'LEGAL_NAME', 'TRADING_NAME'))
+);
+
+-- Create indices for candidate lookups
+CREATE INDEX idx_partner_name_key_partner ON T_partner_name_key(partner_id);
+CREATE INDEX idx_partner_name_key_normalized ON T_partner_name_key(normalized);
+CREATE INDEX idx_partner_name_key_cologne ON T_partner_name_key(cologne);
+CREATE INDEX idx_partner_name_key_metaphone ON T_partner_name_key(metaphone);
@@ -0,0 +1,29 @@
+-- Create change log table (outbox) from which downstream services read changes, see /api/changes
+-- One row per write of a partner, address detail, contact detail, partner tag or partner relationship,
+-- inserted in the same transaction as the write.
+-- seq: position in the feed; allocated from T_change_log_sequence, whose row stays locked until the writing
+--      transaction ends, so that rows become visible in seq order
+-- version: increases with every change of the same entity, starting at 1
+-- No foreign keys, as the rows of deleted partners must stay
+CREATE TABLE T_change_log (
+    seq BIGINT PRIMARY KEY,
+    entity_type VARCHAR(30) NOT NULL,
+    entity_id VARCHAR(36) NOT NULL,
+    partner_id VARCHAR(36) NOT NULL,
+    operation VARCHAR(10) NOT NULL,
+    version BIGINT NOT NULL,
+    changed_at TIMESTAMP NOT NULL,
+    CONSTRAINT chk_change_log_entity_type CHECK (entity_type IN ('PARTNER', 'ADDRESS_DETAIL', 'CONTACT_DETAIL', 'PARTNER_TAG', 'PARTNER_RELATIONSHIP')),
+    CONSTRAINT chk_change_log_operation CHECK (operation IN ('CREATE', 'UPDATE', 'DELETE'))
+);
+
+CREATE TABLE T_change_log_sequence (
+    id INT PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);
+
+INSERT INTO T_change_log_sequence (id, next_val) VALUES (1, 1);
+
+-- Create indices for the version lookup and for consumers following one partner
+CREATE INDEX idx_change_log_entity ON T_change_log(entity_type, entity_id);
+CREATE INDEX idx_change_log_partner ON T_change_log(partner_id);
@@ -15,6 +15,9 @@ export interface Partner {
   active: boolean;
   notes?: string;
   addressLine?: string;  // Formatted address line from backend
+  matchedAddressId?: string;    // Address that matched an address search
+  matchedAddressLine?: string;  // Formatted matched address from backend
+  matchedSources?: string[];    // Sources that found the partner in a unified search
   email?: string;        // Primary/verified email from backend
   phone?: string;        // Primary/verified phone (mobile or phone) from backend
   website?: string;      // Primary/verified website from backend
@@ -1,6 +1,7 @@
 package dev.abstratium.partner.boundary.api;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
@@ -73,6 +74,8 @@ public class AddressResourceTest {
             .get("/api/address")
         .then()
             .statusCode(200)
+            .header("X-Total-Count", notNullValue())
+            .header("Server-Timing", containsString("db;dur="))
             .body("size()", greaterThanOrEqualTo(0));
     }
 
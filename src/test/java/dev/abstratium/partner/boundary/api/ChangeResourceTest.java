@@ -0,0 +1,304 @@
+package dev.abstratium.partner.boundary.api;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import dev.abstratium.core.Roles;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.security.TestSecurity;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+
+@QuarkusTest
+public class ChangeResourceTest {
+
+    @TestHTTPResource("/api/changes/stream")
+    URI streamUri;
+
+    @Test
+    @TestSecurity(user = "testuser", roles = {Roles.USER})
+    public void testFeedReturnsChangesInOrderWithVersions() {
+        long since = head();
+
+        String partnerId = given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {
+                    "firstName": "Change",
+                    "lastName": "Feed"
+                }
+                """)
+            .when()
+            .post("/api/partner")
+            .then()
+            .statusCode(200)
+            .extract()
+            .path("id");
+
+        String contactId = given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {
+                    "contactType": "EMAIL",
+                    "contactValue": "feed@example.com"
+                }
+                """)
+            .when()
+            .post("/api/partner/" + partnerId + "/contact")
+            .then()
+            .statusCode(200)
+            .extract()
+            .path("id");
+
+        given()
+            .when()
+            .delete("/api/partner/" + partnerId + "/contact/" + contactId)
+            .then()
+            .statusCode(204);
+
+        JsonPath page = given()
+            .queryParam("since", since)
+            .when()
+            .get("/api/changes")
+            .then()
+            .statusCode(200)
+            .body("hasMore", is(false))
+            .extract()
+            .jsonPath();
+
+        List<Map<String, Object>> changes = page.getList("changes");
+        assertEquals(3, changes.size());
+        assertChange(changes.get(0), "PARTNER", partnerId, "CREATE", 1);
+        assertChange(changes.get(1), "CONTACT_DETAIL", contactId, "CREATE", 1);
+        assertChange(changes.get(2), "CONTACT_DETAIL", contactId, "DELETE", 2);
+        assertEquals(partnerId, changes.get(2).get("partnerId"));
+        assertEquals(((Number) changes.get(2).get("seq")).longValue(), page.getLong("cursor"));
+    }
+
+    @Test
+    @TestSecurity(user = "testuser", roles = {Roles.USER})
+    public void testFeedIsReadInBatches() {
+        long since = head();
+        for (String lastName : List.of("Batch1", "Batch2", "Batch3")) {
+            given()
+                .contentType(ContentType.JSON)
+                .body("{\"firstName\": \"Change\", \"lastName\": \"" + lastName + "\"}")
+                .when()
+                .post("/api/partner")
+                .then()
+                .statusCode(200);
+        }
+
+        JsonPath first = given()
+            .queryParam("since", since)
+            .queryParam("limit", 2)
+            .when()
+            .get("/api/changes")
+            .then()
+            .statusCode(200)
+            .body("changes.size()", is(2))
+            .body("hasMore", is(true))
+            .extract()
+            .jsonPath();
+
+        given()
+            .queryParam("since", first.getLong("cursor"))
+            .queryParam("limit", 2)
+            .when()
+            .get("/api/changes")
+            .then()
+            .statusCode(200)
+            .body("changes.size()", is(1))
+            .body("hasMore", is(false));
+    }
+
+    @Test
+    @TestSecurity(user = "testuser", roles = {Roles.USER})
+    public void testInvalidParameters() {
+        given()
+            .queryParam("since", -1)
+            .when()
+            .get("/api/changes")
+            .then()
+            .statusCode(400);
+
+        given()
+            .queryParam("limit", ChangeResource.MAX_BATCH_SIZE + 1)
+            .when()
+            .get("/api/changes")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    @TestSecurity(user = "testuser", roles = {Roles.USER})
+    public void testStreamPushesChangesAndResumesFromLastEventId() throws Exception {
+        long since = head();
+        String partnerId;
+        String seq;
+        try (EventStream stream = new EventStream(streamUri, null)) {
+            assertEquals(ChangeBroadcaster.READY_EVENT, stream.next().name());
+
+            partnerId = given()
+                .contentType(ContentType.JSON)
+                .body("{\"firstName\": \"Change\", \"lastName\": \"Stream\"}")
+                .when()
+                .post("/api/partner")
+                .then()
+                .statusCode(200)
+                .extract()
+                .path("id");
+
+            // pushed once committed, with its position in the feed as event id
+            SseEvent change = stream.next();
+            assertEquals(ChangeBroadcaster.CHANGE_EVENT, change.name());
+            Map<String, Object> notification = JsonPath.from(change.data()).getMap("");
+            assertChange(notification, "PARTNER", partnerId, "CREATE", 1);
+            assertEquals(partnerId, notification.get("partnerId"));
+            seq = change.id();
+            assertEquals(seq, String.valueOf(notification.get("seq")));
+        }
+
+        // a client reconnecting with the id of the last event it saw first gets the changes it missed since
+        try (EventStream stream = new EventStream(streamUri, since)) {
+            assertEquals(ChangeBroadcaster.READY_EVENT, stream.next().name());
+            SseEvent replayed = stream.next();
+            assertEquals(ChangeBroadcaster.CHANGE_EVENT, replayed.name());
+            assertEquals(seq, replayed.id());
+            assertEquals(partnerId, JsonPath.from(replayed.data()).getString("entityId"));
+        }
+
+        // nothing is replayed after the last change
+        try (EventStream stream = new EventStream(streamUri, Long.parseLong(seq))) {
+            assertEquals(ChangeBroadcaster.READY_EVENT, stream.next().name());
+            assertNull(stream.poll(), "Should not replay changes the client has seen");
+        }
+    }
+
+    @Test
+    @TestSecurity(user = "testuser", roles = {"WRONG_ROLE"})
+    public void testForbiddenAccess() {
+        given()
+            .when()
+            .get("/api/changes")
+            .then()
+            .statusCode(403);
+    }
+
+    /**
+     * @return the cursor after all changes made so far, by other tests too
+     */
+    private long head() {
+        long cursor = 0;
+        JsonPath page;
+        do {
+            page = given()
+                .queryParam("since", cursor)
+                .queryParam("limit", ChangeResource.MAX_BATCH_SIZE)
+                .when()
+                .get("/api/changes")
+                .then()
+                .statusCode(200)
+                .extract()
+                .jsonPath();
+            cursor = page.getLong("cursor");
+        } while (page.getBoolean("hasMore"));
+        return cursor;
+    }
+
+    private record SseEvent(String name, String id, String data) {
+    }
+
+    /**
+     * Reads the server-sent events of a connection on a virtual thread, so that a test can wait for each one.
+     */
+    private static final class EventStream implements AutoCloseable {
+
+        private final HttpClient client = HttpClient.newHttpClient();
+        private final BlockingQueue<SseEvent> events = new LinkedBlockingQueue<>();
+        private final Stream<String> lines;
+
+        EventStream(URI uri, Long lastEventId) throws Exception {
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri).header("Accept", "text/event-stream");
+            if (lastEventId != null) {
+                request.header("Last-Event-ID", String.valueOf(lastEventId));
+            }
+            HttpResponse<Stream<String>> response = client.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+            assertEquals(200, response.statusCode());
+            lines = response.body();
+            Thread.ofVirtual().start(() -> read(lines.iterator()));
+        }
+
+        private void read(Iterator<String> iterator) {
+            String name = "message";
+            String id = null;
+            StringBuilder data = new StringBuilder();
+            try {
+                while (iterator.hasNext()) {
+                    String line = iterator.next();
+                    if (line.isEmpty()) {
+                        // a blank line ends the event
+                        events.add(new SseEvent(name, id, data.toString()));
+                        name = "message";
+                        id = null;
+                        data.setLength(0);
+                        continue;
+                    }
+                    int colon = line.indexOf(':');
+                    String field = colon < 0 ? line : line.substring(0, colon);
+                    String value = colon < 0 ? "" : line.substring(colon + 1).replaceFirst("^ ", "");
+                    switch (field) {
+                        case "event" -> name = value;
+                        case "id" -> id = value;
+                        case "data" -> data.append(data.isEmpty() ? "" : "\n").append(value);
+                        default -> {
+                            // comments and retry
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                // the stream was closed
+            }
+        }
+
+        SseEvent next() throws InterruptedException {
+            SseEvent event = events.poll(10, TimeUnit.SECONDS);
+            assertNotNull(event, "Should receive an event");
+            return event;
+        }
+
+        SseEvent poll() throws InterruptedException {
+            return events.poll(500, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void close() {
+            lines.close();
+            client.shutdownNow();
+        }
+    }
+
+    private static void assertChange(Map<String, Object> change, String entityType, String entityId,
+            String operation, int version) {
+        assertEquals(entityType, change.get("entityType"));
+        assertEquals(entityId, change.get("entityId"));
+        assertEquals(operation, change.get("operation"));
+        assertEquals(version, ((Number) change.get("version")).intValue());
+    }
+}
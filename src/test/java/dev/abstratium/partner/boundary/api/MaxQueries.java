@@ -0,0 +1,21 @@
+package dev.abstratium.partner.boundary.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Query budget of a {@code @QuarkusTest}: fails the test if any request it sends with RestAssured
+ * executes more SQL statements than this. Checked by {@link QueryBudgetCallback} with the
+ * X-Query-Count header, see {@link QueryStatisticsFilter}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface MaxQueries {
+
+    /**
+     * @return the maximum number of statements a single request may execute
+     */
+    int value();
+}
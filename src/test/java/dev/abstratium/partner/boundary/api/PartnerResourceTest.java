@@ -1,6 +1,7 @@
 package dev.abstratium.partner.boundary.api;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.Matchers.startsWith;
@@ -9,6 +10,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import dev.abstratium.core.Roles;
+import dev.abstratium.partner.entity.NaturalPerson;
+import dev.abstratium.partner.service.PartnerService;
+import dev.abstratium.partner.service.PartnerSuggestIndex;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.security.TestSecurity;
 import io.restassured.http.ContentType;
@@ -22,6 +26,12 @@ class PartnerResourceTest {
     @Inject
     EntityManager em;
 
+    @Inject
+    PartnerService partnerService;
+
+    @Inject
+    PartnerSuggestIndex suggestIndex;
+
     @BeforeEach
     @Transactional
     public void setup() {
@@ -174,6 +184,203 @@ class PartnerResourceTest {
             .statusCode(400);
     }
 
+    @Test
+    @TestSecurity(user = "testuser", roles = {Roles.USER})
+    void testSearchPartnersRejectsFilterOnlyQuery() {
+        given()
+            .queryParam("search", "type:LE active:true")
+            .when()
+            .get("/api/partner")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    @TestSecurity(user = "testuser", roles = {Roles.USER})
+    void testSearchPartnersReportsTimingAndTotalCount() {
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {
+                    "legalName": "Timingheader AG"
+                }
+                """)
+            .when()
+            .post("/api/partner")
+            .then()
+            .statusCode(200);
+
+        given()
+            .queryParam("search", "timingheader")
+            .when()
+            .get("/api/partner")
+            .then()
+            .statusCode(200)
+            .header("X-Total-Count", "1")
+            .header("Server-Timing", containsString("db;dur="))
+            .header("Server-Timing", containsString("enrich;dur="))
+            .header("Server-Timing", containsString("serialize;dur="))
+            .header("Server-Timing", containsString("total;dur="))
+            .body("size()", is(1));
+    }
+
+    @Test
+    @TestSecurity(user = "testuser", roles = {Roles.USER})
+    void testSearchPartnersWithFacets() {
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {
+                    "legalName": "Facetresource AG"
+                }
+                """)
+            .when()
+            .post("/api/partner")
+            .then()
+            .statusCode(200);
+
+        given()
+            .queryParam("search", "facetresource")
+            .queryParam("facets", true)
+            .when()
+            .get("/api/partner")
+            .then()
+            .statusCode(200)
+            .body("results.size()", is(1))
+            .body("facets.total", is(1))
+            .body("facets.partnerType.LEGAL_ENTITY", is(1));
+    }
+
+    @Test
+    @TestSecurity(user = "testuser", roles = {Roles.USER})
+    void testSuggestFollowsWrites() throws InterruptedException {
+        // the index loads in the background after startup and finds nothing until then
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!suggestIndex.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        String id = given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {
+                    "legalName": "Suggestiva Werke AG",
+                    "tradingName": "Sugwerk"
+                }
+                """)
+            .when()
+            .post("/api/partner")
+            .then()
+            .statusCode(200)
+            .extract()
+            .path("id");
+
+        given()
+            .queryParam("q", "sugges")
+            .when()
+            .get("/api/partner/suggest")
+            .then()
+            .statusCode(200)
+            .body("size()", is(1))
+            .body("[0].partnerId", is(id))
+            .body("[0].name", is("Suggestiva Werke AG (Sugwerk)"));
+
+        // name words and trading name match too, each partner is returned once
+        given()
+            .queryParam("q", "werk")
+            .when()
+            .get("/api/partner/suggest")
+            .then()
+            .statusCode(200)
+            .body("size()", is(1));
+
+        given()
+            .when()
+            .delete("/api/partner/" + id)
+            .then()
+            .statusCode(204);
+
+        given()
+            .queryParam("q", "sugges")
+            .when()
+            .get("/api/partner/suggest")
+            .then()
+            .statusCode(200)
+            .body("size()", is(0));
+    }
+
+    @Test
+    @TestSecurity(user = "testuser", roles = {Roles.USER})
+    void testSuggestRequiresPrefix() {
+        given()
+            .when()
+            .get("/api/partner/suggest")
+            .then()
+            .statusCode(400);
+
+        given()
+            .queryParam("q", "a")
+            .queryParam("limit", 500)
+            .when()
+            .get("/api/partner/suggest")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    @TestSecurity(user = "testuser", roles = {Roles.USER})
+    void testSearchByAddressRequiresTermOrAddress() {
+        given()
+            .when()
+            .get("/api/partner/by-address")
+            .then()
+            .statusCode(400);
+
+        given()
+            .queryParam("search", "zurich")
+            .queryParam("size", 1000)
+            .when()
+            .get("/api/partner/by-address")
+            .then()
+            .statusCode(400);
+
+        given()
+            .queryParam("search", "nowhere-street-xyz")
+            .when()
+            .get("/api/partner/by-address")
+            .then()
+            .statusCode(200)
+            .body("totalCount", is(0));
+    }
+
+    @Test
+    @TestSecurity(user = "testuser", roles = {Roles.USER})
+    void testUnifiedSearchRequiresTerm() {
+        given()
+            .queryParam("search", "ab")
+            .when()
+            .get("/api/partner/unified")
+            .then()
+            .statusCode(400);
+
+        // filters that are not selective would load every partner
+        given()
+            .queryParam("search", "type:LE active:true")
+            .when()
+            .get("/api/partner/unified")
+            .then()
+            .statusCode(400);
+
+        given()
+            .queryParam("search", "nothing-unified-xyz")
+            .when()
+            .get("/api/partner/unified")
+            .then()
+            .statusCode(200)
+            .header("X-Total-Count", "0")
+            .header("Server-Timing", containsString("db;dur="));
+    }
+
     @Test
     @TestSecurity(user = "testuser", roles = {Roles.USER})
     void testSearchPartners() {
@@ -220,6 +427,47 @@ class PartnerResourceTest {
             .body("partnerNumber", startsWith("P"));
     }
 
+    @Test
+    @TestSecurity(user = "testuser", roles = {Roles.USER})
+    @MaxQueries(2)
+    void testGetPartnerByIdStaysWithinQueryBudget() {
+        // created through the service, so that only the lookup is subject to the budget
+        NaturalPerson person = new NaturalPerson();
+        person.setFirstName("Jane");
+        person.setLastName("Budget");
+        String partnerId = partnerService.create(person).getId();
+
+        // the partner and its tags, the lazy collections must not be fetched
+        given()
+            .when()
+            .get("/api/partner/" + partnerId)
+            .then()
+            .statusCode(200)
+            .body("id", is(partnerId));
+    }
+
+    @Test
+    @TestSecurity(user = "testuser", roles = {Roles.USER})
+    @MaxQueries(5)
+    void testSearchStaysWithinQueryBudget() {
+        for (int i = 0; i < 4; i++) {
+            NaturalPerson person = new NaturalPerson();
+            person.setFirstName("Querybudget");
+            person.setLastName("Person" + i);
+            partnerService.create(person);
+        }
+
+        // natural persons, legal entities, and one query each for the address details, contact details
+        // and tags of all results, however many there are
+        given()
+            .queryParam("search", "querybudget")
+            .when()
+            .get("/api/partner")
+            .then()
+            .statusCode(200)
+            .header("X-Total-Count", "4");
+    }
+
     @Test
     @TestSecurity(user = "testuser", roles = {Roles.USER})
     void testUpdatePartner() {
@@ -0,0 +1,67 @@
+package dev.abstratium.partner.boundary.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import dev.abstratium.partner.dto.ChangeNotification;
+import dev.abstratium.partner.entity.ChangeLogEntry.EntityType;
+import dev.abstratium.partner.entity.ChangeLogEntry.Operation;
+
+public class PendingChangesTest {
+
+    @Test
+    public void testChangesArePolledOldestFirst() {
+        PendingChanges pending = new PendingChanges(10);
+        pending.offer(change(1, "p1", Operation.CREATE, 1));
+        pending.offer(change(2, "p2", Operation.CREATE, 1));
+
+        assertEquals(1, pending.poll().seq());
+        assertEquals(2, pending.poll().seq());
+        assertNull(pending.poll());
+    }
+
+    @Test
+    public void testNewerChangeOfTheSameEntityReplacesThePendingOne() {
+        PendingChanges pending = new PendingChanges(10);
+        pending.offer(change(1, "p1", Operation.CREATE, 1));
+        pending.offer(change(2, "p2", Operation.CREATE, 1));
+        pending.offer(change(3, "p1", Operation.UPDATE, 2));
+
+        assertEquals(2, pending.size());
+        assertEquals(2, pending.poll().seq());
+        ChangeNotification merged = pending.poll();
+        assertEquals(3, merged.seq());
+        assertEquals(Operation.UPDATE, merged.operation());
+        assertEquals(2, merged.version());
+    }
+
+    @Test
+    public void testOlderChangeDoesNotReplaceANewerOne() {
+        PendingChanges pending = new PendingChanges(10);
+        pending.offer(change(3, "p1", Operation.UPDATE, 2));
+        pending.offer(change(1, "p1", Operation.CREATE, 1));
+
+        assertEquals(1, pending.size());
+        assertEquals(3, pending.poll().seq());
+    }
+
+    @Test
+    public void testOldestChangeIsDroppedBeyondTheMaximum() {
+        PendingChanges pending = new PendingChanges(2);
+        assertFalse(pending.offer(change(1, "p1", Operation.CREATE, 1)));
+        assertFalse(pending.offer(change(2, "p2", Operation.CREATE, 1)));
+        assertFalse(pending.takeOverflow());
+
+        assertTrue(pending.offer(change(3, "p3", Operation.CREATE, 1)));
+
+        assertTrue(pending.takeOverflow());
+        assertFalse(pending.takeOverflow(), "the overflow is reported once");
+        assertEquals(2, pending.poll().seq());
+        assertEquals(3, pending.poll().seq());
+    }
+
+    private static ChangeNotification change(long seq, String partnerId, Operation operation, long version) {
+        return new ChangeNotification(seq, partnerId, EntityType.PARTNER, partnerId, operation, version);
+    }
+}
@@ -0,0 +1,66 @@
+package dev.abstratium.partner.boundary.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.quarkus.test.junit.callback.QuarkusTestAfterEachCallback;
+import io.quarkus.test.junit.callback.QuarkusTestBeforeEachCallback;
+import io.quarkus.test.junit.callback.QuarkusTestMethodContext;
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+
+/**
+ * Enforces {@link MaxQueries}: while a test with a budget runs, a RestAssured filter checks the
+ * statement count of every response, and the test fails afterwards if a request exceeded it.
+ *
+ * Registered through META-INF/services, so that it applies to all {@code @QuarkusTest}s.
+ */
+public class QueryBudgetCallback implements QuarkusTestBeforeEachCallback, QuarkusTestAfterEachCallback {
+
+    private static final List<String> violations = Collections.synchronizedList(new ArrayList<>());
+    private static Filter installed;
+
+    @Override
+    public void beforeEach(QuarkusTestMethodContext context) {
+        MaxQueries budget = context.getTestMethod().getAnnotation(MaxQueries.class);
+        if (budget == null) {
+            budget = context.getTestMethod().getDeclaringClass().getAnnotation(MaxQueries.class);
+        }
+        if (budget == null) {
+            return;
+        }
+        int max = budget.value();
+        violations.clear();
+        installed = (request, response, ctx) -> {
+            Response result = ctx.next(request, response);
+            String count = result.getHeader(QueryStatisticsFilter.QUERY_COUNT_HEADER);
+            if (count == null) {
+                violations.add(request.getMethod() + " " + request.getURI() + " returned no "
+                    + QueryStatisticsFilter.QUERY_COUNT_HEADER + " header");
+            } else if (Integer.parseInt(count) > max) {
+                violations.add(request.getMethod() + " " + request.getURI() + " executed " + count
+                    + " statements, the budget is " + max);
+            }
+            return result;
+        };
+        RestAssured.filters(installed);
+    }
+
+    @Override
+    public void afterEach(QuarkusTestMethodContext context) {
+        if (installed == null) {
+            return;
+        }
+        List<Filter> remaining = new ArrayList<>(RestAssured.filters());
+        remaining.remove(installed);
+        RestAssured.replaceFiltersWith(remaining);
+        installed = null;
+        if (!violations.isEmpty()) {
+            String message = String.join("\n", violations);
+            violations.clear();
+            throw new AssertionError("Query budget exceeded:\n" + message);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package dev.abstratium.partner.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Drives a {@link Workload} with either a closed or an open model and records the latency of each
+ * operation, by name, in an HdrHistogram.
+ * <ul>
+ *   <li>closed: a fixed number of users, each sending its next request once the previous one has
+ *       completed; measures the service time at the load the system can sustain</li>
+ *   <li>open: requests arrive at a fixed rate, whether or not earlier ones have completed; latency is
+ *       measured from the time a request was due, so a stalled server shows up in the percentiles
+ *       instead of silently lowering the load (coordinated omission)</li>
+ * </ul>
+ */
+public class LoadTestHarness {
+
+    /**
+     * One operation of a workload, e.g. a search or a partner update.
+     */
+    public interface Workload {
+
+        /**
+         * Picks and executes an operation.
+         *
+         * @return the name under which the latency is recorded, e.g. the endpoint
+         * @throws Exception if the operation failed, which is counted as an error
+         */
+        String execute(Random random) throws Exception;
+    }
+
+    public record EndpointResult(long count, long errors, double throughputPerSecond, double meanMillis,
+            double p50Millis, double p90Millis, double p99Millis, double p999Millis, double maxMillis) {
+    }
+
+    public record RunResult(String model, Instant startedAt, double durationSeconds, int users,
+            double targetRatePerSecond, long dropped, Map<String, EndpointResult> endpoints) {
+    }
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Map<String, ConcurrentHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the workload with the given number of users for the given duration.
+     */
+    public RunResult runClosed(Workload workload, int users, Duration duration, long seed) throws InterruptedException {
+        reset();
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < users; user++) {
+                Random random = new Random(seed + user);
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        execute(workload, random, System.nanoTime());
+                    }
+                });
+            }
+        }
+        return result("closed", startedAt, System.nanoTime() - start, users, 0, 0);
+    }
+
+    /**
+     * Starts requests at the given rate for the given duration, with at most maxInFlight outstanding.
+     * Requests that would exceed maxInFlight are not sent and counted as dropped.
+     */
+    public RunResult runOpen(Workload workload, double ratePerSecond, int maxInFlight, Duration duration, long seed)
+            throws InterruptedException {
+        reset();
+        Instant startedAt = Instant.now();
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        Random random = new Random(seed);
+        AtomicInteger inFlight = new AtomicInteger();
+        long dropped = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long due = start; due < deadline; due += interval) {
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (inFlight.incrementAndGet() > maxInFlight) {
+                    inFlight.decrementAndGet();
+                    dropped++;
+                    continue;
+                }
+                long intendedStart = due;
+                Random requestRandom = new Random(random.nextLong());
+                executor.submit(() -> {
+                    try {
+                        execute(workload, requestRandom, intendedStart);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+        }
+        return result("open", startedAt, System.nanoTime() - start, 0, ratePerSecond, dropped);
+    }
+
+    private void execute(Workload workload, Random random, long intendedStart) {
+        String name;
+        boolean failed = false;
+        try {
+            name = workload.execute(random);
+        } catch (WorkloadException e) {
+            name = e.operation;
+            failed = true;
+        } catch (Exception e) {
+            name = "unknown";
+            failed = true;
+        }
+        histograms.computeIfAbsent(name, k -> new ConcurrentHistogram(3)).recordValue(System.nanoTime() - intendedStart);
+        if (failed) {
+            errors.computeIfAbsent(name, k -> new LongAdder()).increment();
+        }
+    }
+
+    private void reset() {
+        histograms.clear();
+        errors.clear();
+    }
+
+    private RunResult result(String model, Instant startedAt, long elapsedNanos, int users, double rate, long dropped) {
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        Map<String, EndpointResult> endpoints = new TreeMap<>();
+        histograms.forEach((name, histogram) -> {
+            LongAdder failed = errors.get(name);
+            endpoints.put(name, endpointResult(histogram, failed == null ? 0 : failed.sum(), seconds));
+        });
+        return new RunResult(model, startedAt, seconds, users, rate, dropped, endpoints);
+    }
+
+    private static EndpointResult endpointResult(Histogram histogram, long errors, double seconds) {
+        return new EndpointResult(histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+            histogram.getMean() / NANOS_PER_MILLI,
+            histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+            histogram.getValueAtPercentile(90) / NANOS_PER_MILLI,
+            histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+            histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+            histogram.getMaxValue() / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Writes the results as pretty-printed JSON, so that runs can be compared.
+     */
+    public static void write(Path file, List<RunResult> results) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .writerWithDefaultPrettyPrinter()
+            .writeValue(file.toFile(), Map.of("runs", new ArrayList<>(results)));
+    }
+
+    /**
+     * Thrown by a workload to record a failure under the name of the operation that failed.
+     */
+    public static class WorkloadException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String operation;
+
+        public WorkloadException(String operation, String message) {
+            super(message);
+            this.operation = operation;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package dev.abstratium.partner.load;
+
+import java.util.Map;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+/**
+ * Runs the application as the e2e profile does, on in-memory H2 with its full-text engine,
+ * but with test security so that the load test needs no OIDC login.
+ */
+public class LoadTestProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+            "partner.search.text-backend", "h2",
+            "partner.search.cache-ttl", "PT2S",
+            "partner.warmup.enabled", "true",
+            "quarkus.log.category.\"dev.abstratium\".level", "INFO");
+    }
+}
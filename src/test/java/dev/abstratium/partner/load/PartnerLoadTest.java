@@ -0,0 +1,76 @@
+package dev.abstratium.partner.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import dev.abstratium.core.Roles;
+import dev.abstratium.partner.load.LoadTestHarness.RunResult;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.security.TestSecurity;
+
+/**
+ * Load test of the partner API with mixed traffic, first with a closed and then with an open workload.
+ * Not part of the normal build; run it with
+ * <pre>
+ * mvn test -Pload-test -Dload.users=20 -Dload.rate=100 -Dload.duration=PT60S
+ * </pre>
+ * The latency percentiles and throughput per endpoint are logged and written to
+ * {@code target/load-test/results-<timestamp>.json}.
+ */
+@QuarkusTest
+@TestProfile(LoadTestProfile.class)
+@Tag("load")
+class PartnerLoadTest {
+
+    private static final Logger LOG = Logger.getLogger(PartnerLoadTest.class);
+
+    @TestHTTPResource("/")
+    URI baseUri;
+
+    @Test
+    @TestSecurity(user = "testuser", roles = {Roles.USER})
+    void testMixedTraffic() throws Exception {
+        int users = Integer.getInteger("load.users", 20);
+        double rate = Double.parseDouble(System.getProperty("load.rate", "100"));
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT30S"));
+        long seed = Long.getLong("load.seed", 42);
+        Path output = Path.of(System.getProperty("load.output", "target/load-test"));
+
+        PartnerWorkload workload = new PartnerWorkload(baseUri);
+        workload.seed(Integer.getInteger("load.seed-partners", 500), Integer.getInteger("load.seed-tags", 20),
+            new Random(seed));
+
+        LoadTestHarness harness = new LoadTestHarness();
+        // not reported: lets the JIT compiler and the caches warm up
+        harness.runClosed(workload, users, duration.dividedBy(3), seed);
+        RunResult closed = harness.runClosed(workload, users, duration, seed);
+        RunResult open = harness.runOpen(workload, rate, users * 10, duration, seed);
+
+        Path file = output.resolve("results-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")) + ".json");
+        LoadTestHarness.write(file, List.of(closed, open));
+        for (RunResult run : List.of(closed, open)) {
+            run.endpoints().forEach((endpoint, result) -> LOG.infof(
+                "%s %-40s %7d requests %5d errors %8.1f/s  p50 %7.1f ms  p99 %7.1f ms  max %7.1f ms",
+                run.model(), endpoint, result.count(), result.errors(), result.throughputPerSecond(),
+                result.p50Millis(), result.p99Millis(), result.maxMillis()));
+        }
+        LOG.infof("Load test results written to %s", file.toAbsolutePath());
+
+        long requests = closed.endpoints().values().stream().mapToLong(LoadTestHarness.EndpointResult::count).sum();
+        long errors = closed.endpoints().values().stream().mapToLong(LoadTestHarness.EndpointResult::errors).sum();
+        assertTrue(errors * 100 < requests, "More than 1% of the requests failed: " + errors + " of " + requests);
+    }
+}
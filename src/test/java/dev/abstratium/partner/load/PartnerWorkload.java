@@ -0,0 +1,268 @@
+package dev.abstratium.partner.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import dev.abstratium.partner.load.LoadTestHarness.WorkloadException;
+
+/**
+ * Mixed traffic against the partner API, roughly as the UI produces it: mostly searches and lookups,
+ * some creates and updates of partners, edits of contact details and addresses, and tag toggles.
+ *
+ * Latencies are recorded per endpoint, e.g. "GET /api/partner/suggest". The partners, tags, contacts and
+ * addresses that the writes work on are created by {@link #seed(int, int, Random)} and by the workload itself.
+ */
+public class PartnerWorkload implements LoadTestHarness.Workload {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static final String[] FIRST_NAMES = { "Hans", "Anna", "Peter", "Maria", "Thomas", "Sandra", "Daniel",
+        "Nicole", "Luca", "Sophie" };
+    private static final String[] LAST_NAMES = { "Müller", "Meier", "Meyer", "Schmid", "Keller", "Weber", "Huber",
+        "Schneider", "Brunner", "Favre", "Rossi", "Smith" };
+    private static final String[] COMPANY_WORDS = { "Acme", "Helvetia", "Alpen", "Rhein", "Limmat", "Matterhorn",
+        "Digital", "Treuhand", "Logistik", "Solar" };
+    private static final String[] CITIES = { "Zürich", "Bern", "Basel", "Lausanne", "Luzern", "Lugano" };
+    private static final String[] SEARCHES = { "meier", "müller", "acme", "helvetia ag", "~meyer", "schmid hans",
+        "email:@example.com", "city:Zürich", "type:LE", "active:true alpen" };
+
+    private record Partner(String id, boolean legalEntity, String name) {
+    }
+
+    private record Contact(String partnerId, String id, String type) {
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(TIMEOUT)
+        .build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final URI baseUri;
+
+    private final Pool<Partner> partners = new Pool<>();
+    private final Pool<Contact> contacts = new Pool<>();
+    private final Pool<String> addresses = new Pool<>();
+    private final List<String> tagIds = new ArrayList<>();
+    // partner and tag pairs that are currently tagged, and those a request is currently toggling
+    private final Set<String> tagged = ConcurrentHashMap.newKeySet();
+    private final Set<String> toggling = ConcurrentHashMap.newKeySet();
+
+    public PartnerWorkload(URI baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    /**
+     * Creates the partners, contacts, addresses and tags that the workload searches and edits.
+     */
+    public void seed(int partnerCount, int tagCount, Random random) throws Exception {
+        for (int i = 0; i < tagCount; i++) {
+            ObjectNode tag = mapper.createObjectNode()
+                .put("tagName", "load-" + i + "-" + Long.toHexString(random.nextLong()))
+                .put("colorHex", "#1976d2");
+            tagIds.add(send("POST /api/tag", "POST", "/api/tag", tag).get("id").asText());
+        }
+        for (int i = 0; i < partnerCount; i++) {
+            createPartner(random);
+            if (i % 4 == 0) {
+                createAddress(random);
+                linkAddress(random);
+            }
+            addContact(random);
+        }
+    }
+
+    @Override
+    public String execute(Random random) throws Exception {
+        int pick = random.nextInt(100);
+        if (pick < 30) {
+            return get("GET /api/partner", "/api/partner?search=" + encode(pick(random, SEARCHES)));
+        } else if (pick < 45) {
+            String name = partners.pick(random).name();
+            String prefix = name.substring(0, Math.min(name.length(), 2 + random.nextInt(4)));
+            return get("GET /api/partner/suggest", "/api/partner/suggest?q=" + encode(prefix));
+        } else if (pick < 53) {
+            return get("GET /api/partner/unified", "/api/partner/unified?search=" + encode(pick(random, LAST_NAMES)));
+        } else if (pick < 58) {
+            return get("GET /api/partner/by-address", "/api/partner/by-address?search=" + encode(pick(random, CITIES)));
+        } else if (pick < 66) {
+            return get("GET /api/partner/{id}", "/api/partner/" + partners.pick(random).id());
+        } else if (pick < 71) {
+            return createPartner(random);
+        } else if (pick < 78) {
+            return updatePartner(random);
+        } else if (pick < 82) {
+            return addContact(random);
+        } else if (pick < 86) {
+            return updateContact(random);
+        } else if (pick < 88) {
+            return createAddress(random);
+        } else if (pick < 91) {
+            return linkAddress(random);
+        } else {
+            return toggleTag(random);
+        }
+    }
+
+    private String createPartner(Random random) throws Exception {
+        boolean legalEntity = random.nextInt(10) < 3;
+        ObjectNode body = mapper.createObjectNode();
+        String name;
+        if (legalEntity) {
+            name = pick(random, COMPANY_WORDS) + " " + pick(random, COMPANY_WORDS) + " AG";
+            body.put("legalName", name);
+        } else {
+            name = pick(random, LAST_NAMES);
+            body.put("firstName", pick(random, FIRST_NAMES)).put("lastName", name);
+        }
+        String operation = "POST /api/partner";
+        partners.add(new Partner(send(operation, "POST", "/api/partner", body).get("id").asText(), legalEntity, name));
+        return operation;
+    }
+
+    private String updatePartner(Random random) throws Exception {
+        Partner partner = partners.pick(random);
+        ObjectNode body = mapper.createObjectNode()
+            .put("id", partner.id())
+            .put("notes", "Updated by the load test " + random.nextInt(1000));
+        if (partner.legalEntity()) {
+            body.put("legalName", partner.name());
+        } else {
+            body.put("firstName", pick(random, FIRST_NAMES)).put("lastName", partner.name());
+        }
+        String operation = "PUT /api/partner";
+        send(operation, "PUT", "/api/partner", body);
+        return operation;
+    }
+
+    private String addContact(Random random) throws Exception {
+        Partner partner = partners.pick(random);
+        boolean email = random.nextBoolean();
+        ObjectNode body = mapper.createObjectNode()
+            .put("contactType", email ? "EMAIL" : "PHONE")
+            .put("contactValue", email ? "user" + random.nextInt(100_000) + "@example.com"
+                : String.format("+41 44 %03d %02d %02d", random.nextInt(1000), random.nextInt(100), random.nextInt(100)))
+            .put("isPrimary", random.nextInt(4) == 0);
+        String operation = "POST /api/partner/{id}/contact";
+        JsonNode created = send(operation, "POST", "/api/partner/" + partner.id() + "/contact", body);
+        contacts.add(new Contact(partner.id(), created.get("id").asText(), email ? "EMAIL" : "PHONE"));
+        return operation;
+    }
+
+    private String updateContact(Random random) throws Exception {
+        Contact contact = contacts.pick(random);
+        ObjectNode body = mapper.createObjectNode()
+            .put("contactType", contact.type())
+            .put("contactValue", "EMAIL".equals(contact.type()) ? "changed" + random.nextInt(100_000) + "@example.com"
+                : String.format("+41 61 %03d %02d %02d", random.nextInt(1000), random.nextInt(100), random.nextInt(100)))
+            .put("isVerified", random.nextBoolean());
+        String operation = "PUT /api/partner/{id}/contact/{id}";
+        send(operation, "PUT", "/api/partner/" + contact.partnerId() + "/contact/" + contact.id(), body);
+        return operation;
+    }
+
+    private String createAddress(Random random) throws Exception {
+        ObjectNode body = mapper.createObjectNode()
+            .put("streetLine1", "Bahnhofstrasse " + (1 + random.nextInt(150)))
+            .put("city", pick(random, CITIES))
+            .put("postalCode", String.valueOf(1000 + random.nextInt(9000)))
+            .put("countryCode", "CH");
+        String operation = "POST /api/address";
+        addresses.add(send(operation, "POST", "/api/address", body).get("id").asText());
+        return operation;
+    }
+
+    private String linkAddress(Random random) throws Exception {
+        ObjectNode body = mapper.createObjectNode()
+            .put("isPrimary", random.nextBoolean())
+            .put("addressType", random.nextBoolean() ? "BILLING" : "SHIPPING");
+        String operation = "POST /api/partner/{id}/address";
+        send(operation, "POST", "/api/partner/" + partners.pick(random).id() + "/address?addressId="
+            + addresses.pick(random), body);
+        return operation;
+    }
+
+    private String toggleTag(Random random) throws Exception {
+        String partnerId = partners.pick(random).id();
+        String tagId = tagIds.get(random.nextInt(tagIds.size()));
+        String key = partnerId + "/" + tagId;
+        if (!toggling.add(key)) {
+            // another request is toggling the same tag, which would fail
+            return get("GET /api/partner/{id}/tag", "/api/partner/" + partnerId + "/tag");
+        }
+        try {
+            String path = "/api/partner/" + partnerId + "/tag/" + tagId;
+            if (tagged.contains(key)) {
+                send("DELETE /api/partner/{id}/tag/{id}", "DELETE", path, null);
+                tagged.remove(key);
+                return "DELETE /api/partner/{id}/tag/{id}";
+            }
+            send("POST /api/partner/{id}/tag/{id}", "POST", path, null);
+            tagged.add(key);
+            return "POST /api/partner/{id}/tag/{id}";
+        } finally {
+            toggling.remove(key);
+        }
+    }
+
+    private String get(String operation, String path) throws Exception {
+        send(operation, "GET", path, null);
+        return operation;
+    }
+
+    private JsonNode send(String operation, String method, String path, JsonNode body)
+            throws IOException, InterruptedException, WorkloadException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path))
+            .timeout(TIMEOUT)
+            .header("Accept", "application/json");
+        if (body != null) {
+            request.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new WorkloadException(operation, method + " " + path + " returned " + response.statusCode());
+        }
+        return response.body().isEmpty() ? mapper.nullNode() : mapper.readTree(response.body());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Thread-safe list that is only appended to and read at random positions.
+     */
+    private static class Pool<T> {
+
+        private final List<T> items = new ArrayList<>();
+
+        synchronized void add(T item) {
+            items.add(item);
+        }
+
+        synchronized T pick(Random random) {
+            return items.get(random.nextInt(items.size()));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package dev.abstratium.partner.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class ContactLookupKeysTest {
+
+    @Test
+    public void testPhoneNumbersAreNormalizedToE164Digits() {
+        assertEquals("41441234567", ContactLookupKeys.lookupKey("PHONE", "+41 44 123 45 67", "41"));
+        assertEquals("41441234567", ContactLookupKeys.lookupKey("PHONE", "0041 44 123 45 67", "41"));
+        assertEquals("41441234567", ContactLookupKeys.lookupKey("MOBILE", "044/123.45.67", "41"));
+        assertEquals("49301234567", ContactLookupKeys.lookupKey("FAX", "030 1234567", "49"));
+        assertEquals("1234567", ContactLookupKeys.lookupKey("PHONE", "1234567", "41"));
+    }
+
+    @Test
+    public void testPhoneWithoutDigitsFallsBackToValue() {
+        assertEquals("ask reception", ContactLookupKeys.lookupKey("PHONE", " Ask Reception ", "41"));
+    }
+
+    @Test
+    public void testEmailKeyAndDomain() {
+        assertEquals("john.doe@acme.ch", ContactLookupKeys.lookupKey("EMAIL", " John.Doe@ACME.ch", "41"));
+        assertEquals("acme.ch", ContactLookupKeys.lookupDomain("EMAIL", "John.Doe@ACME.ch"));
+        assertNull(ContactLookupKeys.lookupDomain("EMAIL", "not-an-email@"));
+        assertNull(ContactLookupKeys.lookupDomain("PHONE", "john@acme.ch"));
+    }
+
+    @Test
+    public void testWebsiteHost() {
+        assertEquals("acme.ch", ContactLookupKeys.lookupKey("WEBSITE", "https://www.Acme.ch/about?x=1", "41"));
+        assertEquals("shop.acme.ch", ContactLookupKeys.lookupKey("WEBSITE", "shop.acme.ch:8080", "41"));
+    }
+
+    @Test
+    public void testBlankValuesHaveNoKey() {
+        assertNull(ContactLookupKeys.lookupKey("EMAIL", "  ", "41"));
+        assertNull(ContactLookupKeys.lookupKey("PHONE", null, "41"));
+    }
+
+    @Test
+    public void testLooksLikePhoneNumber() {
+        assertTrue(ContactLookupKeys.looksLikePhoneNumber("+41 (44) 123-45-67"));
+        assertFalse(ContactLookupKeys.looksLikePhoneNumber("1234"));
+        assertFalse(ContactLookupKeys.looksLikePhoneNumber("acme.ch"));
+    }
+}
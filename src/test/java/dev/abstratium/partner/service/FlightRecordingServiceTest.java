@@ -0,0 +1,87 @@
+package dev.abstratium.partner.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import dev.abstratium.partner.entity.NaturalPerson;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+@QuarkusTest
+public class FlightRecordingServiceTest {
+
+    @Inject
+    FlightRecordingService recordingService;
+
+    @Inject
+    PartnerService partnerService;
+
+    @AfterEach
+    public void stopRecording() {
+        try {
+            recordingService.stop();
+        } catch (IllegalStateException e) {
+            // no recording was started
+        }
+    }
+
+    @Test
+    public void testRecordingContainsPartnerEvents() throws Exception {
+        Map<String, Object> status = recordingService.start(Duration.ofMinutes(1));
+        assertEquals("RUNNING", status.get("state"));
+
+        NaturalPerson person = new NaturalPerson();
+        person.setFirstName("Flight");
+        person.setLastName("Recorder");
+        partnerService.create(person);
+        partnerService.searchWithTimings("recorder", false);
+
+        Path file = recordingService.stop();
+        assertTrue(Files.size(file) > 0);
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+            .filter(e -> e.getEventType().getName().startsWith("dev.abstratium.partner."))
+            .toList();
+
+        RecordedEvent write = events.stream()
+            .filter(e -> e.getEventType().getName().equals("dev.abstratium.partner.Write"))
+            .filter(e -> "PartnerService".equals(e.getString("service")) && "create".equals(e.getString("method")))
+            .findFirst()
+            .orElseThrow();
+        assertTrue(write.getLong("statements") > 0);
+        assertFalse(write.getBoolean("failed"));
+
+        RecordedEvent search = events.stream()
+            .filter(e -> e.getEventType().getName().equals("dev.abstratium.partner.Search"))
+            .findFirst()
+            .orElseThrow();
+        assertEquals("recorder", search.getString("searchTerm"));
+        assertTrue(search.getInt("matches") >= 1);
+
+        List<String> names = events.stream().map(e -> e.getEventType().getName()).toList();
+        assertTrue(names.contains("dev.abstratium.partner.Enrichment"));
+        assertTrue(names.contains("dev.abstratium.partner.Export"));
+        assertTrue(names.contains("dev.abstratium.partner.PartnerNumberAllocation"));
+    }
+
+    @Test
+    public void testOnlyOneRecordingAtATime() {
+        recordingService.start(Duration.ofMinutes(1));
+        assertThrows(IllegalStateException.class, () -> recordingService.start(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    public void testDurationMustNotExceedMaximum() {
+        assertThrows(IllegalArgumentException.class, () -> recordingService.start(Duration.ofDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> recordingService.start(Duration.ZERO));
+    }
+}
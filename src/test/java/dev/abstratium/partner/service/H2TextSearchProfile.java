@@ -0,0 +1,21 @@
+package dev.abstratium.partner.service;
+
+import java.util.Map;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+/**
+ * Runs the search with H2's full-text engine, as the e2e profile does, instead of the LIKE backend of the
+ * other tests, and with a low maximum of full-text matches, so that the fallback to LIKE is exercised too.
+ */
+public class H2TextSearchProfile implements QuarkusTestProfile {
+
+    static final int MAX_MATCHES = 3;
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+            "partner.search.text-backend", "h2",
+            "partner.search.fulltext.max-matches", String.valueOf(MAX_MATCHES));
+    }
+}
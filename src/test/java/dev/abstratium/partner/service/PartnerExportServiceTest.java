@@ -32,18 +32,28 @@ class PartnerExportServiceTest {
     EntityManager em;
 
     private Path testExportFile = Path.of("/tmp/partner-export-test.txt");
+    private Path testDeltaFile = Path.of("/tmp/partner-export-delta-test.txt");
+    private Path testTombstoneFile = Path.of("/tmp/partner-export-tombstones-test.txt");
 
     @BeforeEach
     @Transactional
     void setUp() throws IOException {
         em.createQuery("DELETE FROM Partner p").executeUpdate();
         Files.deleteIfExists(testExportFile);
+        Files.deleteIfExists(testDeltaFile);
+        Files.deleteIfExists(testTombstoneFile);
+        Files.deleteIfExists(Path.of(testDeltaFile + PartnerExportService.ROTATED_SUFFIX));
+        Files.deleteIfExists(Path.of(testTombstoneFile + PartnerExportService.ROTATED_SUFFIX));
     }
 
     @AfterEach
     @Transactional
     void tearDown() throws IOException {
         Files.deleteIfExists(testExportFile);
+        Files.deleteIfExists(testDeltaFile);
+        Files.deleteIfExists(testTombstoneFile);
+        Files.deleteIfExists(Path.of(testDeltaFile + PartnerExportService.ROTATED_SUFFIX));
+        Files.deleteIfExists(Path.of(testTombstoneFile + PartnerExportService.ROTATED_SUFFIX));
         em.createQuery("DELETE FROM Partner p").executeUpdate();
     }
 
@@ -187,6 +197,84 @@ class PartnerExportServiceTest {
         }
     }
     
+    @Test
+    @TestSecurity(user = "testuser@example.com", roles = {})
+    void testWritesAreAppendedToDeltaAndTombstoneFiles() throws IOException {
+        LegalEntity le = new LegalEntity();
+        le.setLegalName("Delta Corporation");
+        le.setActive(true);
+        le = (LegalEntity) partnerService.create(le);
+
+        le.setLegalName("Delta Corporation Ltd");
+        partnerService.update(le);
+        partnerService.delete(le.getId());
+
+        assertFalse(Files.exists(testExportFile), "Writes should not rewrite the full export");
+
+        List<String> deltaLines = Files.readAllLines(testDeltaFile);
+        assertEquals("\"Partner Number\",\"Name\",\"Active\",\"Updated At\"", deltaLines.get(0));
+        assertEquals(3, deltaLines.size(), "Should have header + create + update");
+        assertTrue(deltaLines.get(1).startsWith("\"" + le.getPartnerNumber() + "\",\"Delta Corporation\","));
+        assertTrue(deltaLines.get(2).startsWith("\"" + le.getPartnerNumber() + "\",\"Delta Corporation Ltd\","));
+
+        List<String> tombstoneLines = Files.readAllLines(testTombstoneFile);
+        assertEquals("\"Partner Number\",\"Deleted At\"", tombstoneLines.get(0));
+        assertEquals(2, tombstoneLines.size(), "Should have header + delete");
+        assertTrue(tombstoneLines.get(1).startsWith("\"" + le.getPartnerNumber() + "\","));
+    }
+
+    @Test
+    @TestSecurity(user = "testuser@example.com", roles = {})
+    void testSnapshotCompactsDeltas() throws IOException {
+        NaturalPerson kept = new NaturalPerson();
+        kept.setFirstName("Kept");
+        kept.setLastName("Person");
+        kept.setActive(true);
+        kept = (NaturalPerson) partnerService.create(kept);
+
+        NaturalPerson deleted = new NaturalPerson();
+        deleted.setFirstName("Deleted");
+        deleted.setLastName("Person");
+        deleted.setActive(true);
+        deleted = (NaturalPerson) partnerService.create(deleted);
+        partnerService.delete(deleted.getId());
+
+        assertTrue(Files.exists(testDeltaFile));
+        assertTrue(Files.exists(testTombstoneFile));
+
+        exportService.exportPartnersToFile();
+
+        assertFalse(Files.exists(testDeltaFile), "Snapshot should compact the deltas");
+        assertFalse(Files.exists(testTombstoneFile), "Snapshot should compact the tombstones");
+        List<String> lines = Files.readAllLines(testExportFile);
+        String keptNumber = kept.getPartnerNumber();
+        String deletedNumber = deleted.getPartnerNumber();
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("\"" + keptNumber + "\"")));
+        assertTrue(lines.stream().noneMatch(line -> line.startsWith("\"" + deletedNumber + "\"")));
+    }
+
+    @Test
+    @TestSecurity(user = "testuser@example.com", roles = {})
+    void testSnapshotOnlyDeletesRotatedDeltas() throws IOException {
+        // left behind by an export that failed after rotating
+        Path rotatedDelta = Path.of(testDeltaFile + PartnerExportService.ROTATED_SUFFIX);
+        Files.write(rotatedDelta, List.of("\"Partner Number\",\"Name\",\"Active\",\"Updated At\""));
+
+        NaturalPerson np = new NaturalPerson();
+        np.setFirstName("Rotated");
+        np.setLastName("Person");
+        np.setActive(true);
+        partnerService.create(np);
+        assertTrue(Files.exists(testDeltaFile));
+
+        exportService.exportPartnersToFile();
+
+        // a rotated file already existed, so the delta file was not rotated and must survive
+        assertFalse(Files.exists(rotatedDelta), "Snapshot should delete the rotated deltas");
+        assertTrue(Files.exists(testDeltaFile), "Snapshot should keep deltas it did not rotate");
+        assertFalse(Files.exists(Path.of(testExportFile + ".tmp")));
+    }
+
     private String extractPartnerNumberFromCsv(String csvLine) {
         String[] fields = csvLine.split(",", 3); // Split into max 3 parts to get second field
         if (fields.length >= 2) {
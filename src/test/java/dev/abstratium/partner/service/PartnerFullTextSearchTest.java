@@ -0,0 +1,81 @@
+package dev.abstratium.partner.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import dev.abstratium.partner.dto.PartnerSearchResult;
+import dev.abstratium.partner.entity.LegalEntity;
+import dev.abstratium.partner.entity.NaturalPerson;
+import dev.abstratium.partner.entity.Partner;
+import dev.abstratium.partner.entity.Tag;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+
+/**
+ * The partner search with the h2 full-text backend, i.e. the H2 branch of migration V01_013 and
+ * {@link H2PartnerTextSearch}, which the other tests replace with LIKE.
+ */
+@QuarkusTest
+@TestProfile(H2TextSearchProfile.class)
+public class PartnerFullTextSearchTest {
+
+    @Inject
+    PartnerService partnerService;
+
+    @Inject
+    TagService tagService;
+
+    @Inject
+    PartnerTagService partnerTagService;
+
+    @Test
+    public void testSearchMatchesWholeWords() {
+        LegalEntity entity = new LegalEntity();
+        entity.setLegalName("Wholewordco Holding AG");
+        entity.setNotes("Supplies sprockets");
+        Partner partner = partnerService.create(entity);
+
+        NaturalPerson person = new NaturalPerson();
+        person.setFirstName("Wholewordco");
+        person.setLastName("Founder");
+        Partner founder = partnerService.create(person);
+
+        assertEquals(List.of(partner.getId(), founder.getId()), ids(partnerService.searchSummaries("wholewordco")));
+        // every word must match, in any of the indexed columns
+        assertEquals(List.of(partner.getId()), ids(partnerService.searchSummaries("sprockets wholewordco")));
+        // H2 does not match parts of words
+        assertTrue(partnerService.searchSummaries("wholeword").isEmpty());
+        // words the backend does not support are still matched with LIKE
+        assertEquals(List.of(partner.getId()), ids(partnerService.searchSummaries("wholewordco ag")));
+    }
+
+    @Test
+    public void testCommonWordsAreMatchedWithLikeInsteadOfBeingCutOff() {
+        // not transactional: the tag index is only updated once the assignments are committed
+        Tag tag = new Tag();
+        tag.setTagName("fulltext-vip");
+        tag = tagService.create(tag);
+
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i < H2TextSearchProfile.MAX_MATCHES + 2; i++) {
+            LegalEntity entity = new LegalEntity();
+            entity.setLegalName("Commonwordco " + i);
+            created.add(partnerService.create(entity).getId());
+        }
+        // the last one, which a cut-off full-text lookup may well not return
+        String vip = created.get(created.size() - 1);
+        partnerTagService.addTagToPartner(vip, tag.getId());
+
+        assertEquals(created, ids(partnerService.searchSummaries("commonwordco")));
+        assertEquals(List.of(vip), ids(partnerService.searchSummaries("tag:fulltext-vip commonwordco")));
+    }
+
+    private static List<String> ids(List<PartnerSearchResult> results) {
+        return results.stream().map(PartnerSearchResult::getId).toList();
+    }
+}
@@ -0,0 +1,47 @@
+package dev.abstratium.partner.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class PartnerNameKeysTest {
+
+    @Test
+    public void testWordsAreNormalizedAndAccentFolded() {
+        assertEquals(List.of("mueller", "zoe"), PartnerNameKeys.words("Müller, Zoë"));
+        assertEquals(List.of("strasse", "bau", "ag"), PartnerNameKeys.words("Straße-Bau AG"));
+        assertEquals(List.of("francois"), PartnerNameKeys.words("  François "));
+        assertTrue(PartnerNameKeys.words(null).isEmpty());
+        assertTrue(PartnerNameKeys.words(" - ").isEmpty());
+    }
+
+    @Test
+    public void testSimilarNamesShareCologneCode() {
+        String meier = PartnerNameKeys.cologne("meier");
+        assertEquals(meier, PartnerNameKeys.cologne("meyer"));
+        assertEquals(meier, PartnerNameKeys.cologne("maier"));
+        assertEquals(PartnerNameKeys.cologne("mueller"), PartnerNameKeys.cologne("muller"));
+        assertNotEquals(meier, PartnerNameKeys.cologne("mueller"));
+        assertNull(PartnerNameKeys.cologne("123"));
+    }
+
+    @Test
+    public void testSimilarNamesShareMetaphoneCode() {
+        assertEquals(PartnerNameKeys.metaphone("smith"), PartnerNameKeys.metaphone("smyth"));
+    }
+
+    @Test
+    public void testBoundedDistance() {
+        assertEquals(0, PartnerNameKeys.boundedDistance("meier", "meier", 2));
+        assertEquals(1, PartnerNameKeys.boundedDistance("meier", "meyer", 2));
+        assertEquals(2, PartnerNameKeys.boundedDistance("mayer", "meier", 2));
+        assertEquals(1, PartnerNameKeys.boundedDistance("mueler", "mueller", 1));
+        assertEquals(3, PartnerNameKeys.boundedDistance("kitten", "sitting", 3));
+        // exceeding the bound gives max + 1
+        assertEquals(2, PartnerNameKeys.boundedDistance("kitten", "sitting", 1));
+        assertEquals(2, PartnerNameKeys.boundedDistance("ab", "abcdef", 1));
+        assertEquals(1, PartnerNameKeys.boundedDistance("", "a", 1));
+    }
+}
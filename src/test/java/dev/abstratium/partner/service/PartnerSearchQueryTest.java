@@ -0,0 +1,106 @@
+package dev.abstratium.partner.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import dev.abstratium.partner.entity.PartnerDiscriminator;
+
+public class PartnerSearchQueryTest {
+
+    @Test
+    public void testPlainTextIsSplitIntoTerms() {
+        PartnerSearchQuery query = PartnerSearchQuery.parse("John  Doe");
+
+        assertEquals(List.of("John", "Doe"), query.getTextTerms());
+        assertTrue(query.isSelective());
+    }
+
+    @Test
+    public void testQuotedPhraseIsOneTerm() {
+        PartnerSearchQuery query = PartnerSearchQuery.parse("\"acme corp\" zurich");
+
+        assertEquals(List.of("acme corp", "zurich"), query.getTextTerms());
+    }
+
+    @Test
+    public void testClauses() {
+        PartnerSearchQuery query = PartnerSearchQuery.parse(
+            "tag:vip email:@ACME.ch city:\"St. Gallen\" type:LE active:false acme");
+
+        assertEquals(List.of(List.of("vip")), query.getTagGroups());
+        assertEquals(List.of("@acme.ch"), query.getEmails());
+        assertEquals(List.of("St. Gallen"), query.getCities());
+        assertEquals(PartnerDiscriminator.LEGAL_ENTITY, query.getPartnerType());
+        assertEquals(Boolean.FALSE, query.getActive());
+        assertEquals(List.of("acme"), query.getTextTerms());
+    }
+
+    @Test
+    public void testTagExpressions() {
+        PartnerSearchQuery query = PartnerSearchQuery.parse(
+            "tag:vip tag:supplier,partner -tag:blocked -tag:\"former, dormant\"");
+
+        assertEquals(List.of(List.of("vip"), List.of("supplier", "partner")), query.getTagGroups());
+        assertEquals(List.of("blocked", "former", "dormant"), query.getExcludedTags());
+        assertTrue(query.isSelective());
+    }
+
+    @Test
+    public void testExcludedTagAloneIsNotSelective() {
+        PartnerSearchQuery query = PartnerSearchQuery.parse("-tag:blocked");
+
+        assertTrue(query.hasTagClauses());
+        assertFalse(query.isSelective());
+    }
+
+    @Test
+    public void testPartnerNumber() {
+        assertEquals(77L, PartnerSearchQuery.parse("P00000077").getPartnerNumberSeq());
+        assertEquals(77L, PartnerSearchQuery.parse("p00000077").getPartnerNumberSeq());
+        assertNull(PartnerSearchQuery.parse("Peter").getPartnerNumberSeq());
+        assertEquals(List.of("Peter"), PartnerSearchQuery.parse("Peter").getTextTerms());
+    }
+
+    @Test
+    public void testTypeAliases() {
+        assertEquals(PartnerDiscriminator.NATURAL_PERSON, PartnerSearchQuery.parse("type:np").getPartnerType());
+        assertEquals(PartnerDiscriminator.NATURAL_PERSON, PartnerSearchQuery.parse("type:NATURAL_PERSON").getPartnerType());
+        assertEquals(PartnerDiscriminator.LEGAL_ENTITY, PartnerSearchQuery.parse("type:legal_entity").getPartnerType());
+    }
+
+    @Test
+    public void testUnknownOrInvalidClausesAreText() {
+        PartnerSearchQuery query = PartnerSearchQuery.parse("foo:bar type:xyz active:maybe 12:30");
+
+        assertEquals(List.of("foo:bar", "type:xyz", "active:maybe", "12:30"), query.getTextTerms());
+        assertNull(query.getPartnerType());
+        assertNull(query.getActive());
+    }
+
+    @Test
+    public void testFiltersAloneAreNotSelective() {
+        assertFalse(PartnerSearchQuery.parse("type:LE active:true").isSelective());
+        assertFalse(PartnerSearchQuery.parse("").isSelective());
+        assertFalse(PartnerSearchQuery.parse(null).isSelective());
+    }
+
+    @Test
+    public void testPhoneClause() {
+        PartnerSearchQuery query = PartnerSearchQuery.parse("phone:\"044 123 45 67\" phone:abc");
+
+        assertEquals(List.of("044 123 45 67"), query.getPhones());
+        assertEquals(List.of("phone:abc"), query.getTextTerms());
+    }
+
+    @Test
+    public void testFuzzyTerms() {
+        PartnerSearchQuery query = PartnerSearchQuery.parse("~meyer ~ hans");
+
+        assertEquals(List.of("meyer"), query.getFuzzyTerms());
+        assertEquals(List.of("~", "hans"), query.getTextTerms());
+        assertTrue(PartnerSearchQuery.parse("~meyer").isSelective());
+    }
+}
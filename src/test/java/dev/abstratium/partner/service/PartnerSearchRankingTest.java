@@ -0,0 +1,80 @@
+package dev.abstratium.partner.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import dev.abstratium.partner.dto.PartnerSearchResult;
+
+public class PartnerSearchRankingTest {
+
+    private static PartnerSearchResult legalEntity(long seq, boolean active, String legalName, String registrationNumber, String notes) {
+        return new PartnerSearchResult("id" + seq, seq, active, notes, null, null,
+            legalName, null, null, registrationNumber, null);
+    }
+
+    private static PartnerSearchResult person(long seq, boolean active, String firstName, String lastName) {
+        return new PartnerSearchResult("id" + seq, seq, active, null, null, null, firstName, lastName, null);
+    }
+
+    @Test
+    public void testMatchQuality() {
+        assertEquals(4, PartnerSearchRanking.match("Acme AG", "acme"));
+        assertEquals(2, PartnerSearchRanking.match("Acmeco AG", "acme"));
+        assertEquals(1, PartnerSearchRanking.match("Superacme AG", "acme"));
+        assertEquals(4, PartnerSearchRanking.match("Superacme Acme", "acme"));
+        assertEquals(0, PartnerSearchRanking.match("Other", "acme"));
+        assertEquals(0, PartnerSearchRanking.match(null, "acme"));
+    }
+
+    @Test
+    public void testExactNameBeatsNotesAndRegistrationNumber() {
+        List<PartnerSearchResult> results = List.of(
+            legalEntity(1, true, "Other AG", null, "acmeish products"),
+            legalEntity(2, true, "Other GmbH", "ACME123", null),
+            legalEntity(3, true, "Acmeco AG", null, null),
+            legalEntity(4, true, "Acme", null, null));
+
+        List<PartnerSearchResult> ranked = PartnerSearchRanking.topK(results, List.of("Acme"), 10);
+
+        assertEquals(List.of(4L, 3L, 2L, 1L), ranked.stream().map(PartnerSearchResult::getPartnerNumberSeq).toList());
+    }
+
+    @Test
+    public void testActivePartnersAreBoosted() {
+        List<PartnerSearchResult> results = List.of(
+            person(1, false, "Anna", "Meier"),
+            person(2, true, "Anna", "Meier"));
+
+        List<PartnerSearchResult> ranked = PartnerSearchRanking.topK(results, List.of("meier"), 10);
+
+        assertEquals(2L, ranked.get(0).getPartnerNumberSeq());
+    }
+
+    @Test
+    public void testOnlyTopKAreKeptAndTiesKeepPartnerNumberOrder() {
+        List<PartnerSearchResult> results = List.of(
+            person(5, true, "Hans", "Meierhofer"),
+            person(3, true, "Hans", "Meier"),
+            person(4, true, "Hans", "Meier"),
+            person(1, true, "Hans", "Obermeier"),
+            person(2, true, "Meier", "Hans"));
+
+        List<PartnerSearchResult> ranked = PartnerSearchRanking.topK(results, List.of("meier"), 3);
+
+        assertEquals(List.of(2L, 3L, 4L), ranked.stream().map(PartnerSearchResult::getPartnerNumberSeq).toList());
+    }
+
+    @Test
+    public void testAllTermsContribute() {
+        List<PartnerSearchResult> results = List.of(
+            person(1, true, "Hans", "Meier"),
+            person(2, true, "Anna", "Meier"));
+
+        List<PartnerSearchResult> ranked = PartnerSearchRanking.topK(results, List.of("meier", "anna"), 1);
+
+        assertEquals(2L, ranked.get(0).getPartnerNumberSeq());
+    }
+}
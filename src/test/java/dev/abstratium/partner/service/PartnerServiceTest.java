@@ -2,17 +2,26 @@ package dev.abstratium.partner.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.engine.spi.SessionImplementor;
 import org.junit.jupiter.api.Test;
 
+import dev.abstratium.partner.dto.PartnerSearchFacets;
+import dev.abstratium.partner.dto.PartnerSearchPage;
+import dev.abstratium.partner.dto.PartnerSearchResponse;
 import dev.abstratium.partner.dto.PartnerSearchResult;
 import dev.abstratium.partner.entity.Address;
 import dev.abstratium.partner.entity.AddressDetail;
+import dev.abstratium.partner.entity.ContactDetail;
 import dev.abstratium.partner.entity.LegalEntity;
 import dev.abstratium.partner.entity.NaturalPerson;
 import dev.abstratium.partner.entity.Partner;
+import dev.abstratium.partner.entity.PartnerDiscriminator;
+import dev.abstratium.partner.entity.Tag;
 import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.common.annotation.Identifier;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
@@ -29,6 +38,22 @@ public class PartnerServiceTest {
     @Inject
     AddressDetailService addressDetailService;
 
+    @Inject
+    ContactDetailService contactDetailService;
+
+    @Inject
+    TagService tagService;
+
+    @Inject
+    PartnerTagService partnerTagService;
+
+    @Inject
+    UnifiedSearchService unifiedSearchService;
+
+    @Inject
+    @Identifier("h2")
+    PartnerTextSearch h2TextSearch;
+
     @Inject
     EntityManager em;
 
@@ -429,4 +454,512 @@ public class PartnerServiceTest {
         assertTrue(result.getAddressLine().contains("Billtown"));
         assertFalse(result.getAddressLine().contains("Shipping"));
     }
+
+    @Test
+    @Transactional
+    public void testSearchSummariesDoesNotHydrateEntities() {
+        NaturalPerson person = new NaturalPerson();
+        person.setFirstName("Projected");
+        person.setLastName("Person");
+        person.setNotes("projection notes");
+        person.setActive(true);
+        Partner createdPerson = partnerService.create(person);
+
+        LegalEntity entity = new LegalEntity();
+        entity.setLegalName("Projected Corp");
+        entity.setRegistrationNumber("CHE-123.456.789");
+        entity.setJurisdiction("CH");
+        entity.setActive(true);
+        Partner createdEntity = partnerService.create(entity);
+        em.flush();
+        em.clear();
+
+        List<PartnerSearchResult> results = partnerService.searchSummaries("Projected");
+
+        assertEquals(0, em.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities(),
+            "Projection search must not load entities into the persistence context");
+        assertEquals(2, results.size());
+        // ordered by partner number across both partner types
+        assertEquals(createdPerson.getPartnerNumber(), results.get(0).getPartnerNumber());
+        assertEquals(createdEntity.getPartnerNumber(), results.get(1).getPartnerNumber());
+
+        PartnerSearchResult np = results.get(0);
+        assertEquals(PartnerDiscriminator.NATURAL_PERSON, np.getPartnerType());
+        assertEquals("Projected", np.getFirstName());
+        assertEquals("Person", np.getLastName());
+        assertEquals("projection notes", np.getNotes());
+        assertTrue(np.isActive());
+        assertNotNull(np.getCreatedAt());
+
+        PartnerSearchResult le = results.get(1);
+        assertEquals(PartnerDiscriminator.LEGAL_ENTITY, le.getPartnerType());
+        assertEquals("Projected Corp", le.getLegalName());
+        assertEquals("CHE-123.456.789", le.getRegistrationNumber());
+        assertEquals("CH", le.getJurisdiction());
+    }
+
+    @Test
+    public void testStructuredSearchIntersectsClauses() {
+        // not transactional: the tag index is only updated once the assignments are committed
+        Tag tag = new Tag();
+        tag.setTagName("structured-vip");
+        tag = tagService.create(tag);
+
+        LegalEntity tagged = new LegalEntity();
+        tagged.setLegalName("Structured Alpha AG");
+        Partner alpha = partnerService.create(tagged);
+        partnerTagService.addTagToPartner(alpha.getId(), tag.getId());
+
+        LegalEntity taggedInactive = new LegalEntity();
+        taggedInactive.setLegalName("Structured Beta AG");
+        Partner beta = partnerService.create(taggedInactive);
+        beta.setActive(false);
+        partnerService.update(beta);
+        partnerTagService.addTagToPartner(beta.getId(), tag.getId());
+
+        NaturalPerson taggedPerson = new NaturalPerson();
+        taggedPerson.setFirstName("Structured");
+        taggedPerson.setLastName("Gamma");
+        Partner gamma = partnerService.create(taggedPerson);
+        partnerTagService.addTagToPartner(gamma.getId(), tag.getId());
+
+        LegalEntity untagged = new LegalEntity();
+        untagged.setLegalName("Structured Delta AG");
+        partnerService.create(untagged);
+
+        List<PartnerSearchResult> all = partnerService.searchSummaries("tag:structured-vip");
+        assertEquals(3, all.size());
+
+        List<PartnerSearchResult> legalEntities = partnerService.searchSummaries("tag:structured-vip type:LE");
+        assertEquals(List.of(alpha.getId(), beta.getId()), legalEntities.stream().map(PartnerSearchResult::getId).toList());
+
+        List<PartnerSearchResult> active = partnerService.searchSummaries("tag:structured-vip type:LE active:true");
+        assertEquals(1, active.size());
+        assertEquals(alpha.getId(), active.get(0).getId());
+
+        List<PartnerSearchResult> text = partnerService.searchSummaries("tag:structured-vip gamma");
+        assertEquals(1, text.size());
+        assertEquals(gamma.getId(), text.get(0).getId());
+
+        assertTrue(partnerService.searchSummaries("tag:does-not-exist structured").isEmpty());
+    }
+
+    @Test
+    public void testTagExpressionSearch() {
+        Tag vip = new Tag();
+        vip.setTagName("expr-vip");
+        vip = tagService.create(vip);
+        Tag supplier = new Tag();
+        supplier.setTagName("expr-supplier");
+        supplier = tagService.create(supplier);
+        Tag blocked = new Tag();
+        blocked.setTagName("expr-blocked");
+        blocked = tagService.create(blocked);
+
+        LegalEntity both = new LegalEntity();
+        both.setLegalName("Expression Both AG");
+        Partner bothPartner = partnerService.create(both);
+        partnerTagService.addTagToPartner(bothPartner.getId(), vip.getId());
+        partnerTagService.addTagToPartner(bothPartner.getId(), supplier.getId());
+
+        LegalEntity bothBlocked = new LegalEntity();
+        bothBlocked.setLegalName("Expression Blocked AG");
+        Partner blockedPartner = partnerService.create(bothBlocked);
+        partnerTagService.addTagToPartner(blockedPartner.getId(), vip.getId());
+        partnerTagService.addTagToPartner(blockedPartner.getId(), supplier.getId());
+        partnerTagService.addTagToPartner(blockedPartner.getId(), blocked.getId());
+
+        LegalEntity vipOnly = new LegalEntity();
+        vipOnly.setLegalName("Expression Vip AG");
+        Partner vipPartner = partnerService.create(vipOnly);
+        partnerTagService.addTagToPartner(vipPartner.getId(), vip.getId());
+
+        List<PartnerSearchResult> results = partnerService.searchSummaries("tag:expr-vip tag:expr-supplier -tag:expr-blocked");
+        assertEquals(List.of(bothPartner.getId()), results.stream().map(PartnerSearchResult::getId).toList());
+
+        results = partnerService.searchSummaries("tag:expr-vip,expr-supplier");
+        assertEquals(3, results.size());
+
+        results = partnerService.searchSummaries("expression -tag:expr-blocked");
+        assertEquals(List.of(bothPartner.getId(), vipPartner.getId()), results.stream().map(PartnerSearchResult::getId).toList());
+
+        // removing a tag is reflected after commit
+        partnerTagService.removeTagFromPartner(blockedPartner.getId(), blocked.getId());
+        results = partnerService.searchSummaries("tag:expr-vip tag:expr-supplier -tag:expr-blocked");
+        assertEquals(2, results.size());
+
+        // deleting a partner removes it from the index
+        partnerService.delete(bothPartner.getId());
+        results = partnerService.searchSummaries("tag:expr-vip tag:expr-supplier");
+        assertEquals(List.of(blockedPartner.getId()), results.stream().map(PartnerSearchResult::getId).toList());
+    }
+
+    @Test
+    @Transactional
+    public void testStructuredSearchByEmailAndCity() {
+        LegalEntity entity = new LegalEntity();
+        entity.setLegalName("Structured Mail AG");
+        Partner partner = partnerService.create(entity);
+
+        ContactDetail email = new ContactDetail();
+        email.setContactType("EMAIL");
+        email.setContactValue("info@structured-mail.ch");
+        contactDetailService.create(partner.getId(), email);
+
+        Address address = new Address();
+        address.setStreetLine1("Bahnhofstrasse 1");
+        address.setCity("Structuredcity");
+        address.setCountryCode("CH");
+        Address createdAddress = addressService.create(address);
+        AddressDetail detail = new AddressDetail();
+        detail.setAddressType("BILLING");
+        addressDetailService.create(partner.getId(), createdAddress.getId(), detail);
+        em.flush();
+
+        assertEquals(1, partnerService.searchSummaries("email:@structured-mail.ch").size());
+        assertEquals(1, partnerService.searchSummaries("email:info@structured-mail.ch").size());
+        assertEquals(1, partnerService.searchSummaries("city:Structuredcity email:@structured-mail.ch").size());
+        assertEquals(1, partnerService.searchSummaries("city:structuredCITY email:@structured-mail.ch").size());
+        assertTrue(partnerService.searchSummaries("city:Elsewhere email:@structured-mail.ch").isEmpty());
+    }
+
+    @Test
+    @Transactional
+    public void testSearchMatchesAllWordsAcrossFields() {
+        NaturalPerson person = new NaturalPerson();
+        person.setFirstName("Wordsearch");
+        person.setLastName("Acrossfields");
+        partnerService.create(person);
+
+        List<PartnerSearchResult> results = partnerService.searchSummaries("wordsearch acrossfields");
+        assertEquals(1, results.size());
+        assertTrue(partnerService.searchSummaries("\"wordsearch acrossfields\"").isEmpty());
+    }
+
+    @Test
+    @Transactional
+    public void testContactLookupNormalizesPhoneEmailAndWebsite() {
+        LegalEntity entity = new LegalEntity();
+        entity.setLegalName("Lookup Keys AG");
+        Partner partner = partnerService.create(entity);
+
+        ContactDetail phone = new ContactDetail();
+        phone.setContactType("PHONE");
+        phone.setContactValue("044 987 65 43");
+        contactDetailService.create(partner.getId(), phone);
+
+        ContactDetail email = new ContactDetail();
+        email.setContactType("EMAIL");
+        email.setContactValue("Info@Lookup-Keys.ch");
+        contactDetailService.create(partner.getId(), email);
+
+        ContactDetail website = new ContactDetail();
+        website.setContactType("WEBSITE");
+        website.setContactValue("https://www.lookup-keys.ch/about");
+        contactDetailService.create(partner.getId(), website);
+        em.flush();
+
+        assertEquals(1, contactDetailService.lookup("+41 44 987 65 43", false).size());
+        assertEquals(1, contactDetailService.lookup("0041449876543", false).size());
+        assertEquals("Info@Lookup-Keys.ch", contactDetailService.lookup("info@lookup-keys.ch", false).get(0).getContactValue());
+        assertEquals(1, contactDetailService.lookup("@LOOKUP-KEYS.CH", false).size());
+        assertEquals("WEBSITE", contactDetailService.lookup("lookup-keys.ch", false).get(0).getContactType());
+        assertEquals(partner.getPartnerNumber(), contactDetailService.lookup("+41 44 987", true).get(0).getPartnerNumber());
+        assertTrue(contactDetailService.lookup("+41 44 987", false).isEmpty());
+
+        assertEquals(1, partnerService.searchSummaries("phone:\"044-987 65 43\"").size());
+        assertEquals(1, partnerService.searchSummaries("email:info@lookup-keys.ch").size());
+    }
+
+    @Test
+    @Transactional
+    public void testSearchByAddressIsPaginatedAndHighlightsMatch() {
+        Address shared = new Address();
+        shared.setStreetLine1("Pagestrasse 7");
+        shared.setCity("Addresspagecity");
+        shared.setCountryCode("CH");
+        Address sharedAddress = addressService.create(shared);
+
+        Address other = new Address();
+        other.setStreetLine1("Otherweg 1");
+        other.setCity("Elsewhere");
+        other.setCountryCode("CH");
+        Address otherAddress = addressService.create(other);
+
+        List<Partner> partners = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            NaturalPerson person = new NaturalPerson();
+            person.setFirstName("Addresspage" + i);
+            person.setLastName("Resident");
+            Partner partner = partnerService.create(person);
+            partners.add(partner);
+
+            AddressDetail primary = new AddressDetail();
+            primary.setAddressType("SHIPPING");
+            primary.setPrimary(true);
+            addressDetailService.create(partner.getId(), otherAddress.getId(), primary);
+
+            AddressDetail detail = new AddressDetail();
+            detail.setAddressType("BILLING");
+            addressDetailService.create(partner.getId(), sharedAddress.getId(), detail);
+        }
+        em.flush();
+
+        PartnerSearchPage first = partnerService.searchByAddress("addresspagecity pagestrasse", null, 0, 2);
+        assertEquals(3, first.getTotalCount());
+        assertEquals(2, first.getResults().size());
+        assertEquals(partners.get(0).getPartnerNumber(), first.getResults().get(0).getPartnerNumber());
+        assertEquals(sharedAddress.getId(), first.getResults().get(0).getMatchedAddressId());
+        assertTrue(first.getResults().get(0).getMatchedAddressLine().contains("Addresspagecity"));
+        // the preferred address line is still the primary one
+        assertTrue(first.getResults().get(0).getAddressLine().contains("Elsewhere"));
+
+        PartnerSearchPage second = partnerService.searchByAddress("addresspagecity pagestrasse", null, 1, 2);
+        assertEquals(1, second.getResults().size());
+        assertEquals(partners.get(2).getPartnerNumber(), second.getResults().get(0).getPartnerNumber());
+
+        assertEquals(3, partnerService.searchByAddress(null, sharedAddress.getId(), 0, 10).getTotalCount());
+        assertTrue(partnerService.searchByAddress("addresspagecity otherweg", null, 0, 10).getResults().isEmpty());
+    }
+
+    @Test
+    @Transactional
+    public void testFuzzyNameSearch() {
+        NaturalPerson meier = new NaturalPerson();
+        meier.setFirstName("Hansjörg");
+        meier.setLastName("Fuzzmeier");
+        partnerService.create(meier);
+
+        LegalEntity mueller = new LegalEntity();
+        mueller.setLegalName("Fuzzmüller Holding AG");
+        Partner entity = partnerService.create(mueller);
+
+        assertTrue(partnerService.searchSummaries("fuzzmeyer").isEmpty());
+        assertEquals(1, partnerService.searchSummaries("~fuzzmeyer").size());
+        assertEquals(1, partnerService.searchSummaries("~fuzzmaier ~hansjorg").size());
+        assertEquals(1, partnerService.searchSummaries("~Fuzzmueller").size());
+        assertEquals(1, partnerService.searchSummaries("~fuzzmuler type:LE").size());
+        assertTrue(partnerService.searchSummaries("~fuzzmeyer type:LE").isEmpty());
+
+        // keys follow renames
+        mueller = (LegalEntity) partnerService.findById(entity.getId());
+        mueller.setLegalName("Renamed Holding AG");
+        partnerService.update(mueller);
+        assertTrue(partnerService.searchSummaries("~fuzzmueller").isEmpty());
+    }
+
+    @Test
+    @Transactional
+    public void testSearchRanksExactNameFirst() {
+        LegalEntity notesOnly = new LegalEntity();
+        notesOnly.setLegalName("Unrelated Rankco Holding");
+        notesOnly.setNotes("supplier of rankexact parts");
+        partnerService.create(notesOnly);
+
+        LegalEntity exact = new LegalEntity();
+        exact.setLegalName("Rankexact");
+        partnerService.create(exact);
+
+        List<PartnerSearchResult> results = partnerService.searchWithAddressContactDetailsAndTags("rankexact");
+        assertEquals(2, results.size());
+        assertEquals("Rankexact", results.get(0).getLegalName());
+    }
+
+    @Test
+    public void testSearchWithFacets() {
+        Tag tag = new Tag();
+        tag.setTagName("facet-key-account");
+        tag = tagService.create(tag);
+
+        LegalEntity swiss = new LegalEntity();
+        swiss.setLegalName("Facetco Schweiz AG");
+        Partner swissPartner = partnerService.create(swiss);
+        partnerTagService.addTagToPartner(swissPartner.getId(), tag.getId());
+
+        Address zurich = new Address();
+        zurich.setStreetLine1("Facettenweg 1");
+        zurich.setCity("Zurich");
+        zurich.setCountryCode("CH");
+        Address zurichAddress = addressService.create(zurich);
+        Address berlin = new Address();
+        berlin.setStreetLine1("Facettenstrasse 2");
+        berlin.setCity("Berlin");
+        berlin.setCountryCode("DE");
+        Address berlinAddress = addressService.create(berlin);
+
+        // billing address in Germany, primary in Switzerland: the primary one counts
+        AddressDetail billing = new AddressDetail();
+        billing.setAddressType("BILLING");
+        addressDetailService.create(swissPartner.getId(), berlinAddress.getId(), billing);
+        AddressDetail primary = new AddressDetail();
+        primary.setAddressType("SHIPPING");
+        primary.setPrimary(true);
+        addressDetailService.create(swissPartner.getId(), zurichAddress.getId(), primary);
+
+        NaturalPerson person = new NaturalPerson();
+        person.setFirstName("Facetco");
+        person.setLastName("Person");
+        Partner personPartner = partnerService.create(person);
+        AddressDetail home = new AddressDetail();
+        home.setAddressType("SHIPPING");
+        addressDetailService.create(personPartner.getId(), berlinAddress.getId(), home);
+
+        PartnerSearchResponse response = partnerService.searchWithFacets("facetco");
+        assertEquals(2, response.getResults().size());
+        PartnerSearchFacets facets = response.getFacets();
+        assertEquals(2, facets.getTotal());
+        assertEquals(1L, facets.getPartnerType().get(PartnerDiscriminator.LEGAL_ENTITY));
+        assertEquals(1L, facets.getPartnerType().get(PartnerDiscriminator.NATURAL_PERSON));
+        assertEquals(2L, facets.getActive().get("true"));
+        assertEquals(1L, facets.getTag().get("facet-key-account"));
+        assertEquals(1L, facets.getCountry().get("CH"));
+        assertEquals(1L, facets.getCountry().get("DE"));
+
+        assertEquals(0, partnerService.searchWithFacets("nofacetmatchxyz").getFacets().getTotal());
+    }
+
+    @Test
+    public void testUnifiedSearchMergesSourcesByPartner() {
+        // found by name and by email domain
+        LegalEntity company = new LegalEntity();
+        company.setLegalName("Unifiedco AG");
+        Partner companyPartner = partnerService.create(company);
+        ContactDetail companyEmail = new ContactDetail();
+        companyEmail.setContactType("EMAIL");
+        companyEmail.setContactValue("info@unifiedco.ch");
+        contactDetailService.create(companyPartner.getId(), companyEmail);
+
+        // found by website only
+        NaturalPerson employee = new NaturalPerson();
+        employee.setFirstName("Erika");
+        employee.setLastName("Webonly");
+        Partner employeePartner = partnerService.create(employee);
+        ContactDetail website = new ContactDetail();
+        website.setContactType("WEBSITE");
+        website.setContactValue("https://www.unifiedco.ch/team");
+        contactDetailService.create(employeePartner.getId(), website);
+
+        // found by street only
+        NaturalPerson resident = new NaturalPerson();
+        resident.setFirstName("Rolf");
+        resident.setLastName("Streetonly");
+        Partner residentPartner = partnerService.create(resident);
+        Address address = new Address();
+        address.setStreetLine1("Unifiedcostrasse 5");
+        address.setCity("Bern");
+        address.setCountryCode("CH");
+        Address residentAddress = addressService.create(address);
+        AddressDetail detail = new AddressDetail();
+        detail.setAddressType("SHIPPING");
+        addressDetailService.create(residentPartner.getId(), residentAddress.getId(), detail);
+
+        PartnerSearchOutcome outcome = unifiedSearchService.search("unifiedco");
+        assertEquals(3, outcome.totalCount());
+        List<PartnerSearchResult> results = outcome.results();
+        assertEquals(3, results.size());
+
+        // the name match ranks first and was found by two sources, but is only returned once
+        assertEquals(companyPartner.getId(), results.get(0).getId());
+        assertEquals(List.of(UnifiedSearchService.SOURCE_PARTNER, UnifiedSearchService.SOURCE_CONTACT),
+            results.get(0).getMatchedSources());
+        assertEquals("info@unifiedco.ch", results.get(0).getEmail());
+
+        PartnerSearchResult web = results.stream()
+            .filter(r -> r.getId().equals(employeePartner.getId())).findFirst().orElseThrow();
+        assertEquals(List.of(UnifiedSearchService.SOURCE_CONTACT), web.getMatchedSources());
+
+        PartnerSearchResult street = results.stream()
+            .filter(r -> r.getId().equals(residentPartner.getId())).findFirst().orElseThrow();
+        assertEquals(List.of(UnifiedSearchService.SOURCE_ADDRESS), street.getMatchedSources());
+        assertEquals(residentAddress.getId(), street.getMatchedAddressId());
+        assertTrue(street.getAddressLine().contains("Unifiedcostrasse"));
+
+        assertEquals(0, unifiedSearchService.search("nounifiedmatchxyz").totalCount());
+
+        // without free text, contact details and addresses are not searched
+        PartnerSearchOutcome filtered = unifiedSearchService.search("email:@unifiedco.ch");
+        assertEquals(1, filtered.totalCount());
+        assertEquals(List.of(UnifiedSearchService.SOURCE_PARTNER), filtered.results().get(0).getMatchedSources());
+
+        assertThrows(IllegalArgumentException.class, () -> unifiedSearchService.search("type:LE active:true"));
+    }
+
+    @Test
+    public void testUnifiedSearchAppliesFiltersToEverySource() {
+        // not transactional: the tag index is only updated once the assignments are committed
+        LegalEntity company = new LegalEntity();
+        company.setLegalName("Filteredco AG");
+        Partner companyPartner = partnerService.create(company);
+
+        // found by email only, but inactive
+        NaturalPerson former = new NaturalPerson();
+        former.setFirstName("Fritz");
+        former.setLastName("Formeremployee");
+        Partner formerPartner = partnerService.create(former);
+        formerPartner.setActive(false);
+        partnerService.update(formerPartner);
+        ContactDetail email = new ContactDetail();
+        email.setContactType("EMAIL");
+        email.setContactValue("fritz@filteredco.ch");
+        contactDetailService.create(formerPartner.getId(), email);
+
+        // found by street only, and blocked
+        NaturalPerson resident = new NaturalPerson();
+        resident.setFirstName("Rita");
+        resident.setLastName("Resident");
+        Partner residentPartner = partnerService.create(resident);
+        Address address = new Address();
+        address.setStreetLine1("Filteredcoweg 1");
+        address.setCity("Thun");
+        address.setCountryCode("CH");
+        Address residentAddress = addressService.create(address);
+        AddressDetail detail = new AddressDetail();
+        detail.setAddressType("SHIPPING");
+        addressDetailService.create(residentPartner.getId(), residentAddress.getId(), detail);
+        Tag blocked = new Tag();
+        blocked.setTagName("filtered-blocked");
+        blocked = tagService.create(blocked);
+        partnerTagService.addTagToPartner(residentPartner.getId(), blocked.getId());
+
+        assertEquals(3, unifiedSearchService.search("filteredco").totalCount());
+        assertEquals(List.of(companyPartner.getId()), unifiedSearchService.search("filteredco type:LE active:true")
+            .results().stream().map(PartnerSearchResult::getId).toList());
+        assertEquals(List.of(residentPartner.getId()), unifiedSearchService.search("filteredco active:true type:NP")
+            .results().stream().map(PartnerSearchResult::getId).toList());
+        assertEquals(2, unifiedSearchService.search("filteredco -tag:filtered-blocked").totalCount());
+        assertEquals(List.of(residentPartner.getId()), unifiedSearchService.search("filteredco tag:filtered-blocked")
+            .results().stream().map(PartnerSearchResult::getId).toList());
+        assertEquals(List.of(formerPartner.getId()), unifiedSearchService.search("filteredco active:false")
+            .results().stream().map(PartnerSearchResult::getId).toList());
+    }
+
+    @Test
+    @Transactional
+    public void testH2FullTextSearchMatchesWholeWords() {
+        LegalEntity entity = new LegalEntity();
+        entity.setLegalName("Fulltextco Holding AG");
+        entity.setNotes("Supplies widgets to Fulltextco subsidiaries");
+        Partner partner = partnerService.create(entity);
+
+        NaturalPerson person = new NaturalPerson();
+        person.setFirstName("Fulltextco");
+        person.setLastName("Founder");
+        Partner founder = partnerService.create(person);
+
+        assertTrue(h2TextSearch.supports("widgets"));
+        assertFalse(h2TextSearch.supports("ab"));
+        assertFalse(h2TextSearch.supports("12345"));
+        assertFalse(h2TextSearch.supports("ACME-123"));
+
+        List<Long> both = h2TextSearch.findPartnerNumberSeqs(List.of("fulltextco"), 100);
+        assertTrue(both.contains(partner.getPartnerNumberSeq()));
+        assertTrue(both.contains(founder.getPartnerNumberSeq()));
+        // a common word is capped instead of becoming a candidate set of the whole table
+        assertEquals(1, h2TextSearch.findPartnerNumberSeqs(List.of("fulltextco"), 1).size());
+
+        // all words must match, in any of the indexed columns
+        assertEquals(List.of(partner.getPartnerNumberSeq()), h2TextSearch.findPartnerNumberSeqs(List.of("Widgets", "fulltextco"), 100));
+        // H2 matches whole words only
+        assertTrue(h2TextSearch.findPartnerNumberSeqs(List.of("widget"), 100).isEmpty());
+    }
 }
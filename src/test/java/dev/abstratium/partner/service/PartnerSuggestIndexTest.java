@@ -0,0 +1,195 @@
+package dev.abstratium.partner.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.roaringbitmap.RoaringBitmap;
+
+import dev.abstratium.partner.dto.PartnerSuggestion;
+import dev.abstratium.partner.entity.PartnerDiscriminator;
+
+public class PartnerSuggestIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private volatile CountDownLatch catchUpStarted = new CountDownLatch(1);
+    private volatile CountDownLatch releaseCatchUp = new CountDownLatch(1);
+
+    private volatile boolean databaseDown;
+    private final CountDownLatch loadFailed = new CountDownLatch(1);
+
+    private final CountDownLatch readingAcme = new CountDownLatch(1);
+    private volatile CountDownLatch releaseAcme = new CountDownLatch(0);
+
+    private PartnerSuggestIndex index;
+
+    private static final PartnerSuggestion ACME = new PartnerSuggestion("id-1", "P00000001",
+        PartnerDiscriminator.LEGAL_ENTITY, "Acme Corp AG", true);
+    private static final PartnerSuggestion MUELLER = new PartnerSuggestion("id-2", "P00000002",
+        PartnerDiscriminator.NATURAL_PERSON, "Hans Müller", true);
+
+    @BeforeEach
+    public void setup() throws Exception {
+        Path segment = dir.resolve("suggest.seg");
+        PartnerSuggestSegment.write(segment, List.of(new PartnerSuggestIndex.Entry("acme", 1, ACME)), 1000L, 2L);
+
+        index = new PartnerSuggestIndex() {
+            @Override
+            long readNextPartnerSeq() {
+                if (databaseDown) {
+                    loadFailed.countDown();
+                    throw new IllegalStateException("database unavailable");
+                }
+                return 3L;
+            }
+
+            @Override
+            List<Entry> readEntries(String partnerId) {
+                if (databaseDown) {
+                    throw new IllegalStateException("database unavailable");
+                }
+                if (partnerId.equals(ACME.getPartnerId())) {
+                    readingAcme.countDown();
+                    try {
+                        assertTrue(releaseAcme.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return List.of(new PartnerSuggestIndex.Entry("acme", 1, ACME),
+                        new PartnerSuggestIndex.Entry("renamed", 1, ACME));
+                }
+                return List.of(new PartnerSuggestIndex.Entry("mueller", 2, MUELLER));
+            }
+
+            @Override
+            Loaded readChanges(long highWaterMark) {
+                catchUpStarted.countDown();
+                try {
+                    assertTrue(releaseCatchUp.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                // Müller was created after the segment was written
+                return new Loaded(List.of(new PartnerSuggestIndex.Entry("mueller", 2, MUELLER)), 2000L, 3L,
+                    RoaringBitmap.bitmapOf(1, 2));
+            }
+        };
+        index.segmentPath = segment.toString();
+        index.maxAge = Duration.ofHours(1);
+        index.overlap = Duration.ofMinutes(1);
+        index.compactThreshold = 1000;
+    }
+
+    @Test
+    public void testNotReadyUntilCaughtUpWithTheDatabase() throws Exception {
+        assertFalse(index.isReady());
+
+        index.onStartup(null);
+        assertTrue(catchUpStarted.await(5, TimeUnit.SECONDS));
+        assertFalse(index.isReady(), "The reopened segment is not ready while it catches up");
+
+        releaseCatchUp.countDown();
+        awaitReady();
+        assertEquals(2000L, index.getHighWaterMark());
+        assertEquals(List.of(MUELLER.getPartnerId()),
+            index.suggest("muel", 10).stream().map(PartnerSuggestion::getPartnerId).toList());
+    }
+
+    @Test
+    public void testSuggestFindsNothingBeforeTheFirstLoad() {
+        assertEquals(List.of(), index.suggest("acme", 10));
+        // the lookup started the load in the background
+        releaseCatchUp.countDown();
+    }
+
+    @Test
+    public void testStaleIndexIsCaughtUpInTheBackground() throws Exception {
+        releaseCatchUp.countDown();
+        index.onStartup(null);
+        awaitReady();
+
+        index.maxAge = Duration.ZERO;
+        catchUpStarted = new CountDownLatch(1);
+        releaseCatchUp = new CountDownLatch(1);
+
+        // answered from the current snapshot while the catch-up waits for the database
+        assertEquals(List.of(ACME.getPartnerId()),
+            index.suggest("acme", 10).stream().map(PartnerSuggestion::getPartnerId).toList());
+        assertTrue(catchUpStarted.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(ACME.getPartnerId()),
+            index.suggest("acme", 10).stream().map(PartnerSuggestion::getPartnerId).toList());
+        index.maxAge = Duration.ofHours(1);
+        releaseCatchUp.countDown();
+    }
+
+    @Test
+    public void testFailedLoadIsRetriedWhileNotReady() throws Exception {
+        databaseDown = true;
+        releaseCatchUp.countDown();
+        index.onStartup(null);
+        assertTrue(loadFailed.await(5, TimeUnit.SECONDS));
+        assertFalse(index.isReady());
+
+        // the database is back; as the instance is not ready, it gets no lookups, only readiness checks
+        databaseDown = false;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!index.isReady() && System.currentTimeMillis() < deadline) {
+            index.retryIfNotReady();
+            Thread.sleep(10);
+        }
+        assertTrue(index.isReady());
+    }
+
+    @Test
+    public void testChangesAreAppliedWhileAnotherChangeIsRead() throws Exception {
+        releaseCatchUp.countDown();
+        index.onStartup(null);
+        awaitReady();
+
+        releaseAcme = new CountDownLatch(1);
+        Thread writer = Thread.ofVirtual().start(() -> index.onPartnerChanged(
+            new PartnerChangedEvent(ACME.getPartnerId(), 1L, PartnerChangedEvent.Type.PARTNER_UPDATED, null)));
+        assertTrue(readingAcme.await(5, TimeUnit.SECONDS));
+
+        // the read of Acme does not hold the lock, so other writers are not blocked by it
+        index.onPartnerChanged(new PartnerChangedEvent(MUELLER.getPartnerId(), 2L, PartnerChangedEvent.Type.PARTNER_UPDATED, null));
+        assertEquals(List.of(), index.suggest("renamed", 10));
+
+        releaseAcme.countDown();
+        assertTrue(writer.join(Duration.ofSeconds(5)));
+        assertEquals(List.of(ACME.getPartnerId()),
+            index.suggest("renamed", 10).stream().map(PartnerSuggestion::getPartnerId).toList());
+        assertEquals(List.of(MUELLER.getPartnerId()),
+            index.suggest("muel", 10).stream().map(PartnerSuggestion::getPartnerId).toList());
+    }
+
+    @Test
+    public void testPartnerIsMaskedWhenReadingItsChangeFails() throws Exception {
+        releaseCatchUp.countDown();
+        index.onStartup(null);
+        awaitReady();
+
+        databaseDown = true;
+        index.onPartnerChanged(new PartnerChangedEvent(ACME.getPartnerId(), 1L, PartnerChangedEvent.Type.PARTNER_UPDATED, null));
+
+        // no longer suggested under its possibly outdated name, until the next catch-up loads it
+        assertEquals(List.of(), index.suggest("acme", 10));
+    }
+
+    private void awaitReady() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!index.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(index.isReady());
+    }
+}
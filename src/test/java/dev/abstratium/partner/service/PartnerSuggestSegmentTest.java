@@ -0,0 +1,83 @@
+package dev.abstratium.partner.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dev.abstratium.partner.dto.PartnerSuggestion;
+import dev.abstratium.partner.entity.PartnerDiscriminator;
+
+public class PartnerSuggestSegmentTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testWrittenSegmentIsReopenedWithSameContent() throws IOException {
+        PartnerSuggestion acme = new PartnerSuggestion("id-1", "P00000001", PartnerDiscriminator.LEGAL_ENTITY,
+            "Acme Corp AG", true);
+        PartnerSuggestion mueller = new PartnerSuggestion("id-2", "P00000002", PartnerDiscriminator.NATURAL_PERSON,
+            "Hans Müller", false);
+        List<PartnerSuggestIndex.Entry> entries = new ArrayList<>(List.of(
+            new PartnerSuggestIndex.Entry("acme", 1, acme),
+            new PartnerSuggestIndex.Entry("corp", 1, acme),
+            new PartnerSuggestIndex.Entry("hans", 2, mueller),
+            new PartnerSuggestIndex.Entry("mueller", 2, mueller)));
+        entries.sort(PartnerSuggestIndex.ORDER);
+
+        Path path = dir.resolve("suggest.seg");
+        PartnerSuggestSegment.write(path, entries, 1234L, 3L);
+        PartnerSuggestSegment segment = PartnerSuggestSegment.open(path);
+
+        assertEquals(1234L, segment.highWaterMark());
+        assertEquals(3L, segment.nextPartnerSeq());
+        assertEquals(4, segment.size());
+        assertEquals(2, segment.partners().getCardinality());
+
+        int index = segment.lowerBound("mu");
+        assertEquals("mueller", segment.key(index));
+        assertEquals(2L, segment.partnerNumberSeq(index));
+        PartnerSuggestion suggestion = segment.suggestion(index);
+        assertEquals("id-2", suggestion.getPartnerId());
+        assertEquals("P00000002", suggestion.getPartnerNumber());
+        assertEquals(PartnerDiscriminator.NATURAL_PERSON, suggestion.getPartnerType());
+        assertEquals("Hans Müller", suggestion.getName());
+        assertFalse(suggestion.isActive());
+
+        assertEquals(0, segment.lowerBound("a"));
+        assertEquals(4, segment.lowerBound("zz"));
+        assertEquals(PartnerDiscriminator.LEGAL_ENTITY, segment.suggestion(segment.lowerBound("corp")).getPartnerType());
+    }
+
+    @Test
+    public void testRewriteReplacesSegment() throws IOException {
+        Path path = dir.resolve("suggest.seg");
+        PartnerSuggestSegment.write(path, List.of(), 1L, 1L);
+        PartnerSuggestion suggestion = new PartnerSuggestion("id-1", "P00000001", PartnerDiscriminator.LEGAL_ENTITY,
+            null, true);
+        PartnerSuggestSegment.write(path, List.of(new PartnerSuggestIndex.Entry("p00000001", 1, suggestion)), 2L, 2L);
+
+        PartnerSuggestSegment segment = PartnerSuggestSegment.open(path);
+        assertEquals(1, segment.size());
+        assertNull(segment.suggestion(0).getName());
+        try (var files = Files.list(dir)) {
+            // no temporary files are left behind
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void testOtherFilesAreRejected() throws IOException {
+        Path path = dir.resolve("suggest.seg");
+        Files.writeString(path, "not a segment, but long enough to contain a header of 48 bytes");
+
+        assertThrows(IllegalStateException.class, () -> PartnerSuggestSegment.open(path));
+    }
+}
@@ -0,0 +1,89 @@
+package dev.abstratium.partner.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.abstratium.partner.entity.ContactDetail;
+import dev.abstratium.partner.entity.NaturalPerson;
+import dev.abstratium.partner.entity.Partner;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+public class PartnerTableExportServiceTest {
+
+    @Inject
+    PartnerTableExportService tableExportService;
+
+    @Inject
+    PartnerService partnerService;
+
+    @Inject
+    ContactDetailService contactDetailService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExportWritesEveryTableAndTheManifest() throws Exception {
+        NaturalPerson person = new NaturalPerson();
+        person.setFirstName("Table");
+        person.setLastName("Export \"Quoted\"");
+        Partner partner = partnerService.create(person);
+
+        ContactDetail contact = new ContactDetail();
+        contact.setContactType("EMAIL");
+        contact.setContactValue("table.export@example.com");
+        ContactDetail createdContact = contactDetailService.create(partner.getId(), contact);
+
+        Map<String, Object> result = tableExportService.export();
+
+        Path directory = Path.of((String) result.get("directory"));
+        Map<String, Object> manifest = objectMapper.readValue(
+            directory.resolve(PartnerTableExportService.MANIFEST_FILE).toFile(), Map.class);
+        assertTrue(((Number) manifest.get("changeSeq")).longValue() > 0, "Should record the change feed position");
+        assertEquals("per-table", manifest.get("consistency"), "Should say the files are not from one snapshot");
+
+        List<Map<String, Object>> files = (List<Map<String, Object>>) manifest.get("files");
+        assertEquals(9, files.size());
+        for (Map<String, Object> file : files) {
+            Path path = directory.resolve((String) file.get("file"));
+            List<String> lines = Files.readAllLines(path);
+            assertEquals(((Number) file.get("rows")).longValue() + 1, lines.size(), "Should have header + rows");
+            assertEquals(((Number) file.get("bytes")).longValue(), Files.size(path));
+            assertEquals(file.get("sha256"),
+                HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(path))));
+        }
+
+        List<String> partners = Files.readAllLines(directory.resolve("partners.csv"));
+        assertTrue(partners.get(0).startsWith("\"id\","), "Header should list the columns");
+        assertTrue(partners.stream().anyMatch(line -> line.startsWith("\"" + partner.getId() + "\"")
+            && line.contains("\"Export \"\"Quoted\"\"\"")));
+
+        List<String> contacts = Files.readAllLines(directory.resolve("contact-details.csv"));
+        assertTrue(contacts.stream().anyMatch(line -> line.startsWith("\"" + createdContact.getId() + "\"")
+            && line.contains("\"" + partner.getId() + "\"")));
+    }
+
+    @Test
+    void testWorkersLeaveAConnectionForRequests() {
+        PartnerTableExportService service = new PartnerTableExportService();
+        service.poolMaxSize = 20;
+        assertEquals(9, service.workerCount(), "One worker per table");
+        service.poolMaxSize = 5;
+        assertEquals(4, service.workerCount());
+        service.poolMaxSize = 1;
+        assertEquals(1, service.workerCount());
+    }
+}
@@ -0,0 +1,46 @@
+package dev.abstratium.partner.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class QueryStatisticsTest {
+
+    @AfterEach
+    public void cleanup() {
+        QueryStatistics.stop();
+    }
+
+    @Test
+    public void testThreadsStartedByTheRequestDoNotInheritItsStatistics() throws Exception {
+        QueryStatistics.start();
+        QueryStatistics[] seen = new QueryStatistics[1];
+
+        // e.g. a background rebuild of an index, which may outlive the request
+        Thread thread = Thread.ofVirtual().start(() -> seen[0] = QueryStatistics.current());
+        thread.join();
+
+        assertNull(seen[0]);
+    }
+
+    @Test
+    public void testPropagatedTaskCountsIntoTheRequestsStatistics() throws Exception {
+        QueryStatistics statistics = QueryStatistics.start();
+        Supplier<QueryStatistics> task = QueryStatistics.propagate(() -> {
+            QueryStatistics.current().statementExecuted(5);
+            return QueryStatistics.current();
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            assertSame(statistics, executor.submit(task::get).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, statistics.getStatements());
+        assertEquals(5, statistics.getJdbcNanos());
+    }
+}
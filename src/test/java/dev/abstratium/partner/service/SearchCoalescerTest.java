@@ -0,0 +1,160 @@
+package dev.abstratium.partner.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SearchCoalescerTest {
+
+    private SearchCoalescer coalescer;
+
+    @BeforeEach
+    public void setup() {
+        coalescer = new SearchCoalescer();
+        coalescer.ttl = Duration.ofMinutes(1);
+        coalescer.maxEntries = 10;
+    }
+
+    @Test
+    public void testConcurrentIdenticalCallsShareOneComputation() throws Exception {
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> leader = executor.submit(() -> coalescer.execute("key", () -> {
+                computations.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "result";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            List<Future<String>> followers = List.of(
+                executor.submit(() -> coalescer.execute("key", () -> "follower computed")),
+                executor.submit(() -> coalescer.execute("key", () -> "follower computed")));
+            // give the followers time to join the running computation
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                assertEquals("result", follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, computations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testResultsAreCachedUntilInvalidated() {
+        AtomicInteger computations = new AtomicInteger();
+
+        assertEquals(1, (int) coalescer.execute("key", computations::incrementAndGet));
+        assertEquals(1, (int) coalescer.execute("key", computations::incrementAndGet));
+        assertEquals(2, (int) coalescer.execute("other", computations::incrementAndGet));
+
+        coalescer.invalidate();
+        assertEquals(3, (int) coalescer.execute("key", computations::incrementAndGet));
+    }
+
+    @Test
+    public void testResultComputedDuringAChangeIsNotCached() {
+        AtomicInteger computations = new AtomicInteger();
+
+        coalescer.execute("key", () -> {
+            coalescer.invalidate();
+            return computations.incrementAndGet();
+        });
+        assertEquals(2, (int) coalescer.execute("key", computations::incrementAndGet));
+    }
+
+    @Test
+    public void testZeroTtlDisablesCache() {
+        coalescer.ttl = Duration.ZERO;
+        AtomicInteger computations = new AtomicInteger();
+
+        coalescer.execute("key", computations::incrementAndGet);
+        coalescer.execute("key", computations::incrementAndGet);
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    public void testExceptionsAreNotCached() {
+        assertThrows(IllegalStateException.class, () -> coalescer.execute("key", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals("ok", coalescer.execute("key", () -> "ok"));
+    }
+
+    @Test
+    public void testErrorsAreSharedWithWaitingCallers() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> coalescer.execute("key", () -> {
+                started.countDown();
+                await(release);
+                throw new StackOverflowError("deep");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> follower = executor.submit(() -> coalescer.execute("key", () -> "follower computed"));
+            // give the follower time to join the running computation
+            Thread.sleep(100);
+            release.countDown();
+
+            ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, leaderFailure.getCause());
+            ExecutionException followerFailure = assertThrows(ExecutionException.class,
+                () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, followerFailure.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCallsAfterAChangeDoNotJoinAnOlderComputation() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> before = executor.submit(() -> coalescer.execute("key", () -> {
+                started.countDown();
+                await(release);
+                return "before the change";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            coalescer.invalidate();
+            assertEquals("after the change", coalescer.execute("key", () -> "after the change"));
+
+            release.countDown();
+            assertEquals("before the change", before.get(5, TimeUnit.SECONDS));
+            assertEquals("after the change", coalescer.execute("key", () -> "computed again"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
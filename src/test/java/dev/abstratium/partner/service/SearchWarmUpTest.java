@@ -0,0 +1,106 @@
+package dev.abstratium.partner.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import dev.abstratium.partner.dto.PartnerSearchPage;
+import dev.abstratium.partner.dto.PartnerSuggestion;
+
+/**
+ * The readiness check reports {@link SearchWarmUp#isCompleted()}, so these tests cover when the
+ * instance becomes ready.
+ */
+class SearchWarmUpTest {
+
+    @Test
+    void testNotReadyUntilWarmUpCompletes() throws Exception {
+        CountDownLatch searching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SearchWarmUp warmUp = warmUp(new PartnerService() {
+            @Override
+            public PartnerSearchOutcome searchWithTimings(String searchTerm, boolean withFacets) {
+                searching.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new PartnerSearchOutcome(List.of(), null, 0, 0, 0, 0);
+            }
+
+            @Override
+            public PartnerSearchPage searchByAddress(String searchTerm, String addressId, int page, int size) {
+                return null;
+            }
+        });
+        warmUp.unifiedSearchService = new UnifiedSearchService() {
+            @Override
+            public PartnerSearchOutcome search(String searchTerm) {
+                return new PartnerSearchOutcome(List.of(), null, 0, 0, 0, 0);
+            }
+        };
+        warmUp.suggestIndex = new PartnerSuggestIndex() {
+            @Override
+            public List<PartnerSuggestion> suggest(String prefix, int limit) {
+                return List.of();
+            }
+        };
+
+        assertFalse(warmUp.isCompleted(), "Should not be ready before the warm-up has run");
+        warmUp.onStartup(null);
+        assertTrue(searching.await(5, TimeUnit.SECONDS));
+        assertFalse(warmUp.isCompleted(), "Should not be ready while the warm-up is searching");
+
+        release.countDown();
+        awaitCompleted(warmUp);
+    }
+
+    @Test
+    void testReadyWhenAWarmUpSearchFails() throws Exception {
+        SearchWarmUp warmUp = warmUp(new PartnerService() {
+            @Override
+            public PartnerSearchOutcome searchWithTimings(String searchTerm, boolean withFacets) {
+                throw new IllegalStateException("database unavailable");
+            }
+        });
+
+        warmUp.warmUp();
+
+        // a failed warm-up is logged and the instance serves requests without it
+        assertTrue(warmUp.isCompleted());
+    }
+
+    @Test
+    void testReadyRightAwayWhenDisabled() {
+        SearchWarmUp warmUp = warmUp(new PartnerService());
+        warmUp.enabled = false;
+
+        warmUp.onStartup(null);
+
+        assertTrue(warmUp.isCompleted());
+    }
+
+    private static SearchWarmUp warmUp(PartnerService partnerService) {
+        SearchWarmUp warmUp = new SearchWarmUp();
+        warmUp.enabled = true;
+        // no pool to prime
+        warmUp.connections = 0;
+        warmUp.iterations = 1;
+        warmUp.searches = List.of("acme");
+        warmUp.partnerService = partnerService;
+        return warmUp;
+    }
+
+    private static void awaitCompleted(SearchWarmUp warmUp) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!warmUp.isCompleted() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(warmUp.isCompleted(), "Should be ready once the warm-up has completed");
+    }
+}
@@ -0,0 +1,142 @@
+package dev.abstratium.partner.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs statements on in-memory H2 through the {@link SlowQueryDriver}, without Quarkus.
+ */
+public class SlowQueryLogTest {
+
+    private SlowQueryLog slowQueryLog;
+    private Connection connection;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        slowQueryLog = newLog(Duration.ZERO, 3);
+        SlowQueryDriver.setLog(slowQueryLog);
+        connection = new SlowQueryDriver().connect("jdbc:h2:mem:slow-query-log;DB_CLOSE_DELAY=-1", new Properties());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS T_slow (id INT, name VARCHAR(200))");
+            statement.execute("DELETE FROM T_slow");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        connection.close();
+        SlowQueryDriver.setLog(null);
+        slowQueryLog.shutdown();
+    }
+
+    @Test
+    public void testKeepsSlowStatementWithSanitizedBindsAndCaller() throws SQLException {
+        slowQueryLog.clear();
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO T_slow (id, name) VALUES (?, ?)")) {
+            statement.setInt(1, 42);
+            statement.setString(2, "O'Brien\nAG");
+            statement.executeUpdate();
+        }
+
+        List<SlowQuery> slowQueries = slowQueryLog.getSlowQueries();
+        assertEquals(1, slowQueries.size());
+        SlowQuery slowQuery = slowQueries.get(0);
+        assertEquals("INSERT INTO T_slow (id, name) VALUES (?, ?)", slowQuery.getSql());
+        assertEquals(List.of("42", "'O''Brien AG'"), slowQuery.getBinds());
+        assertEquals(1, slowQuery.getBatchSize());
+        assertEquals("SlowQueryLogTest.testKeepsSlowStatementWithSanitizedBindsAndCaller", slowQuery.getCaller());
+        // H2 is not explained
+        assertNull(slowQuery.getPlan());
+    }
+
+    @Test
+    public void testBatchKeepsRowCountAndLastBinds() throws SQLException {
+        slowQueryLog.clear();
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO T_slow (id, name) VALUES (?, ?)")) {
+            for (int i = 0; i < 3; i++) {
+                statement.setInt(1, i);
+                statement.setNull(2, java.sql.Types.VARCHAR);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+
+        SlowQuery slowQuery = slowQueryLog.getSlowQueries().get(0);
+        assertEquals(3, slowQuery.getBatchSize());
+        assertEquals(List.of("2", "NULL"), slowQuery.getBinds());
+    }
+
+    @Test
+    public void testSanitizeTruncatesLongValues() {
+        assertEquals("'" + "x".repeat(40) + "...'", slowQueryLog.sanitize("x".repeat(100)));
+        assertEquals("<3 bytes>", slowQueryLog.sanitize(new byte[3]));
+    }
+
+    @Test
+    public void testRingBufferKeepsNewestStatements() throws SQLException {
+        slowQueryLog.clear();
+        try (Statement statement = connection.createStatement()) {
+            for (int i = 0; i < 5; i++) {
+                statement.executeQuery("SELECT " + i + " FROM T_slow").close();
+            }
+        }
+
+        assertEquals(5, slowQueryLog.getRecorded());
+        List<SlowQuery> slowQueries = slowQueryLog.getSlowQueries();
+        assertEquals(List.of("SELECT 4 FROM T_slow", "SELECT 3 FROM T_slow", "SELECT 2 FROM T_slow"),
+            slowQueries.stream().map(SlowQuery::getSql).toList());
+        assertTrue(slowQueries.get(0).getBinds().isEmpty());
+    }
+
+    @Test
+    public void testFastStatementsAreOnlyTimed() throws SQLException {
+        SlowQueryLog fastLog = newLog(Duration.ofMinutes(1), 3);
+        SlowQueryDriver.setLog(fastLog);
+        try (PreparedStatement statement = connection.prepareStatement("SELECT name FROM T_slow WHERE id = ?")) {
+            statement.setInt(1, 1);
+            statement.executeQuery().close();
+            statement.executeQuery().close();
+        } finally {
+            fastLog.shutdown();
+        }
+
+        assertTrue(fastLog.getSlowQueries().isEmpty());
+        Timer timer = ((SimpleMeterRegistry) fastLog.registry).find("abstradex.jdbc.statement")
+            .tags("operation", "select", "table", "T_slow")
+            .timer();
+        assertNotNull(timer);
+        assertEquals(2, timer.count());
+    }
+
+    @Test
+    public void testOperationIsFirstKeyword() {
+        assertEquals("select", SlowQueryLog.operation("  select p1_0.id from T_partner p1_0"));
+        assertEquals("update", SlowQueryLog.operation("UPDATE T_partner_sequence SET next_val = next_val + 1"));
+        assertEquals("other", SlowQueryLog.operation("SET @x = 1"));
+    }
+
+    private static SlowQueryLog newLog(Duration threshold, int bufferSize) {
+        SlowQueryLog log = new SlowQueryLog();
+        log.threshold = threshold;
+        log.bufferSize = bufferSize;
+        log.maxBindLength = 40;
+        log.explainEnabled = true;
+        log.registry = new SimpleMeterRegistry();
+        log.init();
+        return log;
+    }
+}
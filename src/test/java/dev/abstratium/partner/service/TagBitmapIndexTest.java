@@ -0,0 +1,120 @@
+package dev.abstratium.partner.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+public class TagBitmapIndexTest {
+
+    private final List<Object[]> assignments = new ArrayList<>();
+    private volatile CountDownLatch scanStarted = new CountDownLatch(0);
+    private volatile CountDownLatch releaseScan = new CountDownLatch(0);
+
+    private TagBitmapIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new TagBitmapIndex() {
+            @Override
+            List<Object[]> scan() {
+                scanStarted.countDown();
+                try {
+                    assertTrue(releaseScan.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                synchronized (assignments) {
+                    return new ArrayList<>(assignments);
+                }
+            }
+        };
+        index.maxAge = Duration.ofHours(1);
+        assign("vip", 1L);
+        assign("vip", 2L);
+        assign("vip", 3L);
+        assign("supplier", 2L);
+        assign("supplier", 3L);
+        assign("supplier", 4L);
+        assign("blocked", 3L);
+    }
+
+    @Test
+    public void testEvaluateIntersectsGroupsAndRemovesExcludedTags() {
+        assertEquals(RoaringBitmap.bitmapOf(2, 3), index.evaluate(List.of(List.of("vip"), List.of("supplier")), List.of()));
+        assertEquals(RoaringBitmap.bitmapOf(2), index.evaluate(List.of(List.of("vip"), List.of("supplier")),
+            List.of("blocked")));
+        assertEquals(RoaringBitmap.bitmapOf(1, 2, 3, 4), index.evaluate(List.of(List.of("vip", "supplier")), List.of()));
+    }
+
+    @Test
+    public void testEvaluateWithoutGroupsReturnsAllTaggedPartnersNotExcluded() {
+        assertEquals(RoaringBitmap.bitmapOf(1, 2, 4), index.evaluate(List.of(), List.of("blocked")));
+    }
+
+    @Test
+    public void testEvaluateWithUnknownTagIsEmpty() {
+        assertTrue(index.evaluate(List.of(List.of("vip"), List.of("unknown")), List.of()).isEmpty());
+    }
+
+    @Test
+    public void testCountWithinCountsOnlyTheGivenPartners() {
+        Map<String, Integer> counts = index.countWithin(RoaringBitmap.bitmapOf(1, 3, 5));
+
+        assertEquals(Map.of("vip", 2, "supplier", 1, "blocked", 1), counts);
+        assertEquals(3, index.count("vip"));
+    }
+
+    @Test
+    public void testChangesAreAppliedAfterCommit() {
+        index.union(List.of("vip"));
+
+        index.onPartnerChanged(new PartnerChangedEvent("p5", 5L, PartnerChangedEvent.Type.TAG_ADDED, "vip"));
+        index.onPartnerChanged(new PartnerChangedEvent("p1", 1L, PartnerChangedEvent.Type.TAG_REMOVED, "vip"));
+        index.onPartnerChanged(new PartnerChangedEvent("p3", 3L, PartnerChangedEvent.Type.PARTNER_DELETED, null));
+
+        assertEquals(RoaringBitmap.bitmapOf(2, 5), index.union(List.of("vip")));
+        assertEquals(RoaringBitmap.bitmapOf(2, 4), index.union(List.of("supplier")));
+    }
+
+    @Test
+    public void testStaleIndexIsRebuiltInTheBackgroundWhileTheOldOneIsServed() throws Exception {
+        index.maxAge = Duration.ZERO;
+        assertEquals(RoaringBitmap.bitmapOf(1, 2, 3), index.union(List.of("vip")));
+
+        // the database changed behind the index, e.g. through another instance
+        assign("vip", 6L);
+        scanStarted = new CountDownLatch(1);
+        releaseScan = new CountDownLatch(1);
+
+        // served from the old bitmaps without waiting for the rebuild
+        assertEquals(RoaringBitmap.bitmapOf(1, 2, 3), index.union(List.of("vip")));
+        assertTrue(scanStarted.await(5, TimeUnit.SECONDS));
+        // committed while the rebuild scans, but not seen by its scan
+        index.onPartnerChanged(new PartnerChangedEvent("p7", 7L, PartnerChangedEvent.Type.TAG_ADDED, "vip"));
+        assertEquals(RoaringBitmap.bitmapOf(1, 2, 3, 7), index.union(List.of("vip")));
+
+        index.maxAge = Duration.ofHours(1);
+        releaseScan.countDown();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!index.union(List.of("vip")).contains(6) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(RoaringBitmap.bitmapOf(1, 2, 3, 6, 7), index.union(List.of("vip")));
+    }
+
+    private void assign(String tagId, Long partnerNumberSeq) {
+        synchronized (assignments) {
+            assignments.add(new Object[] { tagId, partnerNumberSeq });
+        }
+    }
+}